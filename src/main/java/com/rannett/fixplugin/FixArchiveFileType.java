@@ -0,0 +1,52 @@
+package com.rannett.fixplugin;
+
+import com.intellij.openapi.fileTypes.FileType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+
+/**
+ * Gzip or zip compressed FIX log, shown read-only by the FIX viewer.
+ */
+public class FixArchiveFileType implements FileType {
+
+    public static final FixArchiveFileType INSTANCE = new FixArchiveFileType();
+
+    private FixArchiveFileType() {
+    }
+
+    @NotNull
+    @Override
+    public String getName() {
+        return "Compressed FIX Log";
+    }
+
+    @NotNull
+    @Override
+    public String getDescription() {
+        return "Gzip or zip compressed FIX log";
+    }
+
+    @NotNull
+    @Override
+    public String getDefaultExtension() {
+        return "fix.gz";
+    }
+
+    @Nullable
+    @Override
+    public Icon getIcon() {
+        return FixIcons.FILE;
+    }
+
+    @Override
+    public boolean isBinary() {
+        return true;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+}
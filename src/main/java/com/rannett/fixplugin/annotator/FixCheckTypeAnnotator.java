@@ -9,6 +9,7 @@ import com.rannett.fixplugin.dictionary.FixDictionaryCache;
 import com.rannett.fixplugin.dictionary.FixTagDictionary;
 import com.rannett.fixplugin.psi.FixTypes;
 import com.rannett.fixplugin.util.FieldTypeValidator;
+import com.rannett.fixplugin.util.FixFieldCursor;
 import com.rannett.fixplugin.util.FixUtils;
 import org.jetbrains.annotations.NotNull;
 
@@ -33,7 +34,8 @@ public class FixCheckTypeAnnotator implements Annotator {
             return;
         }
 
-        String tagNumber = tagElement.getText();
+        CharSequence tag = tagElement.getNode().getChars();
+        int tagNumber = FixFieldCursor.parseTag(tag, 0, tag.length());
         String value = element.getText();
 
         // Retrieve the version from the containing file or fallback
@@ -42,7 +44,7 @@ public class FixCheckTypeAnnotator implements Annotator {
 
 
         FixTagDictionary dictionary = element.getProject().getService(FixDictionaryCache.class).getDictionary(version);
-        String expectedType = dictionary.getFieldType(tagNumber);
+        String expectedType = tagNumber >= 0 ? dictionary.getFieldType(tagNumber) : null;
 
         if (expectedType != null && !FieldTypeValidator.isValueValidForType(expectedType, value)) {
             holder.newAnnotation(HighlightSeverity.ERROR, "Invalid value for type " + expectedType)
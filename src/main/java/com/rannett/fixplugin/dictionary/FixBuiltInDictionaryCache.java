@@ -0,0 +1,130 @@
+package com.rannett.fixplugin.dictionary;
+
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Application-level cache of the bundled dictionaries.
+ * <p>
+ * Built-in dictionaries are immutable and identical in every project, so one instance of each
+ * version is shared by the {@link FixDictionaryCache} of all open projects. Each project cache
+ * registers itself as a user of the versions it requested, which is used to report how much
+ * memory sharing saves compared to a copy per project.
+ */
+@Service(Service.Level.APP)
+public final class FixBuiltInDictionaryCache {
+
+    private static final Logger LOG = Logger.getInstance(FixBuiltInDictionaryCache.class);
+
+    private final Map<String, FixTagDictionary> dictionaries = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> users = new ConcurrentHashMap<>();
+
+    /**
+     * @return the shared cache, or {@code null} when running without an application
+     */
+    public static @Nullable FixBuiltInDictionaryCache getInstance() {
+        Application application = ApplicationManager.getApplication();
+        return application != null ? application.getService(FixBuiltInDictionaryCache.class) : null;
+    }
+
+    /**
+     * @param version FIX version identifier, e.g. {@code "FIX.4.4"}
+     * @return the shared built-in dictionary for the version
+     */
+    public FixTagDictionary getDictionary(@NotNull String version) {
+        return dictionaries.computeIfAbsent(version, v -> {
+            FixTagDictionary dictionary = FixTagDictionary.fromBuiltInVersion(v);
+            LOG.debug("Loaded built-in dictionary " + v + ", about " + (dictionary.getEstimatedSize() >> 10) + " KB");
+            return dictionary;
+        });
+    }
+
+    /**
+     * Records that one more project uses the built-in dictionary for the version.
+     */
+    void retain(@NotNull String version) {
+        users.computeIfAbsent(version, v -> new AtomicInteger()).incrementAndGet();
+    }
+
+    /**
+     * Records that a project no longer uses the built-in dictionary for the version.
+     */
+    void release(@NotNull String version) {
+        AtomicInteger count = users.get(version);
+        if (count != null) {
+            count.updateAndGet(value -> Math.max(0, value - 1));
+        }
+    }
+
+    /**
+     * @return memory held by the shared dictionaries and the amount saved by sharing them
+     */
+    public MemoryUsage getMemoryUsage() {
+        long retained = 0;
+        long saved = 0;
+        for (Map.Entry<String, FixTagDictionary> entry : dictionaries.entrySet()) {
+            long size = entry.getValue().getEstimatedSize();
+            AtomicInteger count = users.get(entry.getKey());
+            retained += size;
+            saved += size * Math.max(0, (count != null ? count.get() : 0) - 1);
+        }
+        return new MemoryUsage(dictionaries.size(), retained, saved);
+    }
+
+    /**
+     * @return footprints of the loaded built-in dictionaries, ordered by version
+     */
+    public List<FixDictionaryFootprint> getFootprints() {
+        List<FixDictionaryFootprint> footprints = new ArrayList<>();
+        dictionaries.forEach((version, dictionary) -> footprints.add(new FixDictionaryFootprint(version, true, dictionary)));
+        footprints.sort(Comparator.comparing(FixDictionaryFootprint::getName));
+        return footprints;
+    }
+
+    /**
+     * Estimated memory use of the shared built-in dictionaries.
+     */
+    public static final class MemoryUsage {
+        private final int dictionaryCount;
+        private final long retainedSize;
+        private final long savedSize;
+
+        MemoryUsage(int dictionaryCount, long retainedSize, long savedSize) {
+            this.dictionaryCount = dictionaryCount;
+            this.retainedSize = retainedSize;
+            this.savedSize = savedSize;
+        }
+
+        /**
+         * @return number of loaded built-in dictionaries
+         */
+        public int getDictionaryCount() {
+            return dictionaryCount;
+        }
+
+        /**
+         * @return estimated bytes held by the loaded built-in dictionaries
+         */
+        public long getRetainedSize() {
+            return retainedSize;
+        }
+
+        /**
+         * @return estimated bytes that one copy per project would have needed in addition
+         */
+        public long getSavedSize() {
+            return savedSize;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.rannett.fixplugin.dictionary;
+
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.rannett.fixplugin.settings.FixViewerSettingsState.DictionaryEntry;
+import com.rannett.fixplugin.util.FixMessageParser;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import quickfix.DataDictionary;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Application-level cache of QuickFIX/J {@link DataDictionary} instances.
+ * <p>
+ * Building a {@code DataDictionary} parses the whole dictionary XML, so every QuickFIX/J parsing
+ * path shares one instance per dictionary, keyed like {@link DictionaryEntry#getCacheKey()}. The
+ * instances are only read after construction. Built-in dictionaries are kept for the lifetime of
+ * the application; custom dictionaries are dropped whenever a project reports a dictionary change
+ * through {@link FixDictionaryChangeListener}.
+ */
+@Service(Service.Level.APP)
+public final class FixDataDictionaryCache {
+
+    private static final String BUILT_IN_PREFIX = "BUILTIN:";
+
+    // Optional because loading can fail, and a failure should not be retried for every message
+    private final Map<String, Optional<DataDictionary>> dictionaries = new ConcurrentHashMap<>();
+
+    /**
+     * @return the shared cache, or {@code null} when running without an application
+     */
+    public static @Nullable FixDataDictionaryCache getInstance() {
+        Application application = ApplicationManager.getApplication();
+        return application != null ? application.getService(FixDataDictionaryCache.class) : null;
+    }
+
+    /**
+     * A {@code null} entry and a built-in entry for the same version resolve to the same key.
+     *
+     * @param version FIX version
+     * @param entry   selected dictionary or {@code null} for the built-in one
+     * @return the cache key of the dictionary
+     */
+    public static String getCacheKey(@NotNull String version, @Nullable DictionaryEntry entry) {
+        return entry == null || entry.isBuiltIn() ? BUILT_IN_PREFIX + version : entry.getCacheKey();
+    }
+
+    /**
+     * Returns the shared dictionary for the given version and entry, loading it on first use.
+     *
+     * @param version FIX version
+     * @param entry   selected dictionary or {@code null} for the built-in one
+     * @return the dictionary or {@code null} if none could be loaded
+     */
+    public @Nullable DataDictionary getDictionary(@NotNull String version, @Nullable DictionaryEntry entry) {
+        return dictionaries.computeIfAbsent(getCacheKey(version, entry),
+                k -> Optional.ofNullable(FixMessageParser.loadDataDictionary(version, entry))).orElse(null);
+    }
+
+    /**
+     * Drops all custom dictionaries so that they are loaded again on next use.
+     */
+    public void invalidateCustomDictionaries() {
+        dictionaries.keySet().removeIf(key -> !key.startsWith(BUILT_IN_PREFIX));
+    }
+
+    /**
+     * Project listener that drops cached custom dictionaries when the dictionary settings change.
+     */
+    public static final class Invalidator implements FixDictionaryChangeListener {
+        @Override
+        public void onDictionariesChanged() {
+            FixDataDictionaryCache cache = getInstance();
+            if (cache != null) {
+                cache.invalidateCustomDictionaries();
+            }
+        }
+    }
+}
@@ -1,22 +1,66 @@
 package com.rannett.fixplugin.dictionary;
 
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.components.Service;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
 import com.rannett.fixplugin.settings.FixViewerSettingsState;
 import com.rannett.fixplugin.settings.FixViewerSettingsState.DictionaryEntry;
+import org.jetbrains.annotations.NotNull;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
+/**
+ * Project-level cache of custom-path dictionaries; built-in dictionaries, including the bases of
+ * overlay dictionaries, come from the shared {@link FixBuiltInDictionaryCache}.
+ * <p>
+ * At most {@link #MAX_CUSTOM_DICTIONARIES} custom dictionaries are kept, evicting the least
+ * recently used. Custom dictionaries usually live outside the project, so each cached file is
+ * loaded into the VFS and registered as a watch root while it is cached. When it changes on disk,
+ * {@link FileListener} reloads just that dictionary in the background and then notifies
+ * {@link FixDictionaryChangeListener}s; views keep using the previous version until the new one
+ * is ready.
+ */
 @Service(Service.Level.PROJECT)
-public final class FixDictionaryCache {
+public final class FixDictionaryCache implements Disposable {
 
-    private final Map<String, FixTagDictionary> cache = new ConcurrentHashMap<>();
+    static final int MAX_CUSTOM_DICTIONARIES = 16;
+
+    // Custom dictionaries only, in access order; guarded by itself
+    private final Map<String, CachedDictionary> cache;
+    private final Set<String> builtInVersions = ConcurrentHashMap.newKeySet();
 
     private final Project project;
 
     public FixDictionaryCache(Project project) {
+        this(project, MAX_CUSTOM_DICTIONARIES);
+    }
+
+    FixDictionaryCache(Project project, int maxCustomDictionaries) {
         this.project = project;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedDictionary> eldest) {
+                if (size() <= maxCustomDictionaries) {
+                    return false;
+                }
+                eldest.getValue().unwatch();
+                return true;
+            }
+        };
     }
 
     // Project-level cache access
@@ -27,22 +71,224 @@ public final class FixDictionaryCache {
     }
 
     public FixTagDictionary getDictionary(DictionaryEntry entry, String version) {
-        String cacheKey = entry != null ? entry.getCacheKey() : "DEFAULT:" + version;
-        return cache.computeIfAbsent(cacheKey, v -> loadDictionary(project, entry, version));
+        FixBuiltInDictionaryCache shared = FixBuiltInDictionaryCache.getInstance();
+        if (isCustom(entry)) {
+            FixTagDictionary dictionary = getCached(entry.getCacheKey(), entry.getPath(),
+                    () -> FixTagDictionary.fromFile(new File(entry.getPath())));
+            // An overlay holds on to its shared base, so count this project as a user of it
+            String baseVersion = dictionary.getBaseVersion();
+            if (shared != null && baseVersion != null && builtInVersions.add(baseVersion)) {
+                shared.retain(baseVersion);
+            }
+            return dictionary;
+        }
+        if (shared == null) {
+            return getCached("DEFAULT:" + version, null, () -> FixTagDictionary.fromBuiltInVersion(version));
+        }
+        if (builtInVersions.add(version)) {
+            shared.retain(version);
+        }
+        return shared.getDictionary(version);
+    }
+
+    private FixTagDictionary getCached(String key, String path, Supplier<FixTagDictionary> loader) {
+        synchronized (cache) {
+            CachedDictionary cached = cache.get(key);
+            if (cached != null) {
+                return cached.dictionary;
+            }
+        }
+        // Parse outside the lock so that a large dictionary does not block lookups of others
+        FixTagDictionary loaded = loader.get();
+        CachedDictionary added = new CachedDictionary(path, stampOf(path), loaded, watch(path));
+        synchronized (cache) {
+            CachedDictionary cached = cache.putIfAbsent(key, added);
+            if (cached != null) {
+                added.unwatch();
+                return cached.dictionary;
+            }
+            return loaded;
+        }
     }
 
     /**
-     * Clears the cached dictionaries so that subsequent lookups reload from disk or bundled resources.
+     * Clears the cached custom dictionaries so that subsequent lookups reload them from disk.
+     * Built-in dictionaries never change and stay shared.
      */
     public void clear() {
-        cache.clear();
+        synchronized (cache) {
+            cache.values().forEach(CachedDictionary::unwatch);
+            cache.clear();
+        }
+    }
+
+    /**
+     * @return footprints of the cached custom dictionaries, most recently used last
+     */
+    public List<FixDictionaryFootprint> getFootprints() {
+        List<FixDictionaryFootprint> footprints = new ArrayList<>();
+        synchronized (cache) {
+            cache.forEach((key, cached) -> footprints.add(new FixDictionaryFootprint(
+                    cached.path != null ? cached.path : key, cached.path == null, cached.dictionary)));
+        }
+        return footprints;
+    }
+
+    /**
+     * @return system-independent paths of the cached custom dictionaries
+     */
+    Set<String> getCachedPaths() {
+        Set<String> paths = new HashSet<>();
+        synchronized (cache) {
+            for (CachedDictionary cached : cache.values()) {
+                if (cached.path != null) {
+                    paths.add(FileUtil.toSystemIndependentName(cached.path));
+                }
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Loads the cached dictionaries read from the given file again and replaces them, unless the
+     * file's modification stamp is unchanged since they were loaded.
+     *
+     * @param path system-independent path of the changed file
+     * @return whether any cached dictionary was reloaded
+     */
+    boolean reload(@NotNull String path) {
+        List<Map.Entry<String, CachedDictionary>> affected = new ArrayList<>();
+        synchronized (cache) {
+            for (Map.Entry<String, CachedDictionary> entry : cache.entrySet()) {
+                String cachedPath = entry.getValue().path;
+                if (cachedPath != null && FileUtil.toSystemIndependentName(cachedPath).equals(path)) {
+                    affected.add(Map.entry(entry.getKey(), entry.getValue()));
+                }
+            }
+        }
+        boolean reloaded = false;
+        for (Map.Entry<String, CachedDictionary> entry : affected) {
+            CachedDictionary cached = entry.getValue();
+            long stamp = stampOf(cached.path);
+            if (stamp == cached.stamp) {
+                continue;
+            }
+            FixTagDictionary dictionary = FixTagDictionary.fromFile(new File(cached.path));
+            synchronized (cache) {
+                // Only replace entries that were not cleared or evicted in the meantime; the
+                // replacement takes over the watch of the file
+                reloaded |= cache.replace(entry.getKey(), cached,
+                        new CachedDictionary(cached.path, stamp, dictionary, cached.watch));
+            }
+        }
+        return reloaded;
     }
 
-    private FixTagDictionary loadDictionary(Project project, DictionaryEntry entry, String fixVersion) {
-        if (entry != null && !entry.isBuiltIn() && entry.getPath() != null && !entry.getPath().isEmpty()) {
-            return FixTagDictionary.fromFile(new java.io.File(entry.getPath()));
+    @Override
+    public void dispose() {
+        clear();
+        FixBuiltInDictionaryCache shared = FixBuiltInDictionaryCache.getInstance();
+        if (shared != null) {
+            builtInVersions.forEach(shared::release);
         }
-        return FixTagDictionary.fromBuiltInVersion(fixVersion);
+        builtInVersions.clear();
     }
 
+    private static boolean isCustom(DictionaryEntry entry) {
+        return entry != null && !entry.isBuiltIn() && entry.getPath() != null && !entry.getPath().isEmpty();
+    }
+
+    /**
+     * @return the VFS modification stamp of the file, which changes whenever the VFS sees it
+     * modified, {@code -1} if it does not exist, or {@code 0} for built-in dictionaries
+     */
+    private static long stampOf(String path) {
+        if (path == null) {
+            return 0;
+        }
+        VirtualFile file = findFile(path);
+        return file != null ? file.getModificationStamp() : -1;
+    }
+
+    private static VirtualFile findFile(String path) {
+        LocalFileSystem fileSystem = LocalFileSystem.getInstance();
+        String systemIndependent = FileUtil.toSystemIndependentName(path);
+        // A refresh must not run inside a read action; a plain lookup still loads the file into the VFS
+        return ApplicationManager.getApplication().isReadAccessAllowed()
+                ? fileSystem.findFileByPath(systemIndependent)
+                : fileSystem.refreshAndFindFileByPath(systemIndependent);
+    }
+
+    /**
+     * Asks the file watcher to report changes of a dictionary file outside the project.
+     */
+    private static LocalFileSystem.WatchRequest watch(String path) {
+        if (path == null) {
+            return null;
+        }
+        return LocalFileSystem.getInstance().addRootToWatch(FileUtil.toSystemIndependentName(path), false);
+    }
+
+    private static final class CachedDictionary {
+        private final String path;
+        private final long stamp;
+        private final FixTagDictionary dictionary;
+        private final LocalFileSystem.WatchRequest watch;
+
+        CachedDictionary(String path, long stamp, FixTagDictionary dictionary, LocalFileSystem.WatchRequest watch) {
+            this.path = path;
+            this.stamp = stamp;
+            this.dictionary = dictionary;
+            this.watch = watch;
+        }
+
+        void unwatch() {
+            if (watch != null) {
+                LocalFileSystem.getInstance().removeWatchedRoot(watch);
+            }
+        }
+    }
+
+    /**
+     * Reloads cached custom dictionaries whose files were changed, moved or deleted.
+     */
+    public static final class FileListener implements BulkFileListener {
+        private final Project project;
+
+        public FileListener(Project project) {
+            this.project = project;
+        }
+
+        @Override
+        public void after(@NotNull List<? extends VFileEvent> events) {
+            FixDictionaryCache cache = project.getServiceIfCreated(FixDictionaryCache.class);
+            if (cache == null) {
+                return;
+            }
+            Set<String> cachedPaths = cache.getCachedPaths();
+            if (cachedPaths.isEmpty()) {
+                return;
+            }
+            Set<String> changed = new HashSet<>();
+            for (VFileEvent event : events) {
+                if (cachedPaths.contains(event.getPath())) {
+                    changed.add(event.getPath());
+                }
+            }
+            if (changed.isEmpty()) {
+                return;
+            }
+            ApplicationManager.getApplication().executeOnPooledThread(() -> {
+                boolean reloaded = false;
+                for (String path : changed) {
+                    reloaded |= cache.reload(path);
+                }
+                if (reloaded) {
+                    ApplicationManager.getApplication().invokeLater(() -> project.getMessageBus()
+                            .syncPublisher(FixDictionaryChangeListener.TOPIC)
+                            .onDictionariesChanged(), project.getDisposed());
+                }
+            });
+        }
+    }
 }
@@ -0,0 +1,58 @@
+package com.rannett.fixplugin.dictionary;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Heap footprint of one loaded dictionary, for reporting in the settings.
+ */
+public final class FixDictionaryFootprint {
+    private final String name;
+    private final boolean builtIn;
+    private final String baseVersion;
+    private final int entryCount;
+    private final long retainedSize;
+
+    FixDictionaryFootprint(@NotNull String name, boolean builtIn, @NotNull FixTagDictionary dictionary) {
+        this.name = name;
+        this.builtIn = builtIn;
+        this.baseVersion = dictionary.getBaseVersion();
+        this.entryCount = dictionary.getEntryCount();
+        this.retainedSize = dictionary.getEstimatedSize();
+    }
+
+    /**
+     * @return the FIX version of a built-in dictionary or the path of a custom one
+     */
+    public @NotNull String getName() {
+        return name;
+    }
+
+    /**
+     * @return whether this is a bundled dictionary shared by all projects
+     */
+    public boolean isBuiltIn() {
+        return builtIn;
+    }
+
+    /**
+     * @return the built-in version an overlay dictionary is layered on, or {@code null}
+     */
+    public @Nullable String getBaseVersion() {
+        return baseVersion;
+    }
+
+    /**
+     * @return number of fields and enumerated values, see {@link FixTagDictionary#getEntryCount()}
+     */
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * @return estimated retained bytes, see {@link FixTagDictionary#getEstimatedSize()}
+     */
+    public long getRetainedSize() {
+        return retainedSize;
+    }
+}
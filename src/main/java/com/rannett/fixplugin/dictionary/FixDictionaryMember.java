@@ -0,0 +1,63 @@
+package com.rannett.fixplugin.dictionary;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * A field, component reference or repeating group within a message, component, group, header or
+ * trailer definition of an XML dictionary. Instances are immutable.
+ */
+public final class FixDictionaryMember {
+
+    /**
+     * The kind of a member.
+     */
+    public enum Kind {
+        FIELD,
+        /** Reference by name to a component, see {@link FixTagDictionary#getComponentMembers(String)}. */
+        COMPONENT,
+        /** Repeating group; its name is the name of its counter field. */
+        GROUP
+    }
+
+    private final Kind kind;
+    private final String name;
+    private final boolean required;
+    private final List<FixDictionaryMember> members;
+
+    FixDictionaryMember(@NotNull Kind kind, @NotNull String name, boolean required,
+                        @NotNull List<FixDictionaryMember> members) {
+        this.kind = kind;
+        this.name = FixTagDictionary.intern(name);
+        this.required = required;
+        this.members = List.copyOf(members);
+    }
+
+    public @NotNull Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the field name, the component name, or the name of the group's counter field
+     */
+    public @NotNull String getName() {
+        return name;
+    }
+
+    public boolean isRequired() {
+        return required;
+    }
+
+    /**
+     * @return the members of a group in order; empty for fields and component references
+     */
+    public @NotNull List<FixDictionaryMember> getMembers() {
+        return members;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + name + (required ? " (required)" : "");
+    }
+}
@@ -0,0 +1,188 @@
+package com.rannett.fixplugin.dictionary;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * On-disk cache of compiled {@link FixTagDictionary} snapshots.
+ * <p>
+ * Parsing a dictionary means scanning hundreds of kilobytes of XML or JSON. The first time a
+ * dictionary is loaded its tables are written to a compact binary snapshot under the IDE system
+ * directory, keyed by a hash of the dictionary source. Later loads of the same content, including
+ * after an IDE restart, bulk-read the snapshot instead of parsing the source again. Editing a
+ * custom dictionary changes its hash, so a stale snapshot is never used.
+ * <p>
+ * Snapshot names carry the format version. Whenever a snapshot is written, snapshots of other
+ * versions are deleted, as are current ones beyond the {@link #MAX_SNAPSHOTS} most recently used.
+ */
+final class FixDictionarySnapshotCache {
+
+    private static final Logger LOG = Logger.getInstance(FixDictionarySnapshotCache.class);
+
+    static final int MAGIC = 0x46495844; // "FIXD"
+    static final int FORMAT_VERSION = 3;
+    static final int MAX_SNAPSHOTS = 32;
+    private static final String SNAPSHOT_SUFFIX = ".dict";
+    private static final String VERSION_SUFFIX = "-v" + FORMAT_VERSION + SNAPSHOT_SUFFIX;
+
+    private final Path directory;
+
+    FixDictionarySnapshotCache(@NotNull Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return the cache under the IDE system directory, or {@code null} if that directory is not
+     * available, in which case dictionaries are always parsed
+     */
+    static @Nullable FixDictionarySnapshotCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Returns the dictionary for the given source, reading its snapshot if one exists and
+     * otherwise parsing the source and writing a snapshot for next time.
+     *
+     * @param content source of the dictionary
+     * @param format  source format, e.g. {@code "xml"}; part of the cache key
+     * @param parser  parses the source when there is no usable snapshot
+     * @return the dictionary
+     * @throws Exception if there is no usable snapshot and the parser fails
+     */
+    FixTagDictionary load(byte @NotNull [] content, @NotNull String format, @NotNull Parser parser) throws Exception {
+        Path snapshot = directory.resolve(hash(content, format) + VERSION_SUFFIX);
+        if (Files.isRegularFile(snapshot)) {
+            try {
+                FixTagDictionary dictionary = read(snapshot);
+                // The modification time records when the snapshot was last used
+                Files.setLastModifiedTime(snapshot, FileTime.fromMillis(System.currentTimeMillis()));
+                return dictionary;
+            } catch (IOException e) {
+                LOG.debug("Rebuilding unreadable dictionary snapshot " + snapshot, e);
+            }
+        }
+
+        FixTagDictionary dictionary = parser.parse(content);
+        try {
+            write(dictionary, snapshot);
+        } catch (IOException e) {
+            LOG.debug("Failed to write dictionary snapshot " + snapshot, e);
+        }
+        pruneSnapshots();
+        return dictionary;
+    }
+
+    /**
+     * Deletes snapshots written with another format version and current snapshots beyond the
+     * {@link #MAX_SNAPSHOTS} most recently used.
+     */
+    void pruneSnapshots() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> files;
+        try (var listed = Files.list(directory)) {
+            files = listed.filter(file -> file.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+                    .sorted(Comparator.comparing(FixDictionarySnapshotCache::lastModified).reversed())
+                    .toList();
+        } catch (IOException e) {
+            LOG.debug("Failed to list dictionary snapshots in " + directory, e);
+            return;
+        }
+        int kept = 0;
+        for (Path file : files) {
+            if (file.getFileName().toString().endsWith(VERSION_SUFFIX) && kept < MAX_SNAPSHOTS) {
+                kept++;
+                continue;
+            }
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LOG.debug("Failed to delete dictionary snapshot " + file, e);
+            }
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    static FixTagDictionary read(@NotNull Path snapshot) throws IOException {
+        byte[] bytes = Files.readAllBytes(snapshot);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (bytes.length < 8 || in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+            throw new IOException("Not a dictionary snapshot: " + snapshot);
+        }
+        return FixTagDictionary.readSnapshot(in);
+    }
+
+    private void write(FixTagDictionary dictionary, Path snapshot) throws IOException {
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "dict", ".tmp");
+        try {
+            try (OutputStream file = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                dictionary.writeSnapshot(out);
+            }
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static String hash(byte[] content, String format) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((format + ':' + FORMAT_VERSION + ':').getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Parses a dictionary source.
+     */
+    @FunctionalInterface
+    interface Parser {
+        FixTagDictionary parse(byte[] content) throws Exception;
+    }
+
+    private static final class Holder {
+        static final FixDictionarySnapshotCache INSTANCE = create();
+
+        private static FixDictionarySnapshotCache create() {
+            try {
+                return new FixDictionarySnapshotCache(Path.of(PathManager.getSystemPath(), "fix-viewer", "dictionaries"));
+            } catch (RuntimeException e) {
+                LOG.debug("Dictionary snapshots disabled", e);
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.rannett.fixplugin.dictionary;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.ProjectActivity;
+import com.rannett.fixplugin.settings.FixViewerSettingsState;
+import com.rannett.fixplugin.settings.FixViewerSettingsState.DictionaryEntry;
+import kotlin.Unit;
+import kotlin.coroutines.Continuation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Loads the dictionaries a project is likely to need in the background after it opens, so that
+ * the first FIX editor does not freeze the UI while they are parsed.
+ * <p>
+ * For every FIX version configured in {@link FixViewerSettingsState} the default tag dictionary
+ * and QuickFIX/J data dictionary are loaded into their caches, and the shared field descriptions
+ * are read once. The task shows a cancellable progress indicator; anything it did not load is
+ * simply loaded on first use.
+ */
+public final class FixDictionaryWarmUp implements ProjectActivity {
+
+    @Override
+    public @Nullable Object execute(@NotNull Project project, @NotNull Continuation<? super Unit> continuation) {
+        WarmUpTask task = createTask(project);
+        if (task != null) {
+            task.queue();
+        }
+        return Unit.INSTANCE;
+    }
+
+    /**
+     * @return the task loading the project's dictionaries, or {@code null} in unit-test mode
+     */
+    static @Nullable WarmUpTask createTask(@NotNull Project project) {
+        if (ApplicationManager.getApplication().isUnitTestMode()) {
+            return null;
+        }
+        return createTask(project, FixViewerSettingsState.getInstance(project));
+    }
+
+    /**
+     * Resolves the configured versions and their default dictionaries up front, so that the task
+     * works on a snapshot of the settings.
+     */
+    static @NotNull WarmUpTask createTask(@NotNull Project project, @NotNull FixViewerSettingsState settings) {
+        Set<String> versions = new LinkedHashSet<>();
+        for (DictionaryEntry entry : settings.getDictionaryEntries()) {
+            versions.add(entry.getVersion());
+        }
+        List<DictionaryEntry> entries = new ArrayList<>();
+        for (String version : versions) {
+            entries.add(settings.getDefaultDictionary(version));
+        }
+        return new WarmUpTask(project, new ArrayList<>(versions), entries);
+    }
+
+    static final class WarmUpTask extends Task.Backgroundable {
+        private final List<String> versions;
+        private final List<DictionaryEntry> entries;
+
+        WarmUpTask(Project project, List<String> versions, List<DictionaryEntry> entries) {
+            super(project, "Loading FIX dictionaries", true);
+            this.versions = versions;
+            this.entries = entries;
+        }
+
+        List<String> getVersions() {
+            return versions;
+        }
+
+        List<DictionaryEntry> getEntries() {
+            return entries;
+        }
+
+        @Override
+        public void run(@NotNull ProgressIndicator indicator) {
+            Project project = getProject();
+            indicator.setIndeterminate(false);
+            // One step for the field descriptions, then a tag and a data dictionary per version
+            int steps = 1 + 2 * versions.size();
+            int step = 0;
+
+            indicator.setText2("Field descriptions");
+            FixFieldDescriptions.preload();
+            indicator.setFraction(++step / (double) steps);
+
+            FixDictionaryCache tagDictionaries = project.getService(FixDictionaryCache.class);
+            FixDataDictionaryCache dataDictionaries = FixDataDictionaryCache.getInstance();
+            for (int i = 0; i < versions.size(); i++) {
+                String version = versions.get(i);
+                DictionaryEntry entry = entries.get(i);
+                indicator.checkCanceled();
+                indicator.setText2(version);
+                tagDictionaries.getDictionary(entry, version);
+                indicator.setFraction(++step / (double) steps);
+
+                indicator.checkCanceled();
+                if (dataDictionaries != null) {
+                    dataDictionaries.getDictionary(version, entry);
+                }
+                indicator.setFraction(++step / (double) steps);
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.rannett.fixplugin.dictionary;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Single-pass StAX parser for QuickFIX/J style XML dictionaries.
+ * <p>
+ * A {@code field} element with a {@code number} attribute defines a field, wherever it appears,
+ * together with its nested {@code value} elements. Inside {@code header}, {@code trailer},
+ * {@code message}, {@code component} and {@code group} elements, {@code field} and
+ * {@code component} elements without a definition are references and become
+ * {@link FixDictionaryMember}s. A {@code component} directly inside {@code components} defines a
+ * component. A {@code base} attribute on the root element makes the dictionary an overlay of
+ * that built-in version. Element layout and formatting do not matter.
+ */
+final class FixDictionaryXmlParser {
+
+    private final FixTagDictionary dictionary;
+    private final Deque<String> elements = new ArrayDeque<>();
+    private final Deque<Builder> builders = new ArrayDeque<>();
+    private final Set<String> headerNames = new HashSet<>();
+    private final Set<String> trailerNames = new HashSet<>();
+    private String currentField;
+
+    private FixDictionaryXmlParser(FixTagDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Parse an XML dictionary into the given dictionary.
+     *
+     * @param input      dictionary XML; its encoding is taken from the XML declaration
+     * @param dictionary dictionary to populate
+     * @throws XMLStreamException if the XML is malformed
+     */
+    static void parse(@NotNull InputStream input, @NotNull FixTagDictionary dictionary) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XMLStreamReader reader = factory.createXMLStreamReader(input);
+        try {
+            FixDictionaryXmlParser parser = new FixDictionaryXmlParser(dictionary);
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    parser.startElement(reader);
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    parser.endElement(reader.getLocalName());
+                }
+            }
+            parser.assignSections();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void startElement(XMLStreamReader reader) {
+        String element = reader.getLocalName();
+        String parent = elements.peek();
+        if (parent == null) {
+            String base = reader.getAttributeValue(null, "base");
+            if (base != null) {
+                dictionary.setBaseVersion(base);
+            }
+        }
+        elements.push(element);
+        String name = reader.getAttributeValue(null, "name");
+        boolean required = "Y".equalsIgnoreCase(reader.getAttributeValue(null, "required"));
+        switch (element) {
+            case "header", "trailer" -> builders.push(new Builder(element, null, false));
+            case "message" -> {
+                Builder builder = new Builder(element, name, false);
+                builder.msgType = reader.getAttributeValue(null, "msgtype");
+                builder.category = reader.getAttributeValue(null, "msgcat");
+                builders.push(builder);
+            }
+            case "group" -> builders.push(new Builder(element, name, required));
+            case "component" -> {
+                if ("components".equals(parent)) {
+                    builders.push(new Builder(element, name, false));
+                } else {
+                    addMember(FixDictionaryMember.Kind.COMPONENT, name, required);
+                }
+            }
+            case "field" -> {
+                String number = reader.getAttributeValue(null, "number");
+                if (number != null) {
+                    defineField(number, name, reader.getAttributeValue(null, "type"));
+                } else {
+                    addMember(FixDictionaryMember.Kind.FIELD, name, required);
+                }
+            }
+            case "value" -> {
+                String enumValue = reader.getAttributeValue(null, "enum");
+                String description = reader.getAttributeValue(null, "description");
+                if (currentField != null && enumValue != null && description != null) {
+                    dictionary.putValue(currentField, enumValue, description);
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void endElement(String element) {
+        elements.pop();
+        switch (element) {
+            case "field" -> currentField = null;
+            case "header", "trailer", "message", "group" -> finish(builders.pop());
+            case "component" -> {
+                if ("components".equals(elements.peek())) {
+                    finish(builders.pop());
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void defineField(String number, String name, String type) {
+        currentField = number;
+        if (name != null) {
+            dictionary.putTagName(number, name);
+        }
+        if (type != null) {
+            dictionary.putFieldType(number, type);
+        }
+    }
+
+    private void addMember(FixDictionaryMember.Kind kind, String name, boolean required) {
+        Builder builder = builders.peek();
+        if (builder == null || name == null) {
+            return;
+        }
+        builder.members.add(new FixDictionaryMember(kind, name, required, List.of()));
+        if (kind == FixDictionaryMember.Kind.FIELD) {
+            Set<String> section = sectionOf(builders);
+            if (section != null) {
+                section.add(name);
+            }
+        }
+    }
+
+    private void finish(Builder builder) {
+        switch (builder.element) {
+            case "header" -> dictionary.setHeaderMembers(builder.members);
+            case "trailer" -> dictionary.setTrailerMembers(builder.members);
+            case "message" -> {
+                if (builder.name != null && builder.msgType != null) {
+                    dictionary.putMessage(new FixMessageDefinition(builder.name, builder.msgType,
+                            builder.category, builder.members));
+                }
+            }
+            case "component" -> {
+                if (builder.name != null) {
+                    dictionary.putComponent(builder.name, builder.members);
+                }
+            }
+            case "group" -> {
+                Builder parent = builders.peek();
+                if (parent != null && builder.name != null) {
+                    parent.members.add(new FixDictionaryMember(FixDictionaryMember.Kind.GROUP, builder.name,
+                            builder.required, builder.members));
+                    // The counter field of a group in the header belongs to the header
+                    Set<String> section = sectionOf(builders);
+                    if (section != null) {
+                        section.add(builder.name);
+                    }
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private Set<String> sectionOf(Deque<Builder> open) {
+        Builder outermost = open.peekLast();
+        if (outermost == null) {
+            return null;
+        }
+        return switch (outermost.element) {
+            case "header" -> headerNames;
+            case "trailer" -> trailerNames;
+            default -> null;
+        };
+    }
+
+    private void assignSections() {
+        for (Map.Entry<String, String> field : dictionary.getTagNameMap().entrySet()) {
+            String name = field.getValue();
+            FieldSection section = headerNames.contains(name) ? FieldSection.HEADER
+                    : trailerNames.contains(name) ? FieldSection.TRAILER
+                    : FieldSection.BODY;
+            dictionary.putFieldSection(field.getKey(), section);
+        }
+    }
+
+    private static final class Builder {
+        final String element;
+        final String name;
+        final boolean required;
+        final List<FixDictionaryMember> members = new ArrayList<>();
+        String msgType;
+        String category;
+
+        Builder(String element, String name, boolean required) {
+            this.element = element;
+            this.name = name;
+            this.required = required;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.rannett.fixplugin.dictionary;
+
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Field descriptions from the bundled FIX.5.0SP2 phrases file, shared by all dictionaries.
+ * <p>
+ * The phrases file is large and the descriptions do not depend on the dictionary, so it is read
+ * once per application, with a single streaming pass, the first time a description is requested.
+ */
+final class FixFieldDescriptions {
+
+    private static final Logger LOG = Logger.getInstance(FixFieldDescriptions.class);
+
+    static final String PHRASES_PATH = "/documentation/FIX.5.0SP2_en_phrases.xml";
+
+    private static final String FIELD_PREFIX = "FIELD_";
+
+    private FixFieldDescriptions() {
+    }
+
+    /**
+     * @param tag numeric tag identifier
+     * @return description text or {@code null} if unavailable
+     */
+    static String get(String tag) {
+        return Holder.DESCRIPTIONS.get(tag);
+    }
+
+    /**
+     * Reads the phrases file now if it has not been read yet, so that later lookups do not wait
+     * for it.
+     */
+    static void preload() {
+        Holder.DESCRIPTIONS.size();
+    }
+
+    /**
+     * Reads the field descriptions from a phrases file. The description of a field is the text
+     * of the paragraphs of its {@code FIELD_<tag>} phrase, each trimmed and joined by a space.
+     *
+     * @param input phrases XML
+     * @return descriptions by tag
+     * @throws XMLStreamException if the XML is malformed
+     */
+    static Map<String, String> parse(@NotNull InputStream input) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+
+        Map<String, String> descriptions = new HashMap<>();
+        XMLStreamReader reader = factory.createXMLStreamReader(input);
+        try {
+            String tag = null;
+            StringBuilder description = new StringBuilder();
+            StringBuilder para = new StringBuilder();
+            int paraDepth = 0;
+            boolean firstPara = true;
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        String name = reader.getLocalName();
+                        if ("phrase".equals(name)) {
+                            String textId = reader.getAttributeValue(null, "textId");
+                            tag = textId != null && textId.startsWith(FIELD_PREFIX)
+                                    ? textId.substring(FIELD_PREFIX.length())
+                                    : null;
+                            description.setLength(0);
+                            firstPara = true;
+                        } else if (tag != null && "para".equals(name) && paraDepth++ == 0) {
+                            para.setLength(0);
+                        }
+                    }
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+                        if (paraDepth > 0) {
+                            para.append(reader.getText());
+                        }
+                    }
+                    case XMLStreamConstants.END_ELEMENT -> {
+                        String name = reader.getLocalName();
+                        if (tag != null && "para".equals(name) && paraDepth > 0 && --paraDepth == 0) {
+                            if (!firstPara) {
+                                description.append(' ');
+                            }
+                            description.append(para.toString().trim());
+                            firstPara = false;
+                        } else if ("phrase".equals(name) && tag != null) {
+                            descriptions.put(tag, description.toString());
+                            tag = null;
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return descriptions;
+    }
+
+    private static Map<String, String> load() {
+        try (InputStream input = FixFieldDescriptions.class.getResourceAsStream(PHRASES_PATH)) {
+            if (input == null) {
+                LOG.warn("Phrases file not found: " + PHRASES_PATH);
+                return Collections.emptyMap();
+            }
+            return parse(input);
+        } catch (Exception e) {
+            LOG.warn("Failed to load phrases file", e);
+            return Collections.emptyMap();
+        }
+    }
+
+    private static final class Holder {
+        static final Map<String, String> DESCRIPTIONS = load();
+    }
+}
@@ -0,0 +1,225 @@
+package com.rannett.fixplugin.dictionary;
+
+import com.rannett.fixplugin.util.FixFieldCursor;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Full-text search over the fields of a dictionary: tag numbers, names, enumerated values and
+ * their descriptions, and the field descriptions from the phrases file.
+ * <p>
+ * The lower-cased text of every field is indexed by trigram. A query of three or more characters
+ * only checks the fields that contain all of its trigrams, so searching does not scan the
+ * dictionary. Shorter queries scan tags, names and enumerated values but skip the long field
+ * descriptions, which nearly every one or two character query would match. Instances are
+ * immutable and are obtained from {@link FixTagDictionary#getSearchIndex()}.
+ */
+public final class FixFieldSearchIndex {
+
+    // Ranks of a match, best first
+    private static final int TAG_EQUALS = 0;
+    private static final int NAME_EQUALS = 1;
+    private static final int NAME_PREFIX = 2;
+    private static final int TAG_PREFIX = 3;
+    private static final int NAME_CONTAINS = 4;
+    private static final int VALUE_CONTAINS = 5;
+    private static final int DESCRIPTION_CONTAINS = 6;
+
+    private static final int MIN_INDEXED_LENGTH = 3;
+
+    // Per field, ordered by tag number
+    private final String[] tags;
+    private final String[] names;
+    private final String[] lowerNames;
+    private final String[] lowerValues;
+    private final String[] lowerDescriptions;
+    // Trigram to the ascending indexes of the fields whose text contains it
+    private final Long2ObjectOpenHashMap<int[]> postings = new Long2ObjectOpenHashMap<>();
+
+    FixFieldSearchIndex(@NotNull FixTagDictionary dictionary) {
+        List<Map.Entry<String, String>> fields = new ArrayList<>(dictionary.getTagNameMap().entrySet());
+        fields.sort(Comparator.comparingInt((Map.Entry<String, String> field) -> tagOrder(field.getKey()))
+                .thenComparing(Map.Entry::getKey));
+        int count = fields.size();
+        tags = new String[count];
+        names = new String[count];
+        lowerNames = new String[count];
+        lowerValues = new String[count];
+        lowerDescriptions = new String[count];
+
+        Long2ObjectOpenHashMap<IntArrayList> building = new Long2ObjectOpenHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String tag = fields.get(i).getKey();
+            tags[i] = tag;
+            names[i] = fields.get(i).getValue();
+            lowerNames[i] = lower(names[i]);
+            lowerValues[i] = lowerValues(dictionary.getValueMap(tag));
+            String description = dictionary.getFieldDescription(tag);
+            lowerDescriptions[i] = description != null ? lower(description) : "";
+
+            // Separators cannot occur in a query, so trigrams spanning two parts never match
+            addTrigrams(building, tag + '\n' + lowerNames[i] + '\n' + lowerValues[i] + '\n' + lowerDescriptions[i], i);
+        }
+        building.long2ObjectEntrySet().fastForEach(entry -> postings.put(entry.getLongKey(), entry.getValue().toIntArray()));
+        postings.trim();
+    }
+
+    /**
+     * Finds the fields matching a query, ignoring case. Fields whose tag or name equals the query
+     * come first, then name and tag prefixes, then names containing it, then fields with a
+     * matching enumerated value, and finally fields whose description mentions it; fields with
+     * the same rank are ordered by tag number.
+     *
+     * @param query text to search for
+     * @return matching fields, best first; empty for a blank query
+     */
+    public @NotNull List<Match> search(@NotNull String query) {
+        String term = lower(query.trim());
+        if (term.isEmpty()) {
+            return List.of();
+        }
+        int[] candidates = candidates(term);
+        if (candidates != null && candidates.length == 0) {
+            return List.of();
+        }
+
+        int count = candidates != null ? candidates.length : tags.length;
+        long[] ranked = new long[count];
+        int matches = 0;
+        for (int c = 0; c < count; c++) {
+            int field = candidates != null ? candidates[c] : c;
+            int rank = rank(field, term);
+            if (rank >= 0) {
+                // Sorting rank and field index together orders equal ranks by tag number
+                ranked[matches++] = ((long) rank << 32) | field;
+            }
+        }
+        Arrays.sort(ranked, 0, matches);
+
+        List<Match> result = new ArrayList<>(matches);
+        for (int i = 0; i < matches; i++) {
+            int field = (int) ranked[i];
+            result.add(new Match(tags[field], names[field]));
+        }
+        return result;
+    }
+
+    /**
+     * @return ascending indexes of the fields containing every trigram of the term, or
+     * {@code null} if the term is too short to use the index
+     */
+    private int[] candidates(String term) {
+        if (term.length() < MIN_INDEXED_LENGTH) {
+            return null;
+        }
+        int[] result = null;
+        for (int i = 0; i + MIN_INDEXED_LENGTH <= term.length(); i++) {
+            int[] fields = postings.get(trigram(term, i));
+            if (fields == null) {
+                return new int[0];
+            }
+            result = result == null ? fields : intersect(result, fields);
+            if (result.length == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private int rank(int field, String term) {
+        String tag = tags[field];
+        String name = lowerNames[field];
+        if (tag.equals(term)) {
+            return TAG_EQUALS;
+        }
+        if (name.equals(term)) {
+            return NAME_EQUALS;
+        }
+        if (name.startsWith(term)) {
+            return NAME_PREFIX;
+        }
+        if (tag.startsWith(term)) {
+            return TAG_PREFIX;
+        }
+        if (name.contains(term) || tag.contains(term)) {
+            return NAME_CONTAINS;
+        }
+        if (lowerValues[field].contains(term)) {
+            return VALUE_CONTAINS;
+        }
+        if (term.length() >= MIN_INDEXED_LENGTH && lowerDescriptions[field].contains(term)) {
+            return DESCRIPTION_CONTAINS;
+        }
+        return -1;
+    }
+
+    private static void addTrigrams(Long2ObjectOpenHashMap<IntArrayList> building, String text, int field) {
+        for (int i = 0; i + MIN_INDEXED_LENGTH <= text.length(); i++) {
+            IntArrayList fields = building.computeIfAbsent(trigram(text, i), key -> new IntArrayList(2));
+            // Fields are added in ascending order, so a repeated trigram is always the last entry
+            if (fields.isEmpty() || fields.getInt(fields.size() - 1) != field) {
+                fields.add(field);
+            }
+        }
+    }
+
+    private static long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static String lowerValues(Map<String, String> values) {
+        if (values == null || values.isEmpty()) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            text.append(value.getKey()).append('\n').append(value.getValue()).append('\n');
+        }
+        return lower(text.toString());
+    }
+
+    private static String lower(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static int tagOrder(String tag) {
+        int number = FixFieldCursor.parseTag(tag, 0, tag.length());
+        return number >= 0 ? number : Integer.MAX_VALUE;
+    }
+
+    /**
+     * A field found by {@link #search(String)}.
+     *
+     * @param tag  tag number
+     * @param name field name
+     */
+    public record Match(@NotNull String tag, @NotNull String name) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.rannett.fixplugin.dictionary;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * The structure of one message type of an XML dictionary. Instances are immutable.
+ */
+public final class FixMessageDefinition {
+
+    private final String name;
+    private final String msgType;
+    private final String category;
+    private final List<FixDictionaryMember> members;
+
+    FixMessageDefinition(@NotNull String name, @NotNull String msgType, @Nullable String category,
+                         @NotNull List<FixDictionaryMember> members) {
+        this.name = FixTagDictionary.intern(name);
+        this.msgType = FixTagDictionary.intern(msgType);
+        this.category = FixTagDictionary.intern(category);
+        this.members = List.copyOf(members);
+    }
+
+    public @NotNull String getName() {
+        return name;
+    }
+
+    /**
+     * @return value of tag 35 for this message
+     */
+    public @NotNull String getMsgType() {
+        return msgType;
+    }
+
+    /**
+     * @return {@code admin} or {@code app}, or {@code null} if the dictionary does not say
+     */
+    public @Nullable String getCategory() {
+        return category;
+    }
+
+    /**
+     * @return the body members in order, excluding the standard header and trailer
+     */
+    public @NotNull List<FixDictionaryMember> getMembers() {
+        return members;
+    }
+}
@@ -1,28 +1,80 @@
 package com.rannett.fixplugin.dictionary;
 
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.containers.Interner;
+import com.rannett.fixplugin.util.FixFieldCursor;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+/**
+ * Field names, types, enumerated values and message structure of a FIX dictionary.
+ * <p>
+ * A dictionary file may be an overlay: a JSON file with a top-level {@code "base"} key or an XML
+ * file whose root element has a {@code base} attribute names a built-in version, e.g.
+ * {@code "FIX.4.4"}, and only contains the fields, values and messages it adds or overrides.
+ * Lookups check the overlay first and then the shared built-in base, so the base tables are never
+ * copied.
+ */
 public class FixTagDictionary {
 
     private static final Logger LOG = Logger.getInstance(FixTagDictionary.class);
 
-    private final Map<String, String> tagNameMap = new HashMap<>();
-    private final Map<String, Map<String, String>> tagValueMap = new HashMap<>();
-    private final Map<String, String> fieldTypeMap = new HashMap<>();
+    /**
+     * Tags below this number are looked up in arrays indexed by tag number. All standard FIX
+     * fields are in this range; user-defined tags above it fall back to a hash map.
+     */
+    static final int DENSE_TAG_LIMIT = 5000;
+
+    // Approximate heap sizes with compressed references, used by getEstimatedSize()
+    private static final int MAP_ENTRY_SIZE = 40;
+    private static final int MAP_SIZE = 64;
+    private static final int STRING_SIZE = 40;
+
+    // Field names, types and enum descriptions repeat within and across dictionaries ("Buy",
+    // "STRING", ...), so every string stored by a dictionary is deduplicated through this pool
+    private static final Interner<String> STRINGS = Interner.createWeakInterner();
+
+    // Keyed by tag number; the String lookups parse the tag and read the same tables
+    private final TagTable<String> tagNames = new TagTable<>();
+    private final TagTable<Map<String, String>> tagValues = new TagTable<>();
+    private final TagTable<String> fieldTypes = new TagTable<>();
     private final Map<String, FieldSection> fieldSectionMap = new HashMap<>();
-    private final Map<String, String> fieldDescriptionMap = new HashMap<>();
+    private final Map<String, String> tagNumberMap = new HashMap<>();
+    // Message structure, only available for XML dictionaries
+    private List<FixDictionaryMember> headerMembers = List.of();
+    private List<FixDictionaryMember> trailerMembers = List.of();
+    private final Map<String, List<FixDictionaryMember>> componentMap = new HashMap<>();
+    private final Map<String, FixMessageDefinition> messageMap = new LinkedHashMap<>();
+    // Built-in dictionary this one overlays, if any
+    private String baseVersion;
+    private FixTagDictionary base;
+    private volatile FixFieldSearchIndex searchIndex;
 
     FixTagDictionary() {
     }
@@ -37,11 +89,11 @@ public class FixTagDictionary {
         FixTagDictionary dictionary = new FixTagDictionary();
         String fileName = file.getName().toLowerCase();
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+        try {
             if (fileName.endsWith(".json")) {
-                parseJson(reader, dictionary);
+                dictionary = load(Files.readAllBytes(file.toPath()), "json");
             } else if (fileName.endsWith(".xml")) {
-                parseXml(reader, dictionary);
+                dictionary = load(Files.readAllBytes(file.toPath()), "xml");
             } else {
                 LOG.warn("Unsupported file format: " + fileName);
             }
@@ -49,11 +101,17 @@ public class FixTagDictionary {
             LOG.warn("Failed to load dictionary file: " + fileName, e);
         }
 
-        loadFieldDescriptions(dictionary);
-
+        if (dictionary.baseVersion != null) {
+            dictionary.base = loadBase(dictionary.baseVersion);
+        }
         return dictionary;
     }
 
+    private static FixTagDictionary loadBase(String version) {
+        FixBuiltInDictionaryCache shared = FixBuiltInDictionaryCache.getInstance();
+        return shared != null ? shared.getDictionary(version) : fromBuiltInVersion(version);
+    }
+
     /**
      * Loads a built-in FIX dictionary by version.
      *
@@ -69,17 +127,34 @@ public class FixTagDictionary {
                 LOG.warn("Built-in dictionary not found: " + version);
                 return dictionary;
             }
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-                parseXml(reader, dictionary);
-            } catch (Exception e) {
-                LOG.warn("Failed to load built-in dictionary: " + version, e);
-            }
+            dictionary = load(inputStream.readAllBytes(), "xml");
         } catch (Exception e) {
             LOG.warn("Failed to load built-in dictionary: " + version, e);
         }
 
-        loadFieldDescriptions(dictionary);
+        return dictionary;
+    }
+
+    /**
+     * Parses a dictionary source, or reads its compiled snapshot if it was parsed before.
+     */
+    private static FixTagDictionary load(byte[] content, String format) throws Exception {
+        FixDictionarySnapshotCache snapshots = FixDictionarySnapshotCache.getInstance();
+        if (snapshots == null) {
+            return parse(content, format);
+        }
+        return snapshots.load(content, format, source -> parse(source, format));
+    }
 
+    static FixTagDictionary parse(byte[] content, String format) throws Exception {
+        FixTagDictionary dictionary = new FixTagDictionary();
+        if ("json".equals(format)) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(content)))) {
+                parseJson(reader, dictionary);
+            }
+        } else {
+            FixDictionaryXmlParser.parse(new ByteArrayInputStream(content), dictionary);
+        }
         return dictionary;
     }
 
@@ -90,7 +165,18 @@ public class FixTagDictionary {
      * @return field name or {@code null} if unknown
      */
     public String getTagName(String tag) {
-        return tagNameMap.get(tag);
+        return getTagName(parseTag(tag));
+    }
+
+    /**
+     * Retrieves the field name for a given tag number without hashing or boxing.
+     *
+     * @param tag tag number
+     * @return field name or {@code null} if unknown
+     */
+    public String getTagName(int tag) {
+        String name = tagNames.get(tag);
+        return name == null && base != null ? base.getTagName(tag) : name;
     }
 
     /**
@@ -101,8 +187,20 @@ public class FixTagDictionary {
      * @return description or {@code null} if not defined
      */
     public String getValueName(String tag, String value) {
-        Map<String, String> valueMap = tagValueMap.get(tag);
-        return valueMap != null ? valueMap.get(value) : null;
+        return getValueName(parseTag(tag), value);
+    }
+
+    /**
+     * Looks up the description for a specific enumerated value of a tag number.
+     *
+     * @param tag   tag number
+     * @param value enumerated value
+     * @return description or {@code null} if not defined
+     */
+    public String getValueName(int tag, String value) {
+        Map<String, String> valueMap = tagValues.get(tag);
+        String name = valueMap != null ? valueMap.get(value) : null;
+        return name == null && base != null ? base.getValueName(tag, value) : name;
     }
 
     /**
@@ -112,16 +210,28 @@ public class FixTagDictionary {
      * @return field type or {@code null} if unknown
      */
     public String getFieldType(String tag) {
-        return fieldTypeMap.get(tag);
+        return getFieldType(parseTag(tag));
     }
 
     /**
-     * Provides an unmodifiable view of the tag-to-name map.
+     * Returns the FIX field type for the given tag number without hashing or boxing.
+     *
+     * @param tag tag number
+     * @return field type or {@code null} if unknown
+     */
+    public String getFieldType(int tag) {
+        String type = fieldTypes.get(tag);
+        return type == null && base != null ? base.getFieldType(tag) : type;
+    }
+
+    /**
+     * Provides an unmodifiable view of the tag-to-name map. The view of an overlay reads through
+     * to the base instead of copying it.
      *
      * @return mapping of tag numbers to names
      */
     public Map<String, String> getTagNameMap() {
-        return Collections.unmodifiableMap(tagNameMap);
+        return base != null ? new LayeredMap<>(tagNames.asMap(), base.getTagNameMap()) : tagNames.asMap();
     }
 
     /**
@@ -131,7 +241,9 @@ public class FixTagDictionary {
      * @return the section classification or {@code null} if unknown
      */
     public FieldSection getFieldSection(String tag) {
-        return fieldSectionMap.get(tag);
+        // A field the base defines keeps the base's section even if the overlay redefines it
+        FieldSection section = base != null ? base.getFieldSection(tag) : null;
+        return section != null ? section : fieldSectionMap.get(tag);
     }
 
     /**
@@ -141,7 +253,102 @@ public class FixTagDictionary {
      * @return description text or {@code null} if unavailable
      */
     public String getFieldDescription(String tag) {
-        return fieldDescriptionMap.get(tag);
+        return FixFieldDescriptions.get(tag);
+    }
+
+    /**
+     * Looks up a field's tag number by its name.
+     *
+     * @param name field name, e.g. {@code "MsgType"}
+     * @return tag number or {@code null} if unknown
+     */
+    public String getTagNumber(String name) {
+        String tag = tagNumberMap.get(name);
+        return tag == null && base != null ? base.getTagNumber(name) : tag;
+    }
+
+    /**
+     * @param msgType value of tag 35
+     * @return the message definition or {@code null} if the dictionary does not define it
+     */
+    public FixMessageDefinition getMessage(String msgType) {
+        FixMessageDefinition message = messageMap.get(msgType);
+        return message == null && base != null ? base.getMessage(msgType) : message;
+    }
+
+    /**
+     * @return all message definitions in dictionary order
+     */
+    public Collection<FixMessageDefinition> getMessages() {
+        if (base == null || messageMap.isEmpty()) {
+            return base == null ? Collections.unmodifiableCollection(messageMap.values()) : base.getMessages();
+        }
+        Map<String, FixMessageDefinition> merged = new LinkedHashMap<>();
+        for (FixMessageDefinition message : base.getMessages()) {
+            merged.put(message.getMsgType(), message);
+        }
+        merged.putAll(messageMap);
+        return Collections.unmodifiableCollection(merged.values());
+    }
+
+    /**
+     * @param name component name
+     * @return the component's members or {@code null} if the dictionary does not define it
+     */
+    public List<FixDictionaryMember> getComponentMembers(String name) {
+        List<FixDictionaryMember> members = componentMap.get(name);
+        return members == null && base != null ? base.getComponentMembers(name) : members;
+    }
+
+    /**
+     * @return members of the standard header, followed by any an overlay adds
+     */
+    public List<FixDictionaryMember> getHeaderMembers() {
+        return base != null ? layered(base.getHeaderMembers(), headerMembers) : headerMembers;
+    }
+
+    /**
+     * @return members of the standard trailer, followed by any an overlay adds
+     */
+    public List<FixDictionaryMember> getTrailerMembers() {
+        return base != null ? layered(base.getTrailerMembers(), trailerMembers) : trailerMembers;
+    }
+
+    private static List<FixDictionaryMember> layered(List<FixDictionaryMember> base, List<FixDictionaryMember> overlay) {
+        if (overlay.isEmpty()) {
+            return base;
+        }
+        List<FixDictionaryMember> members = new ArrayList<>(base);
+        members.addAll(overlay);
+        return Collections.unmodifiableList(members);
+    }
+
+    /**
+     * @return the built-in version this dictionary overlays, or {@code null} if it is standalone
+     */
+    public String getBaseVersion() {
+        return baseVersion;
+    }
+
+    /**
+     * Returns the delimiter of a repeating group: the tag of the first field of each instance,
+     * looking through a leading component reference if there is one.
+     *
+     * @param group a group member
+     * @return the delimiter tag number or {@code -1} if it cannot be resolved
+     */
+    public int getGroupDelimiter(FixDictionaryMember group) {
+        List<FixDictionaryMember> members = group.getMembers();
+        // Bounded so that a malformed self-referencing component cannot loop
+        for (int depth = 0; depth < 16 && members != null && !members.isEmpty(); depth++) {
+            FixDictionaryMember first = members.get(0);
+            if (first.getKind() != FixDictionaryMember.Kind.COMPONENT) {
+                String tag = getTagNumber(first.getName());
+                return tag != null ? parseTag(tag) : -1;
+            }
+            members = getComponentMembers(first.getName());
+        }
+        return -1;
     }
 
     private static void parseJson(BufferedReader reader, FixTagDictionary dictionary) throws Exception {
@@ -156,150 +363,528 @@ public class FixTagDictionary {
 
         for (String key : root.keySet()) {
             Object value = root.get(key);
-            if (value instanceof String) {
-                dictionary.tagNameMap.put(key, (String) value);
+            if ("base".equals(key) && value instanceof String version) {
+                dictionary.setBaseVersion(version);
+            } else if (value instanceof String) {
+                dictionary.putTagName(key, (String) value);
             } else if (value instanceof org.json.JSONObject fieldObject) {
 
                 if (fieldObject.has("name")) {
-                    dictionary.tagNameMap.put(key, fieldObject.getString("name"));
+                    dictionary.putTagName(key, fieldObject.getString("name"));
                 }
                 if (fieldObject.has("type")) {
-                    dictionary.fieldTypeMap.put(key, fieldObject.getString("type")); // Add field type
+                    dictionary.putFieldType(key, fieldObject.getString("type")); // Add field type
                 }
 
                 org.json.JSONObject valuesObject = fieldObject.optJSONObject("values");
                 if (valuesObject != null) {
                     Map<String, String> valueMap = new HashMap<>();
                     for (String valKey : valuesObject.keySet()) {
-                        valueMap.put(valKey, valuesObject.getString(valKey));
+                        valueMap.put(intern(valKey), intern(valuesObject.getString(valKey)));
                     }
-                    dictionary.tagValueMap.put(key, valueMap);
+                    dictionary.putValueMap(key, valueMap);
                 }
             }
         }
     }
 
-    private static void parseXml(BufferedReader reader, FixTagDictionary dictionary) throws Exception {
-        String line;
-        String currentTag = null;
-        boolean inHeader = false;
-        boolean inTrailer = false;
-        Set<String> headerNames = new HashSet<>();
-        Set<String> trailerNames = new HashSet<>();
+    private static int parseTag(String tag) {
+        return tag != null ? FixFieldCursor.parseTag(tag, 0, tag.length()) : -1;
+    }
 
-        while ((line = reader.readLine()) != null) {
-            line = line.trim();
-            if ("<header>".equals(line)) {
-                inHeader = true;
-                continue;
+    static String intern(String value) {
+        return value != null ? STRINGS.intern(value) : null;
+    }
+
+    void putTagName(String tag, String name) {
+        int number = parseTag(tag);
+        if (number < 0) {
+            return;
+        }
+        tag = intern(tag);
+        name = intern(name);
+        tagNames.put(number, name);
+        tagNumberMap.put(name, tag);
+    }
+
+    void putFieldType(String tag, String type) {
+        fieldTypes.put(parseTag(tag), intern(type));
+    }
+
+    private void putValueMap(String tag, Map<String, String> valueMap) {
+        tagValues.put(parseTag(tag), valueMap);
+    }
+
+    void putValue(String tag, String value, String description) {
+        Map<String, String> valueMap = tagValues.get(parseTag(tag));
+        if (valueMap == null) {
+            valueMap = new HashMap<>();
+            putValueMap(tag, valueMap);
+        }
+        valueMap.put(intern(value), intern(description));
+    }
+
+    void putFieldSection(String tag, FieldSection section) {
+        fieldSectionMap.put(intern(tag), section);
+    }
+
+    void setHeaderMembers(List<FixDictionaryMember> members) {
+        headerMembers = List.copyOf(members);
+    }
+
+    void setTrailerMembers(List<FixDictionaryMember> members) {
+        trailerMembers = List.copyOf(members);
+    }
+
+    void putComponent(String name, List<FixDictionaryMember> members) {
+        componentMap.put(intern(name), List.copyOf(members));
+    }
+
+    void putMessage(FixMessageDefinition message) {
+        messageMap.put(message.getMsgType(), message);
+    }
+
+    void setBaseVersion(String version) {
+        baseVersion = version;
+    }
+
+    /**
+     * Writes the parsed tables of this dictionary.
+     */
+    void writeSnapshot(DataOutputStream out) throws IOException {
+        Set<String> tags = new LinkedHashSet<>(tagNames.asMap().keySet());
+        tags.addAll(fieldTypes.asMap().keySet());
+        tags.addAll(tagValues.asMap().keySet());
+        tags.addAll(fieldSectionMap.keySet());
+        out.writeInt(tags.size());
+        for (String tag : tags) {
+            int number = parseTag(tag);
+            writeString(out, tag);
+            writeString(out, tagNames.get(number));
+            writeString(out, fieldTypes.get(number));
+            FieldSection section = fieldSectionMap.get(tag);
+            out.writeByte(section != null ? section.ordinal() : -1);
+            Map<String, String> values = tagValues.get(number);
+            out.writeInt(values != null ? values.size() : -1);
+            if (values != null) {
+                for (Map.Entry<String, String> value : values.entrySet()) {
+                    writeString(out, value.getKey());
+                    writeString(out, value.getValue());
+                }
             }
-            if ("</header>".equals(line)) {
-                inHeader = false;
-                continue;
+        }
+
+        writeMembers(out, headerMembers);
+        writeMembers(out, trailerMembers);
+        out.writeInt(componentMap.size());
+        for (Map.Entry<String, List<FixDictionaryMember>> component : componentMap.entrySet()) {
+            writeString(out, component.getKey());
+            writeMembers(out, component.getValue());
+        }
+        out.writeInt(messageMap.size());
+        for (FixMessageDefinition message : messageMap.values()) {
+            writeString(out, message.getName());
+            writeString(out, message.getMsgType());
+            writeString(out, message.getCategory());
+            writeMembers(out, message.getMembers());
+        }
+        writeString(out, baseVersion);
+    }
+
+    private static void writeMembers(DataOutputStream out, List<FixDictionaryMember> members) throws IOException {
+        out.writeInt(members.size());
+        for (FixDictionaryMember member : members) {
+            out.writeByte(member.getKind().ordinal());
+            writeString(out, member.getName());
+            out.writeBoolean(member.isRequired());
+            writeMembers(out, member.getMembers());
+        }
+    }
+
+    private static List<FixDictionaryMember> readMembers(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > in.available()) {
+            throw new IOException("Corrupt dictionary snapshot");
+        }
+        FixDictionaryMember.Kind[] kinds = FixDictionaryMember.Kind.values();
+        List<FixDictionaryMember> members = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int kind = in.readByte();
+            String name = readString(in);
+            boolean required = in.readBoolean();
+            if (kind < 0 || kind >= kinds.length || name == null) {
+                throw new IOException("Corrupt dictionary snapshot");
             }
-            if ("<trailer>".equals(line)) {
-                inTrailer = true;
-                continue;
+            members.add(new FixDictionaryMember(kinds[kind], name, required, readMembers(in)));
+        }
+        return members;
+    }
+
+    /**
+     * Reads a dictionary written by {@link #writeSnapshot(DataOutputStream)}.
+     */
+    static FixTagDictionary readSnapshot(DataInputStream in) throws IOException {
+        FixTagDictionary dictionary = new FixTagDictionary();
+        FieldSection[] sections = FieldSection.values();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            String tag = readString(in);
+            String name = readString(in);
+            String type = readString(in);
+            int section = in.readByte();
+            int valueCount = in.readInt();
+            if (tag == null || section >= sections.length) {
+                throw new IOException("Corrupt dictionary snapshot");
             }
-            if ("</trailer>".equals(line)) {
-                inTrailer = false;
-                continue;
+            if (name != null) {
+                dictionary.putTagName(tag, name);
             }
-            if ((inHeader || inTrailer) && line.startsWith("<field")) {
-                String nameAttr = extractAttribute(line, "name");
-                if (nameAttr != null) {
-                    if (inHeader) {
-                        headerNames.add(nameAttr);
-                    } else {
-                        trailerNames.add(nameAttr);
-                    }
-                }
-                continue;
+            if (type != null) {
+                dictionary.putFieldType(tag, type);
             }
-            if (line.startsWith("<field")) {
-                String tagNumber = extractAttribute(line, "number");
-                String tagName = extractAttribute(line, "name");
-                String type = extractAttribute(line, "type");
-                if (tagNumber != null && tagName != null) {
-                    dictionary.tagNameMap.put(tagNumber, tagName);
-                    currentTag = tagNumber;
-                    if (headerNames.contains(tagName)) {
-                        dictionary.fieldSectionMap.put(tagNumber, FieldSection.HEADER);
-                    } else if (trailerNames.contains(tagName)) {
-                        dictionary.fieldSectionMap.put(tagNumber, FieldSection.TRAILER);
-                    } else {
-                        dictionary.fieldSectionMap.put(tagNumber, FieldSection.BODY);
-                    }
-                }
-                if (tagNumber != null && type != null) {
-                    dictionary.fieldTypeMap.put(tagNumber, type);
+            if (section >= 0) {
+                dictionary.putFieldSection(tag, sections[section]);
+            }
+            if (valueCount >= 0) {
+                Map<String, String> values = new HashMap<>(Math.max(4, valueCount * 4 / 3 + 1));
+                for (int j = 0; j < valueCount; j++) {
+                    values.put(intern(readString(in)), intern(readString(in)));
                 }
-            } else if (line.startsWith("<value") && currentTag != null) {
-                String enumValue = extractAttribute(line, "enum");
-                String description = extractAttribute(line, "description");
-                if (enumValue != null && description != null) {
-                    dictionary.tagValueMap
-                            .computeIfAbsent(currentTag, k -> new HashMap<>())
-                            .put(enumValue, description);
+                dictionary.putValueMap(tag, values);
+            }
+        }
+
+        dictionary.setHeaderMembers(readMembers(in));
+        dictionary.setTrailerMembers(readMembers(in));
+        int components = in.readInt();
+        for (int i = 0; i < components; i++) {
+            String name = readString(in);
+            if (name == null) {
+                throw new IOException("Corrupt dictionary snapshot");
+            }
+            dictionary.putComponent(name, readMembers(in));
+        }
+        int messages = in.readInt();
+        for (int i = 0; i < messages; i++) {
+            String name = readString(in);
+            String msgType = readString(in);
+            String category = readString(in);
+            if (name == null || msgType == null) {
+                throw new IOException("Corrupt dictionary snapshot");
+            }
+            dictionary.putMessage(new FixMessageDefinition(name, msgType, category, readMembers(in)));
+        }
+        dictionary.setBaseVersion(readString(in));
+        return dictionary;
+    }
+
+    /**
+     * Returns the full-text search index of this dictionary's fields, building it on first use.
+     * Building reads the field descriptions, so call this off the EDT.
+     *
+     * @return the search index
+     */
+    public FixFieldSearchIndex getSearchIndex() {
+        FixFieldSearchIndex index = searchIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = searchIndex;
+                if (index == null) {
+                    index = new FixFieldSearchIndex(this);
+                    searchIndex = index;
                 }
             }
         }
+        return index;
     }
 
-    private static String extractAttribute(String line, String attributeName) {
-        String search = attributeName + "=\"";
-        int start = line.indexOf(search);
-        if (start < 0) {
-            return null;
+    /**
+     * @return number of fields and enumerated values defined by this dictionary itself, excluding
+     * a base it overlays
+     */
+    public int getEntryCount() {
+        Set<String> tags = new HashSet<>(tagNames.asMap().keySet());
+        tags.addAll(fieldTypes.asMap().keySet());
+        int count = tags.size();
+        for (Map<String, String> values : tagValues.asMap().values()) {
+            count += values.size();
+        }
+        return count;
+    }
+
+    /**
+     * Estimates the heap retained by this dictionary, excluding a shared base it overlays. The
+     * estimate assumes compressed references and single-byte strings and is meant for reporting,
+     * not for exact accounting; pooled strings shared with other dictionaries are counted in each.
+     *
+     * @return estimated size in bytes
+     */
+    public long getEstimatedSize() {
+        long size = tagNames.getEstimatedSize() + tagValues.getEstimatedSize() + fieldTypes.getEstimatedSize();
+        for (String name : tagNames.asMap().values()) {
+            size += stringSize(name);
+        }
+        for (String type : fieldTypes.asMap().values()) {
+            size += stringSize(type);
         }
-        start += search.length();
-        int end = line.indexOf("\"", start);
-        if (end < 0) {
+        size += (long) MAP_ENTRY_SIZE * fieldSectionMap.size();
+        for (Map<String, String> values : tagValues.asMap().values()) {
+            size += MAP_SIZE;
+            for (Map.Entry<String, String> value : values.entrySet()) {
+                size += MAP_ENTRY_SIZE + stringSize(value.getKey()) + stringSize(value.getValue());
+            }
+        }
+        // The tag strings are only kept as the values of the name-to-tag map
+        for (String tag : tagNumberMap.values()) {
+            size += MAP_ENTRY_SIZE + stringSize(tag);
+        }
+        size += membersSize(headerMembers) + membersSize(trailerMembers);
+        for (List<FixDictionaryMember> members : componentMap.values()) {
+            size += MAP_ENTRY_SIZE + membersSize(members);
+        }
+        for (FixMessageDefinition message : messageMap.values()) {
+            size += MAP_ENTRY_SIZE + MAP_SIZE + stringSize(message.getName()) + stringSize(message.getMsgType())
+                    + membersSize(message.getMembers());
+        }
+        return size;
+    }
+
+    private static long membersSize(List<FixDictionaryMember> members) {
+        // The member object, its list slot and its own member list; names are shared with the field tables
+        long size = MAP_SIZE;
+        for (FixDictionaryMember member : members) {
+            size += MAP_ENTRY_SIZE + membersSize(member.getMembers());
+        }
+        return size;
+    }
+
+    private static long stringSize(String value) {
+        return value != null ? STRING_SIZE + value.length() : 0;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
             return null;
         }
-        return line.substring(start, end);
+        if (length > in.available()) {
+            throw new IOException("Corrupt dictionary snapshot");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
     }
 
     /**
-     * Provides all enumerated values for a given tag.
+     * Provides all enumerated values for a given tag. When both an overlay and its base define
+     * values for the tag, the result is a view of both rather than a merged copy.
      *
      * @param currentTag numeric tag identifier
-     * @return mapping of value to description or {@code null} if none defined
+     * @return unmodifiable mapping of value to description or {@code null} if none defined
      */
     public Map<String, String> getValueMap(String currentTag) {
-        return tagValueMap.get(currentTag);
+        Map<String, String> values = tagValues.get(parseTag(currentTag));
+        Map<String, String> baseValues = base != null ? base.getValueMap(currentTag) : null;
+        if (values == null || baseValues == null) {
+            return values != null ? Collections.unmodifiableMap(values) : baseValues;
+        }
+        return new LayeredMap<>(values, baseValues);
     }
 
-    private static void loadFieldDescriptions(FixTagDictionary dictionary) {
-        String path = "/documentation/FIX.5.0SP2_en_phrases.xml";
-        try (InputStream inputStream = FixTagDictionary.class.getResourceAsStream(path)) {
-            if (inputStream == null) {
-                LOG.warn("Phrases file not found: " + path);
+    /**
+     * Read-only view of an overlay map over a base map; entries of the overlay hide base entries
+     * with the same key.
+     */
+    private static final class LayeredMap<V> extends AbstractMap<String, V> {
+        private final Map<String, V> overlay;
+        private final Map<String, V> base;
+
+        LayeredMap(Map<String, V> overlay, Map<String, V> base) {
+            this.overlay = overlay;
+            this.base = base;
+        }
+
+        @Override
+        public V get(Object key) {
+            V value = overlay.get(key);
+            return value != null ? value : base.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return overlay.containsKey(key) || base.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            int size = base.size();
+            for (String key : overlay.keySet()) {
+                if (!base.containsKey(key)) {
+                    size++;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public @NotNull Set<Entry<String, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<Entry<String, V>> iterator() {
+                    Iterator<Entry<String, V>> overlayEntries = overlay.entrySet().iterator();
+                    Iterator<Entry<String, V>> baseEntries = base.entrySet().stream()
+                            .filter(entry -> !overlay.containsKey(entry.getKey()))
+                            .iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return overlayEntries.hasNext() || baseEntries.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, V> next() {
+                            Entry<String, V> entry = overlayEntries.hasNext() ? overlayEntries.next() : baseEntries.next();
+                            return new SimpleImmutableEntry<>(entry);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return LayeredMap.this.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * Values indexed by tag number: an array for tags below {@link #DENSE_TAG_LIMIT} and a
+     * primitive-keyed hash map for the rest.
+     */
+    private static final class TagTable<V> {
+        private Object[] dense = new Object[0];
+        private int denseCount;
+        private Int2ObjectOpenHashMap<V> sparse;
+        private Map<String, V> view;
+
+        @SuppressWarnings("unchecked")
+        V get(int tag) {
+            if (tag >= 0 && tag < dense.length) {
+                return (V) dense[tag];
+            }
+            return tag >= DENSE_TAG_LIMIT && sparse != null ? sparse.get(tag) : null;
+        }
+
+        long getEstimatedSize() {
+            return 16 + 4L * dense.length + (sparse != null ? MAP_SIZE + 12L * sparse.size() : 0);
+        }
+
+        int size() {
+            return denseCount + (sparse != null ? sparse.size() : 0);
+        }
+
+        /**
+         * @return a read-only view keyed by tag number text, in ascending order of the dense tags
+         */
+        Map<String, V> asMap() {
+            Map<String, V> map = view;
+            if (map == null) {
+                map = new TagMap();
+                view = map;
+            }
+            return map;
+        }
+
+        void put(int tag, V value) {
+            if (tag < 0) {
                 return;
             }
-            javax.xml.parsers.DocumentBuilderFactory factory = javax.xml.parsers.DocumentBuilderFactory.newInstance();
-            javax.xml.parsers.DocumentBuilder builder = factory.newDocumentBuilder();
-            org.w3c.dom.Document document = builder.parse(inputStream);
-            org.w3c.dom.NodeList phrases = document.getElementsByTagName("phrase");
-            java.util.stream.IntStream.range(0, phrases.getLength())
-                    .mapToObj(phrases::item)
-                    .filter(node -> node instanceof org.w3c.dom.Element)
-                    .map(node -> (org.w3c.dom.Element) node)
-                    .filter(element -> {
-                        String textId = element.getAttribute("textId");
-                        return textId != null && textId.startsWith("FIELD_");
-                    })
-                    .forEach(element -> {
-                        String textId = element.getAttribute("textId");
-                        String tag = textId.substring("FIELD_".length());
-                        org.w3c.dom.NodeList paras = element.getElementsByTagName("para");
-                        String description = java.util.stream.IntStream.range(0, paras.getLength())
-                                .mapToObj(i -> paras.item(i).getTextContent().trim())
-                                .collect(java.util.stream.Collectors.joining(" "));
-                        dictionary.fieldDescriptionMap.put(tag, description);
-                    });
-        } catch (Exception e) {
-            LOG.warn("Failed to load phrases file", e);
+            if (tag < DENSE_TAG_LIMIT) {
+                if (tag >= dense.length) {
+                    dense = Arrays.copyOf(dense, Math.min(DENSE_TAG_LIMIT, Math.max(tag + 1, dense.length * 2)));
+                }
+                if (dense[tag] == null) {
+                    denseCount++;
+                }
+                dense[tag] = value;
+            } else {
+                if (sparse == null) {
+                    sparse = new Int2ObjectOpenHashMap<>();
+                }
+                sparse.put(tag, value);
+            }
+        }
+
+        private final class TagMap extends AbstractMap<String, V> {
+            @Override
+            public V get(Object key) {
+                return key instanceof String tag ? TagTable.this.get(parseTag(tag)) : null;
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return get(key) != null;
+            }
+
+            @Override
+            public int size() {
+                return TagTable.this.size();
+            }
+
+            @Override
+            public @NotNull Set<Entry<String, V>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public @NotNull Iterator<Entry<String, V>> iterator() {
+                        return new TagIterator();
+                    }
+
+                    @Override
+                    public int size() {
+                        return TagTable.this.size();
+                    }
+                };
+            }
+        }
+
+        private final class TagIterator implements Iterator<Map.Entry<String, V>> {
+            private int next = advance(0);
+            private final Iterator<Int2ObjectMap.Entry<V>> sparseEntries =
+                    sparse != null ? sparse.int2ObjectEntrySet().iterator() : Collections.emptyIterator();
+
+            private int advance(int from) {
+                while (from < dense.length && dense[from] == null) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < dense.length || sparseEntries.hasNext();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public Map.Entry<String, V> next() {
+                if (next < dense.length) {
+                    int tag = next;
+                    next = advance(tag + 1);
+                    return new AbstractMap.SimpleImmutableEntry<>(Integer.toString(tag), (V) dense[tag]);
+                }
+                Int2ObjectMap.Entry<V> entry = sparseEntries.next();
+                return new AbstractMap.SimpleImmutableEntry<>(Integer.toString(entry.getIntKey()), entry.getValue());
+            }
         }
     }
-}
\ No newline at end of file
+}
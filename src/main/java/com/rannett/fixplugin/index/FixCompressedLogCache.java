@@ -0,0 +1,261 @@
+package com.rannett.fixplugin.index;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Application-level cache of {@link FixMessageBlockStore}s for gzip and zip compressed FIX logs.
+ * <p>
+ * The first time a compressed log is opened it is decompressed once, as a stream, into a block
+ * store kept under the IDE system directory. The store is keyed by the log's path, size and
+ * modification stamp and reused until the log changes. Only the stores of the
+ * {@link #MAX_STORED_LOGS} most recently opened logs are kept on disk.
+ */
+@Service(Service.Level.APP)
+public final class FixCompressedLogCache {
+
+    private static final Logger LOG = Logger.getInstance(FixCompressedLogCache.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String STORE_SUFFIX = ".blocks";
+
+    /** Number of block stores kept on disk; those of less recently opened logs are deleted. */
+    static final int MAX_STORED_LOGS = 8;
+
+    private final Map<String, FixMessageBlockStore> stores = new ConcurrentHashMap<>();
+    private final Path directory;
+
+    public FixCompressedLogCache() {
+        this(Path.of(PathManager.getSystemPath(), "fix-viewer", "compressed-logs"));
+    }
+
+    FixCompressedLogCache(@NotNull Path directory) {
+        this.directory = directory;
+    }
+
+    public static FixCompressedLogCache getInstance() {
+        return ApplicationManager.getApplication().getService(FixCompressedLogCache.class);
+    }
+
+    /**
+     * @param fileName name of a file
+     * @return whether the name denotes a gzip or zip compressed FIX log
+     */
+    public static boolean isCompressedLog(@NotNull String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        return name.endsWith(".fix.gz") || name.endsWith(".fix.zip");
+    }
+
+    /**
+     * Returns the block store for a compressed log, decompressing the log if no current store
+     * exists. This may take a long time and must not be called on the event dispatch thread.
+     *
+     * @param file     the compressed log
+     * @param progress receives the number of decompressed characters processed, or {@code null}
+     * @return the block store
+     * @throws IOException if the log cannot be decompressed or the store cannot be written
+     */
+    public FixMessageBlockStore getStore(@NotNull VirtualFile file, LongConsumer progress) throws IOException {
+        String prefix = hash(file.getPath()) + "-";
+        String name = prefix + Long.toHexString(file.getTimeStamp()) + "-" + Long.toHexString(file.getLength()) + STORE_SUFFIX;
+        FixMessageBlockStore store = stores.get(name);
+        if (store != null) {
+            return store;
+        }
+
+        Path sidecar = directory.resolve(name);
+        if (Files.isRegularFile(sidecar)) {
+            try {
+                store = FixMessageBlockStore.open(sidecar);
+                // The modification time records when the log was last opened
+                Files.setLastModifiedTime(sidecar, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (IOException e) {
+                LOG.debug("Rebuilding unreadable block store " + sidecar, e);
+            }
+        }
+        if (store == null) {
+            deleteStores(prefix);
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "blocks", ".tmp");
+            try (Reader reader = openReader(file.getInputStream(), file.getName())) {
+                FixMessageBlockStore.build(reader, temp, progress);
+                Files.move(temp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            store = FixMessageBlockStore.open(sidecar);
+        }
+        stores.keySet().removeIf(key -> key.startsWith(prefix));
+        stores.put(name, store);
+        pruneStores();
+        return store;
+    }
+
+    /**
+     * Deletes the block stores on disk beyond the {@link #MAX_STORED_LOGS} most recently opened,
+     * except those opened in this session.
+     */
+    void pruneStores() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> files;
+        try (var listed = Files.list(directory)) {
+            files = listed.filter(file -> file.getFileName().toString().endsWith(STORE_SUFFIX))
+                    .sorted(Comparator.comparing(FixCompressedLogCache::lastModified).reversed())
+                    .toList();
+        } catch (IOException e) {
+            LOG.debug("Failed to list block stores in " + directory, e);
+            return;
+        }
+        for (Path file : files.subList(Math.min(MAX_STORED_LOGS, files.size()), files.size())) {
+            if (stores.containsKey(file.getFileName().toString())) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LOG.debug("Failed to delete block store " + file, e);
+            }
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * Decompress a gzip or zip stream as text. The entries of a zip archive are concatenated in
+     * order, separated by line breaks.
+     *
+     * @param input    compressed data; closed together with the returned reader
+     * @param fileName name of the compressed file, used to select the format
+     * @return reader over the decompressed text
+     * @throws IOException if the stream is not in the expected format
+     */
+    static Reader openReader(@NotNull InputStream input, @NotNull String fileName) throws IOException {
+        InputStream buffered = new BufferedInputStream(input, BUFFER_SIZE);
+        InputStream decompressed = fileName.toLowerCase(Locale.ROOT).endsWith(".zip")
+                ? new ZipEntriesInputStream(new ZipInputStream(buffered))
+                : new GZIPInputStream(buffered, BUFFER_SIZE);
+        // FIX fields are ASCII, but free-text fields may carry UTF-8
+        return new InputStreamReader(decompressed, StandardCharsets.UTF_8);
+    }
+
+    private void deleteStores(String prefix) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (var files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().startsWith(prefix))
+                    .forEach(file -> {
+                        try {
+                            Files.deleteIfExists(file);
+                        } catch (IOException e) {
+                            LOG.debug("Failed to delete block store " + file, e);
+                        }
+                    });
+        } catch (IOException e) {
+            LOG.debug("Failed to list block stores in " + directory, e);
+        }
+    }
+
+    private static String hash(String path) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(path.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reads all file entries of a zip archive as one stream, with a line break between entries.
+     */
+    private static final class ZipEntriesInputStream extends InputStream {
+        private final ZipInputStream zip;
+        private boolean inEntry;
+        private boolean separatorPending;
+        private boolean finished;
+
+        ZipEntriesInputStream(ZipInputStream zip) {
+            this.zip = zip;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte @NotNull [] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            while (!finished) {
+                if (separatorPending) {
+                    separatorPending = false;
+                    buffer[offset] = '\n';
+                    return 1;
+                }
+                if (inEntry) {
+                    int read = zip.read(buffer, offset, length);
+                    if (read >= 0) {
+                        return read;
+                    }
+                    inEntry = false;
+                    separatorPending = true;
+                    continue;
+                }
+                ZipEntry entry = zip.getNextEntry();
+                while (entry != null && entry.isDirectory()) {
+                    entry = zip.getNextEntry();
+                }
+                if (entry == null) {
+                    finished = true;
+                } else {
+                    inEntry = true;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public void close() throws IOException {
+            zip.close();
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.rannett.fixplugin.index;
+
+import com.rannett.fixplugin.util.FixMessageSplitter;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Random-access storage for the entries of a compressed FIX log.
+ * <p>
+ * A gzip or zip stream can only be inflated from its beginning, so reading message N of a
+ * rotated log would otherwise mean decompressing everything before it. The block store is built
+ * by streaming the log once through {@link FixMessageSplitter} and writing its entries to a file
+ * as independently deflated blocks of {@link #DEFAULT_ENTRIES_PER_BLOCK} entries. A block
+ * offset index at the end of the file maps entry numbers to blocks, so any entry can later be
+ * read by inflating a single block. The index also records the number of messages before each
+ * block, so a page of entries can be numbered by its position in the whole log.
+ * <p>
+ * Entries are stored as UTF-8, each preceded in its block by its length in bytes, so free-text
+ * fields such as {@code 58=Text} keep characters outside ISO-8859-1.
+ */
+public final class FixMessageBlockStore {
+
+    static final int DEFAULT_ENTRIES_PER_BLOCK = 1000;
+
+    private static final int MAGIC = 0x4649584C; // "FIXL"
+    private static final int FORMAT_VERSION = 3;
+    private static final int TRAILER_LENGTH = 12;
+
+    private final Path file;
+    /** Number of entries before each block, plus the total entry count at the end. */
+    private final int[] firstEntries;
+    /** Number of messages before each block, plus the total message count at the end. */
+    private final int[] firstMessages;
+    /** File offset of each block, plus the offset of the index at the end. */
+    private final long[] blockOffsets;
+    private final int[] blockLengths;
+
+    private int cachedBlock = -1;
+    private List<String> cachedEntries;
+
+    private FixMessageBlockStore(Path file, int[] firstEntries, int[] firstMessages, long[] blockOffsets,
+                                 int[] blockLengths) {
+        this.file = file;
+        this.firstEntries = firstEntries;
+        this.firstMessages = firstMessages;
+        this.blockOffsets = blockOffsets;
+        this.blockLengths = blockLengths;
+    }
+
+    /**
+     * Split the text provided by the reader and write it to a new block store file. The reader is
+     * not closed.
+     *
+     * @param reader   decompressed log text
+     * @param file     destination of the block store; an existing file is replaced
+     * @param progress receives the number of characters consumed so far, or {@code null}
+     * @return the opened block store
+     * @throws IOException if reading the log or writing the store fails
+     */
+    public static FixMessageBlockStore build(@NotNull Reader reader, @NotNull Path file,
+                                             LongConsumer progress) throws IOException {
+        return build(reader, file, DEFAULT_ENTRIES_PER_BLOCK, progress);
+    }
+
+    static FixMessageBlockStore build(Reader reader, Path file, int entriesPerBlock,
+                                      LongConsumer progress) throws IOException {
+        FixMessageSplitter splitter = new FixMessageSplitter(reader);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        List<String> block = new ArrayList<>(entriesPerBlock);
+        IntArrayList firstEntries = new IntArrayList();
+        IntArrayList firstMessages = new IntArrayList();
+        LongArrayList offsets = new LongArrayList();
+        IntArrayList lengths = new IntArrayList();
+        int entries = 0;
+        int messages = 0;
+        int blockMessages = 0;
+        try (RandomAccessFile out = new RandomAccessFile(file.toFile(), "rw")) {
+            out.setLength(0);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            while (hasNext(splitter)) {
+                String entry = splitter.next();
+                if (isMessage(entry)) {
+                    blockMessages++;
+                }
+                block.add(entry);
+                if (block.size() == entriesPerBlock) {
+                    firstEntries.add(entries);
+                    firstMessages.add(messages);
+                    entries += block.size();
+                    messages += blockMessages;
+                    blockMessages = 0;
+                    writeBlock(out, deflater, block, offsets, lengths);
+                    if (progress != null) {
+                        progress.accept(splitter.getEntryEnd());
+                    }
+                }
+            }
+            if (!block.isEmpty()) {
+                firstEntries.add(entries);
+                firstMessages.add(messages);
+                entries += block.size();
+                messages += blockMessages;
+                writeBlock(out, deflater, block, offsets, lengths);
+            }
+            firstEntries.add(entries);
+            firstMessages.add(messages);
+            offsets.add(out.getFilePointer());
+
+            long indexOffset = out.getFilePointer();
+            out.writeInt(lengths.size());
+            for (int i = 0; i < lengths.size(); i++) {
+                out.writeInt(firstEntries.getInt(i));
+                out.writeInt(firstMessages.getInt(i));
+                out.writeLong(offsets.getLong(i));
+                out.writeInt(lengths.getInt(i));
+            }
+            out.writeInt(entries);
+            out.writeInt(messages);
+            out.writeLong(indexOffset);
+            out.writeInt(MAGIC);
+        } finally {
+            deflater.end();
+        }
+        return new FixMessageBlockStore(file, firstEntries.toIntArray(), firstMessages.toIntArray(),
+                offsets.toLongArray(), lengths.toIntArray());
+    }
+
+    private static boolean hasNext(FixMessageSplitter splitter) throws IOException {
+        try {
+            return splitter.hasNext();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Open a block store previously written by {@link #build(Reader, Path, LongConsumer)}.
+     *
+     * @param file the block store file
+     * @return the block store
+     * @throws IOException if the file cannot be read or is not a valid block store
+     */
+    public static FixMessageBlockStore open(@NotNull Path file) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(file.toFile(), "r")) {
+            if (in.length() < 8 + TRAILER_LENGTH || in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Not a FIX block store: " + file);
+            }
+            in.seek(in.length() - TRAILER_LENGTH);
+            long indexOffset = in.readLong();
+            if (in.readInt() != MAGIC || indexOffset < 8 || indexOffset >= in.length()) {
+                throw new IOException("Incomplete FIX block store: " + file);
+            }
+            in.seek(indexOffset);
+            int blocks = in.readInt();
+            if (blocks < 0 || blocks > (in.length() - indexOffset) / 20) {
+                throw new IOException("Invalid block count in " + file);
+            }
+            int[] firstEntries = new int[blocks + 1];
+            int[] firstMessages = new int[blocks + 1];
+            long[] offsets = new long[blocks + 1];
+            int[] lengths = new int[blocks];
+            for (int i = 0; i < blocks; i++) {
+                firstEntries[i] = in.readInt();
+                firstMessages[i] = in.readInt();
+                offsets[i] = in.readLong();
+                lengths[i] = in.readInt();
+            }
+            firstEntries[blocks] = in.readInt();
+            offsets[blocks] = indexOffset;
+            firstMessages[blocks] = in.readInt();
+            return new FixMessageBlockStore(file, firstEntries, firstMessages, offsets, lengths);
+        }
+    }
+
+    /**
+     * @return number of entries, including comment lines
+     */
+    public int getEntryCount() {
+        return firstEntries[firstEntries.length - 1];
+    }
+
+    /**
+     * @return number of entries that are not comment lines
+     */
+    public int getMessageCount() {
+        return firstMessages[firstMessages.length - 1];
+    }
+
+    /**
+     * @return number of compressed blocks
+     */
+    public int getBlockCount() {
+        return blockLengths.length;
+    }
+
+    /**
+     * Read a range of entries, inflating only the blocks that contain them.
+     *
+     * @param from zero-based number of the first entry
+     * @param to   zero-based number just past the last entry
+     * @return the entries in order
+     * @throws IOException if the store cannot be read
+     */
+    public synchronized List<String> readEntries(int from, int to) throws IOException {
+        int start = Math.max(0, from);
+        int end = Math.min(to, getEntryCount());
+        List<String> result = new ArrayList<>(Math.max(0, end - start));
+        int entry = start;
+        while (entry < end) {
+            int block = findBlock(entry);
+            List<String> blockEntries = readBlock(block);
+            int offset = entry - firstEntries[block];
+            int count = Math.min(blockEntries.size() - offset, end - entry);
+            result.addAll(blockEntries.subList(offset, offset + count));
+            entry += count;
+        }
+        return result;
+    }
+
+    /**
+     * Count the messages before an entry, inflating at most the block that contains it.
+     *
+     * @param entry zero-based entry number
+     * @return number of entries before it that are not comment lines
+     * @throws IOException if the store cannot be read
+     */
+    public synchronized int countMessagesBefore(int entry) throws IOException {
+        if (entry >= getEntryCount()) {
+            return getMessageCount();
+        }
+        if (entry <= 0) {
+            return 0;
+        }
+        int block = findBlock(entry);
+        int count = firstMessages[block];
+        for (String before : readBlock(block).subList(0, entry - firstEntries[block])) {
+            if (isMessage(before)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Classifies an entry the way {@link com.rannett.fixplugin.util.FixParsedMessages} does:
+     * anything but a blank or {@code #} comment line is a message.
+     */
+    private static boolean isMessage(String entry) {
+        for (int i = 0; i < entry.length(); i++) {
+            char c = entry.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c != '#';
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param entry zero-based entry number
+     * @return number of the block containing the entry
+     */
+    int findBlock(int entry) {
+        int position = Arrays.binarySearch(firstEntries, 0, blockLengths.length, entry);
+        return position >= 0 ? position : -position - 2;
+    }
+
+    private List<String> readBlock(int block) throws IOException {
+        if (block == cachedBlock) {
+            return cachedEntries;
+        }
+        byte[] compressed = new byte[blockLengths[block]];
+        try (RandomAccessFile in = new RandomAccessFile(file.toFile(), "r")) {
+            in.seek(blockOffsets[block]);
+            in.readFully(compressed);
+        }
+        int count = firstEntries[block + 1] - firstEntries[block];
+        List<String> entries = decodeBlock(compressed, count);
+        cachedBlock = block;
+        cachedEntries = entries;
+        return entries;
+    }
+
+    private static void writeBlock(RandomAccessFile out, Deflater deflater, List<String> block,
+                                   LongArrayList offsets, IntArrayList lengths) throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(raw);
+        byte[][] encoded = new byte[block.size()][];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = block.get(i).getBytes(StandardCharsets.UTF_8);
+            data.writeInt(encoded[i].length);
+        }
+        for (byte[] entry : encoded) {
+            data.write(entry);
+        }
+        block.clear();
+
+        byte[] input = raw.toByteArray();
+        deflater.reset();
+        deflater.setInput(input);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(input.length / 4 + 64);
+        byte[] buffer = new byte[64 * 1024];
+        while (!deflater.finished()) {
+            int written = deflater.deflate(buffer);
+            compressed.write(buffer, 0, written);
+        }
+
+        // Each block is stored as its uncompressed size followed by the deflated data
+        offsets.add(out.getFilePointer());
+        lengths.add(4 + compressed.size());
+        out.writeInt(input.length);
+        out.write(compressed.toByteArray());
+    }
+
+    private static List<String> decodeBlock(byte[] stored, int count) throws IOException {
+        int rawLength = ((stored[0] & 0xFF) << 24) | ((stored[1] & 0xFF) << 16)
+                | ((stored[2] & 0xFF) << 8) | (stored[3] & 0xFF);
+        byte[] raw = new byte[rawLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored, 4, stored.length - 4);
+            int read = 0;
+            while (read < rawLength) {
+                int n = inflater.inflate(raw, read, rawLength - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IOException("Truncated block");
+                }
+                read += n;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt block", e);
+        } finally {
+            inflater.end();
+        }
+
+        List<String> entries = new ArrayList<>(count);
+        int position = 4 * count;
+        for (int i = 0; i < count; i++) {
+            int length = ((raw[4 * i] & 0xFF) << 24) | ((raw[4 * i + 1] & 0xFF) << 16)
+                    | ((raw[4 * i + 2] & 0xFF) << 8) | (raw[4 * i + 3] & 0xFF);
+            entries.add(new String(raw, position, length, StandardCharsets.UTF_8));
+            position += length;
+        }
+        return entries;
+    }
+}
@@ -8,6 +8,7 @@ import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.rannett.fixplugin.psi.FixField;
+import com.rannett.fixplugin.util.FixUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -29,7 +30,7 @@ public class FixChecksumInspection extends LocalInspectionTool {
 
         return extractMessages(fields).stream()
                 .map(msg -> {
-                    String expected = String.format("%03d", calculateChecksum(msg.body));
+                    String expected = String.format("%03d", FixUtils.calculateChecksum(msg.body));
                     String actual = msg.checksumField.getValue() != null ? msg.checksumField.getValue() : "";
 
                     if (!expected.equals(actual)) {
@@ -48,12 +49,6 @@ public class FixChecksumInspection extends LocalInspectionTool {
                 .toArray(ProblemDescriptor[]::new);
     }
 
-    private int calculateChecksum(String message) {
-        return message.chars()
-                .filter(c -> c == 1 || (c >= 32 && c <= 126))
-                .sum() % 256;
-    }
-
     private List<MessageBlock> extractMessages(List<FixField> fields) {
         List<MessageBlock> messages = new ArrayList<>();
 
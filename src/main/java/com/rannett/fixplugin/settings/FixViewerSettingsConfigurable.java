@@ -5,10 +5,14 @@ import com.intellij.openapi.fileChooser.FileChooserDescriptor;
 import com.intellij.openapi.fileChooser.FileChooserDescriptorFactory;
 import com.intellij.openapi.options.Configurable;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.ui.ScrollPaneFactory;
 import com.intellij.ui.ToolbarDecorator;
 import com.intellij.ui.table.JBTable;
+import com.rannett.fixplugin.dictionary.FixBuiltInDictionaryCache;
 import com.rannett.fixplugin.dictionary.FixDictionaryCache;
 import com.rannett.fixplugin.dictionary.FixDictionaryChangeListener;
+import com.rannett.fixplugin.dictionary.FixDictionaryFootprint;
 import com.rannett.fixplugin.settings.FixViewerSettingsState.DictionaryEntry;
 import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.Nullable;
@@ -27,6 +31,8 @@ public class FixViewerSettingsConfigurable implements Configurable {
     private JPanel mainPanel;
     private JBTable versionTable;
     private DictionaryTableModel tableModel;
+    private FootprintTableModel footprintModel;
+    private JLabel footprintSummary;
     private final FixViewerSettingsState settingsState;
     private final Project project;
 
@@ -106,6 +112,14 @@ public class FixViewerSettingsConfigurable implements Configurable {
         mainPanel.add(new JLabel("Custom Dictionary Mappings (FIX Version → Path):"));
         mainPanel.add(decorator.createPanel());
 
+        footprintModel = new FootprintTableModel();
+        JBTable footprintTable = new JBTable(footprintModel);
+        footprintTable.setVisibleRowCount(4);
+        footprintSummary = new JLabel();
+        mainPanel.add(new JLabel("Loaded Dictionaries (estimated heap use):"));
+        mainPanel.add(ScrollPaneFactory.createScrollPane(footprintTable));
+        mainPanel.add(footprintSummary);
+
         return mainPanel;
     }
 
@@ -127,6 +141,28 @@ public class FixViewerSettingsConfigurable implements Configurable {
     @Override
     public void reset() {
         tableModel.setEntries(settingsState.getDictionaryEntries());
+        refreshFootprints();
+    }
+
+    private void refreshFootprints() {
+        List<FixDictionaryFootprint> footprints = new ArrayList<>();
+        FixBuiltInDictionaryCache shared = FixBuiltInDictionaryCache.getInstance();
+        if (shared != null) {
+            footprints.addAll(shared.getFootprints());
+        }
+        footprints.addAll(project.getService(FixDictionaryCache.class).getFootprints());
+        footprintModel.setFootprints(footprints);
+
+        long total = 0;
+        for (FixDictionaryFootprint footprint : footprints) {
+            total += footprint.getRetainedSize();
+        }
+        String summary = "Total: " + StringUtil.formatFileSize(total);
+        if (shared != null) {
+            summary += ", saved by sharing bundled dictionaries between projects: "
+                    + StringUtil.formatFileSize(shared.getMemoryUsage().getSavedSize());
+        }
+        footprintSummary.setText(summary);
     }
 
     @Override
@@ -134,6 +170,51 @@ public class FixViewerSettingsConfigurable implements Configurable {
         // No resources to dispose
     }
 
+    private static final class FootprintTableModel extends AbstractTableModel {
+        private final String[] columnNames = {"Dictionary", "Source", "Entries", "Retained"};
+        private final List<FixDictionaryFootprint> footprints = new ArrayList<>();
+
+        @Override
+        public int getRowCount() {
+            return footprints.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columnNames.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columnNames[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int columnIndex) {
+            return columnIndex == 2 ? Integer.class : String.class;
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            FixDictionaryFootprint footprint = footprints.get(rowIndex);
+            return switch (columnIndex) {
+                case 0 -> footprint.getName();
+                case 1 -> footprint.isBuiltIn() ? "Bundled (shared)"
+                        : footprint.getBaseVersion() != null ? "Overlay on " + footprint.getBaseVersion()
+                        : "Custom";
+                case 2 -> footprint.getEntryCount();
+                case 3 -> StringUtil.formatFileSize(footprint.getRetainedSize());
+                default -> "";
+            };
+        }
+
+        void setFootprints(List<FixDictionaryFootprint> newFootprints) {
+            footprints.clear();
+            footprints.addAll(newFootprints);
+            fireTableDataChanged();
+        }
+    }
+
     private static final class DictionaryTableModel extends AbstractTableModel {
         private final String[] columnNames = {"FIX Version", "Dictionary Path", "Default"};
         private final List<DictionaryEntry> entries = new ArrayList<>();
@@ -6,8 +6,9 @@ import com.intellij.ui.treeStructure.treetable.ListTreeTableModelOnColumns;
 import com.intellij.ui.treeStructure.treetable.TreeColumnInfo;
 import com.intellij.ui.treeStructure.treetable.TreeTable;
 import com.intellij.util.ui.ColumnInfo;
-import com.rannett.fixplugin.settings.FixViewerSettingsState.DictionaryEntry;
+import com.rannett.fixplugin.util.FixFieldCursor;
 import com.rannett.fixplugin.util.FixMessageParser;
+import com.rannett.fixplugin.util.FixParsedMessages;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.BorderFactory;
@@ -23,12 +24,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
-import java.util.stream.IntStream;
 
 import quickfix.DataDictionary;
-import quickfix.Field;
-import quickfix.FieldMap;
-import quickfix.Group;
 import quickfix.Message;
 
 /**
@@ -51,6 +48,15 @@ public class FixCommTimelinePanel extends JPanel {
      * @param messages list of raw FIX messages
      */
     public FixCommTimelinePanel(@NotNull List<String> messages) {
+        this(FixParsedMessages.of(messages));
+    }
+
+    /**
+     * Create a timeline panel for an already parsed document.
+     *
+     * @param messages parsed document shared with the other views
+     */
+    public FixCommTimelinePanel(@NotNull FixParsedMessages messages) {
         super(new BorderLayout());
 
         ColumnInfo[] columns = new ColumnInfo[]{
@@ -110,9 +116,95 @@ public class FixCommTimelinePanel extends JPanel {
      * @param messages list of raw FIX messages
      */
     public void updateMessages(@NotNull List<String> messages) {
+        loadMessages(FixParsedMessages.of(messages));
+    }
+
+    /**
+     * Update the timeline from an already parsed document.
+     *
+     * @param messages parsed document shared with the other views
+     */
+    public void updateMessages(@NotNull FixParsedMessages messages) {
         loadMessages(messages);
     }
 
+    /**
+     * Update the timeline for an edit of the document. Only the rows of the entries replaced by
+     * the edit are parsed again; the remaining rows are renumbered and their directions
+     * refreshed in place.
+     *
+     * @param messages parsed document after the edit
+     * @param change   the entries replaced by the edit
+     */
+    public void applyChange(@NotNull FixParsedMessages messages, @NotNull FixParsedMessages.Change change) {
+        int first = change.getFirstEntry();
+        int removed = change.getRemovedEntries();
+        int inserted = change.getInsertedEntries();
+        if (first + removed > allNodes.size()) {
+            loadMessages(messages);
+            return;
+        }
+
+        int displayedBefore = 0;
+        for (int i = 0; i < first; i++) {
+            if (isVisible(allNodes.get(i))) {
+                displayedBefore++;
+            }
+        }
+
+        List<MessageNode> replaced = allNodes.subList(first, first + removed);
+        List<Integer> removedIndices = new ArrayList<>();
+        List<Object> removedNodes = new ArrayList<>();
+        for (MessageNode node : replaced) {
+            if (isVisible(node)) {
+                removedIndices.add(displayedBefore + removedNodes.size());
+                removedNodes.add(node);
+            }
+        }
+        replaced.clear();
+        for (int i = removedNodes.size() - 1; i >= 0; i--) {
+            root.remove(displayedBefore + i);
+            displayedNodes.remove(displayedBefore + i);
+        }
+        if (!removedNodes.isEmpty()) {
+            model.nodesWereRemoved(root, removedIndices.stream().mapToInt(Integer::intValue).toArray(), removedNodes.toArray());
+        }
+
+        List<MessageNode> added = new ArrayList<>(inserted);
+        for (int i = 0; i < inserted; i++) {
+            added.add(parseNode(messages, messages.getEntries().get(first + i)));
+        }
+        allNodes.addAll(first, added);
+        for (int i = first + inserted; i < allNodes.size(); i++) {
+            allNodes.get(i).index = i + 1;
+        }
+        List<Integer> insertedIndices = new ArrayList<>();
+        for (MessageNode node : added) {
+            if (isVisible(node)) {
+                int position = displayedBefore + insertedIndices.size();
+                root.insert(node, position);
+                displayedNodes.add(position, node);
+                insertedIndices.add(position);
+            }
+        }
+        if (!insertedIndices.isEmpty()) {
+            model.nodesWereInserted(root, insertedIndices.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        // The local party of a session is taken from its first message, so directions of later
+        // rows may change with the edit
+        localPartyBySession.clear();
+        for (MessageNode node : allNodes) {
+            String direction = determineDirection(node.sender, node.target);
+            if (!direction.equals(node.direction)) {
+                node.direction = direction;
+                if (isVisible(node)) {
+                    model.nodeChanged(node);
+                }
+            }
+        }
+    }
+
     /**
      * Configure a callback when a message row is selected.
      *
@@ -141,13 +233,12 @@ public class FixCommTimelinePanel extends JPanel {
         return displayedNodes.size();
     }
 
-    private void loadMessages(List<String> messages) {
+    private void loadMessages(FixParsedMessages messages) {
         allNodes.clear();
         localPartyBySession.clear();
-        IntStream.range(0, messages.size()).forEach(i -> {
-            MessageNode node = parseNode(messages.get(i), i + 1);
-            allNodes.add(node);
-        });
+        for (FixParsedMessages.Entry entry : messages.getEntries()) {
+            allNodes.add(parseNode(messages, entry));
+        }
         applyFilter();
     }
 
@@ -155,7 +246,7 @@ public class FixCommTimelinePanel extends JPanel {
         root.removeAllChildren();
         displayedNodes.clear();
         allNodes.stream()
-                .filter(n -> !hideHeartbeat.isSelected() || !"0".equals(n.msgTypeCode))
+                .filter(this::isVisible)
                 .forEach(n -> {
                     displayedNodes.add(n);
                     root.add(n);
@@ -163,6 +254,10 @@ public class FixCommTimelinePanel extends JPanel {
         model.setRoot(root);
     }
 
+    private boolean isVisible(MessageNode node) {
+        return !hideHeartbeat.isSelected() || !"0".equals(node.msgTypeCode);
+    }
+
     private void notifySelection() {
         TreePath path = table.getTree().getSelectionPath();
         if (path == null) {
@@ -174,11 +269,13 @@ public class FixCommTimelinePanel extends JPanel {
         }
     }
 
-    private MessageNode parseNode(String msg, int index) {
+    private MessageNode parseNode(FixParsedMessages messages, FixParsedMessages.Entry entry) {
+        String msg = entry.getText();
+        int index = entry.getEntryNumber();
         String begin = extractBeginString(msg);
         try {
-            DataDictionary dd = FixMessageParser.loadDataDictionary(begin, (DictionaryEntry) null);
-            Message parsed = FixMessageParser.parse(msg, dd);
+            DataDictionary dd = messages.getDataDictionary(begin, null);
+            Message parsed = entry.getQuickFixMessage(dd);
 
             String time = parsed.getHeader().isSetField(52) ? parsed.getHeader().getString(52) : "";
             String typeCode = parsed.getHeader().isSetField(35) ? parsed.getHeader().getString(35) : "";
@@ -188,21 +285,11 @@ public class FixCommTimelinePanel extends JPanel {
             String direction = determineDirection(sender, target);
             String summary = FixMessageParser.buildMessageLabel(parsed, dd);
 
-            MessageNode node = new MessageNode(index, time, direction, typeCode, typeName, summary);
-            DefaultMutableTreeNode headerNode = new DefaultMutableTreeNode("Header");
-            buildNodes(parsed.getHeader(), headerNode, dd);
-            node.add(headerNode);
-
-            DefaultMutableTreeNode bodyNode = new DefaultMutableTreeNode("Body");
-            buildNodes(parsed, bodyNode, dd);
-            node.add(bodyNode);
-
-            DefaultMutableTreeNode trailerNode = new DefaultMutableTreeNode("Trailer");
-            buildNodes(parsed.getTrailer(), trailerNode, dd);
-            node.add(trailerNode);
+            MessageNode node = new MessageNode(index, time, sender, target, direction, typeCode, typeName, summary);
+            FixMessageNodes.addSections(node, parsed, dd);
             return node;
         } catch (Exception e) {
-            MessageNode node = new MessageNode(index, "", "→", "", "", msg);
+            MessageNode node = new MessageNode(index, "", "", "", "→", "", "", msg);
             node.add(new DefaultMutableTreeNode("Parse error: " + e.getMessage()));
             return node;
         }
@@ -220,16 +307,8 @@ public class FixCommTimelinePanel extends JPanel {
     }
 
     private static String extractBeginString(String msg) {
-        int start = msg.indexOf("8=");
-        if (start >= 0) {
-            int pipe = msg.indexOf('|', start);
-            int soh = msg.indexOf('\u0001', start);
-            int end = pipe >= 0 && (soh < 0 || pipe < soh) ? pipe : soh;
-            if (end > start) {
-                return msg.substring(start + 2, end);
-            }
-        }
-        return "FIX.4.4";
+        String begin = FixFieldCursor.findValue(msg, FixFieldCursor.BEGIN_STRING);
+        return begin != null && !begin.isEmpty() ? begin : "FIX.4.4";
     }
 
     private String determineDirection(String sender, String target) {
@@ -275,48 +354,6 @@ public class FixCommTimelinePanel extends JPanel {
         return displayedNodes.get(row).msgTypeDisplay;
     }
 
-    private void buildNodes(FieldMap map, DefaultMutableTreeNode parent, DataDictionary dd) {
-        java.util.Iterator<Field<?>> fieldIt = map.iterator();
-        while (fieldIt.hasNext()) {
-            Field<?> field = fieldIt.next();
-            int tag = field.getTag();
-            String name = dd.getFieldName(tag);
-            String value = String.valueOf(field.getObject());
-            String enumName = dd.getValueName(tag, value);
-
-            StringBuilder label = new StringBuilder();
-            label.append(tag).append("=").append(value);
-            if (name != null) {
-                label.append(" (").append(name);
-                if (enumName != null) {
-                    label.append("=").append(enumName);
-                }
-                label.append(")");
-            }
-            parent.add(new DefaultMutableTreeNode(label.toString()));
-        }
-
-        java.util.Iterator<Integer> groupKeys = map.groupKeyIterator();
-        while (groupKeys.hasNext()) {
-            int groupTag = groupKeys.next();
-            List<Group> groups = map.getGroups(groupTag);
-            String groupName = dd.getFieldName(groupTag);
-            int idx = 1;
-            for (Group g : groups) {
-                DefaultMutableTreeNode groupNode;
-                String title;
-                if (groupName != null) {
-                    title = groupName;
-                } else {
-                    title = String.valueOf(groupTag);
-                }
-                groupNode = new DefaultMutableTreeNode(title + " [" + idx++ + "]");
-                buildNodes(g, groupNode, dd);
-                parent.add(groupNode);
-            }
-        }
-    }
-
     private void fixColumnWidths() {
         TableColumn timeColumn = table.getColumnModel().getColumn(0);
         timeColumn.setMinWidth(150);
@@ -340,16 +377,21 @@ public class FixCommTimelinePanel extends JPanel {
     }
 
     private static final class MessageNode extends DefaultMutableTreeNode {
-        final int index;
+        int index;
         final String time;
-        final String direction;
+        final String sender;
+        final String target;
+        String direction;
         final String msgTypeCode;
         final String msgTypeDisplay;
 
-        MessageNode(int index, String time, String direction, String msgTypeCode, String msgTypeDisplay, String summary) {
+        MessageNode(int index, String time, String sender, String target, String direction, String msgTypeCode,
+                    String msgTypeDisplay, String summary) {
             super(summary);
             this.index = index;
             this.time = time;
+            this.sender = sender;
+            this.target = target;
             this.direction = direction;
             this.msgTypeCode = msgTypeCode;
             this.msgTypeDisplay = msgTypeDisplay;
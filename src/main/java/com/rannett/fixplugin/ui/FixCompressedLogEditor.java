@@ -0,0 +1,235 @@
+package com.rannett.fixplugin.ui;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileEditor.FileEditor;
+import com.intellij.openapi.fileEditor.FileEditorLocation;
+import com.intellij.openapi.fileEditor.FileEditorState;
+import com.intellij.openapi.fileEditor.FileEditorStateLevel;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.UserDataHolderBase;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBTabbedPane;
+import com.intellij.util.ui.JBUI;
+import com.rannett.fixplugin.index.FixCompressedLogCache;
+import com.rannett.fixplugin.index.FixMessageBlockStore;
+import com.rannett.fixplugin.util.FixParsedMessages;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.JButton;
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+import javax.swing.JTabbedPane;
+import javax.swing.SwingConstants;
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.beans.PropertyChangeListener;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Read-only viewer for gzip and zip compressed FIX logs.
+ * <p>
+ * The log is never decompressed into memory as a whole. It is indexed once into a
+ * {@link FixMessageBlockStore} in the background, after which the viewer shows one page of
+ * entries at a time in the table, tree and message flow views.
+ */
+public class FixCompressedLogEditor extends UserDataHolderBase implements FileEditor {
+    private static final Logger LOG = Logger.getInstance(FixCompressedLogEditor.class);
+
+    static final int PAGE_SIZE = 1000;
+
+    private final Project project;
+    private final VirtualFile file;
+    private final JPanel mainPanel;
+    private final JBLabel statusLabel;
+    private final JButton previousButton;
+    private final JButton nextButton;
+    private JTabbedPane tabbedPane;
+    private FixTransposedTablePanel tablePanel;
+    private FixMessageTreePanel treePanel;
+    private FixCommTimelinePanel commPanel;
+    private FixMessageBlockStore store;
+    private int page;
+    private volatile ProgressIndicator indexingIndicator;
+    private volatile boolean disposed;
+
+    public FixCompressedLogEditor(@NotNull Project project, @NotNull VirtualFile file) {
+        this.project = project;
+        this.file = file;
+
+        mainPanel = new JPanel(new BorderLayout());
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBorder(JBUI.Borders.empty(4, 8));
+        statusLabel = new JBLabel("Indexing compressed log...");
+        headerPanel.add(statusLabel, BorderLayout.WEST);
+        JPanel navigationPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 4, 0));
+        previousButton = new JButton("Previous");
+        previousButton.addActionListener(event -> showPage(page - 1));
+        nextButton = new JButton("Next");
+        nextButton.addActionListener(event -> showPage(page + 1));
+        previousButton.setEnabled(false);
+        nextButton.setEnabled(false);
+        navigationPanel.add(previousButton);
+        navigationPanel.add(nextButton);
+        headerPanel.add(navigationPanel, BorderLayout.EAST);
+        mainPanel.add(headerPanel, BorderLayout.NORTH);
+        mainPanel.add(new JBLabel("Decompressing " + file.getName() + "...", SwingConstants.CENTER), BorderLayout.CENTER);
+
+        new Task.Backgroundable(project, "Indexing " + file.getName(), true) {
+            private FixMessageBlockStore result;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                indexingIndicator = indicator;
+                if (disposed) {
+                    return;
+                }
+                indicator.setIndeterminate(true);
+                try {
+                    result = FixCompressedLogCache.getInstance().getStore(file, characters -> {
+                        indicator.checkCanceled();
+                        indicator.setText2((characters >> 20) + " MB decompressed");
+                    });
+                } catch (IOException e) {
+                    LOG.warn("Failed to index compressed FIX log " + file.getPath(), e);
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                indexingIndicator = null;
+                if (disposed) {
+                    return;
+                }
+                if (result == null) {
+                    statusLabel.setText("Unable to read " + file.getName());
+                    return;
+                }
+                store = result;
+                showPage(0);
+            }
+        }.queue();
+    }
+
+    private void showPage(int requestedPage) {
+        if (store == null) {
+            return;
+        }
+        int pageCount = Math.max(1, (store.getEntryCount() + PAGE_SIZE - 1) / PAGE_SIZE);
+        int target = Math.max(0, Math.min(requestedPage, pageCount - 1));
+        previousButton.setEnabled(false);
+        nextButton.setEnabled(false);
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            int first = target * PAGE_SIZE;
+            FixParsedMessages messages;
+            try {
+                List<String> entries = store.readEntries(first, first + PAGE_SIZE);
+                messages = FixParsedMessages.of(entries, first, store.countMessagesBefore(first));
+            } catch (IOException e) {
+                LOG.warn("Failed to read compressed FIX log " + file.getPath(), e);
+                messages = FixParsedMessages.of(List.of());
+            }
+            FixParsedMessages loaded = messages;
+            ApplicationManager.getApplication().invokeLater(() -> {
+                if (!disposed) {
+                    displayPage(target, pageCount, loaded);
+                }
+            });
+        });
+    }
+
+    private void displayPage(int target, int pageCount, FixParsedMessages messages) {
+        page = target;
+        if (tabbedPane == null) {
+            tablePanel = new FixTransposedTablePanel(messages, null, project);
+            treePanel = new FixMessageTreePanel(messages, project, tablePanel.getDictionaryEntry());
+            commPanel = new FixCommTimelinePanel(messages);
+            tabbedPane = new JBTabbedPane();
+            tabbedPane.addTab("Transposed Table", tablePanel);
+            tabbedPane.addTab("Tree View", treePanel);
+            tabbedPane.addTab("Message Flow", commPanel);
+            mainPanel.remove(((BorderLayout) mainPanel.getLayout()).getLayoutComponent(BorderLayout.CENTER));
+            mainPanel.add(tabbedPane, BorderLayout.CENTER);
+            mainPanel.revalidate();
+        } else {
+            tablePanel.updateTable(messages);
+            treePanel.setDictionaryEntry(tablePanel.getDictionaryEntry());
+            treePanel.updateTree(messages);
+            commPanel.updateMessages(messages);
+        }
+        int first = target * PAGE_SIZE;
+        int total = store.getEntryCount();
+        statusLabel.setText(total == 0
+                ? "No messages"
+                : String.format("Entries %,d-%,d of %,d (%,d messages)",
+                first + 1, Math.min(first + PAGE_SIZE, total), total, store.getMessageCount()));
+        previousButton.setEnabled(target > 0);
+        nextButton.setEnabled(target < pageCount - 1);
+    }
+
+    @Override
+    public @NotNull JComponent getComponent() {
+        return mainPanel;
+    }
+
+    @Override
+    public @Nullable JComponent getPreferredFocusedComponent() {
+        return tabbedPane != null ? (JComponent) tabbedPane.getSelectedComponent() : null;
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return "FIX Compressed Log";
+    }
+
+    @Override
+    public void setState(@NotNull FileEditorState state) {
+    }
+
+    @Override
+    public @NotNull FileEditorState getState(@NotNull FileEditorStateLevel level) {
+        return FileEditorState.INSTANCE;
+    }
+
+    @Override
+    public boolean isModified() {
+        return false;
+    }
+
+    @Override
+    public boolean isValid() {
+        return file.isValid();
+    }
+
+    @Override
+    public @Nullable FileEditorLocation getCurrentLocation() {
+        return null;
+    }
+
+    @Override
+    public void addPropertyChangeListener(@NotNull PropertyChangeListener listener) {
+    }
+
+    @Override
+    public void removePropertyChangeListener(@NotNull PropertyChangeListener listener) {
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+        ProgressIndicator indicator = indexingIndicator;
+        if (indicator != null) {
+            indicator.cancel();
+        }
+    }
+
+    @Override
+    public @NotNull VirtualFile getFile() {
+        return file;
+    }
+}
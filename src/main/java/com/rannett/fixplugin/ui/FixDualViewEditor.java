@@ -13,7 +13,6 @@ import com.intellij.openapi.fileEditor.FileEditorStateLevel;
 import com.intellij.openapi.fileEditor.TextEditor;
 import com.intellij.openapi.fileEditor.impl.text.TextEditorProvider;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.util.Computable;
 import com.intellij.openapi.util.UserDataHolderBase;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.ui.components.JBTabbedPane;
@@ -29,27 +28,32 @@ import javax.swing.DefaultComboBoxModel;
 import javax.swing.JButton;
 import javax.swing.JPanel;
 import javax.swing.JTabbedPane;
-import javax.swing.SwingUtilities;
 import java.awt.BorderLayout;
 import java.beans.PropertyChangeListener;
 import java.util.List;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.IntStream;
+import java.util.function.Function;
 
+import com.rannett.fixplugin.util.FixFieldCursor;
 import com.rannett.fixplugin.util.FixMessageParser;
+import com.rannett.fixplugin.util.FixParsedMessages;
+import com.rannett.fixplugin.util.FixOffsetIndex;
+import com.rannett.fixplugin.util.FixUtils;
 import com.rannett.fixplugin.dictionary.FixDictionaryChangeListener;
 import com.rannett.fixplugin.settings.FixViewerSettingsState;
 import com.rannett.fixplugin.settings.FixViewerSettingsState.DictionaryEntry;
 
 public class FixDualViewEditor extends UserDataHolderBase implements FileEditor {
+    private static final String DEFAULT_FIX_VERSION = "FIXT.1.1";
+    // Longest first line read to detect the FIX version before the document is parsed
+    private static final int FIRST_LINE_LIMIT = 4096;
+
     private final FileEditor textEditor;
     private final JPanel mainPanel;
     private final JTabbedPane tabbedPane;
-    private final FixTransposedTablePanel tablePanel;
-    private final FixMessageTreePanel treePanel;
-    private final FixCommTimelinePanel commPanel;
+    private final LazyTab<FixTransposedTablePanel> tableTab;
+    private final LazyTab<FixMessageTreePanel> treeTab;
+    private final LazyTab<FixCommTimelinePanel> commTab;
     private final Document document;
     private final VirtualFile file;
     private final MessageBusConnection messageBusConnection;
@@ -57,6 +61,10 @@ public class FixDualViewEditor extends UserDataHolderBase implements FileEditor
     private final ComboBox<DictionaryEntry> dictionarySelector;
     private DictionaryEntry selectedDictionaryEntry;
     private Integer pendingCaretOffset = null;
+    // Message and field ranges for caret lookups, and the edits made since it was last used
+    private FixOffsetIndex offsetIndex;
+    private FixParsedMessagesUpdater.PendingEdit pendingOffsetEdit;
+    private final FixParsedMessagesUpdater messagesUpdater;
 
     public FixDualViewEditor(@NotNull Project project, @NotNull VirtualFile file) {
         this.file = file;
@@ -82,42 +90,69 @@ public class FixDualViewEditor extends UserDataHolderBase implements FileEditor
 
         tabbedPane.addTab("Text View", textEditor.getComponent());
 
-        List<String> messages = FixMessageParser.splitMessages(document.getText());
-        tablePanel = new FixTransposedTablePanel(messages, (msgId, tag, occurrence, newValue) -> WriteCommandAction.runWriteCommandAction(project, () -> {
-            String[] lines = document.getText().split("\\R+");
-            int msgIndex = Integer.parseInt(msgId.replace("Message ", "")) - 1;
-            if (msgIndex < 0 || msgIndex >= lines.length) return;
-            String message = lines[msgIndex];
-            int tagIndex = -1;
-            int fromIndex = 0;
-            for (int occ = 1; occ <= occurrence; occ++) {
-                tagIndex = message.indexOf(tag + "=", fromIndex);
-                if (tagIndex < 0) break;
-                fromIndex = tagIndex + 1;
+        messagesUpdater = new FixParsedMessagesUpdater(document, this::updateViews, this);
+        FixTransposedTableModel.DocumentUpdater documentUpdater = (msgId, tag, occurrence, newValue) -> WriteCommandAction.runWriteCommandAction(project, () -> {
+            FixOffsetIndex.Field field = findField(tag, msgId, occurrence);
+            if (field != null) {
+                document.replaceString(field.valueStart(), field.end(), newValue);
             }
-            if (tagIndex < 0) return;
-            int valueStart = tagIndex + (tag + "=").length();
-            int valueEnd = valueStart;
-            while (valueEnd < message.length() && message.charAt(valueEnd) != '\u0001' && message.charAt(valueEnd) != '|')
-                valueEnd++;
-            int lineStartOffset = document.getLineStartOffset(msgIndex);
-            document.replaceString(lineStartOffset + valueStart, lineStartOffset + valueEnd, newValue);
-        }), project);
-        tabbedPane.addTab("Transposed Table", tablePanel);
-
-        selectedDictionaryEntry = tablePanel.getDictionaryEntry();
-        treePanel = new FixMessageTreePanel(messages, project, selectedDictionaryEntry);
-        tabbedPane.addTab("Tree View", treePanel);
-
-        commPanel = new FixCommTimelinePanel(messages);
-        commPanel.setOnMessageSelected(idx -> {
-            int offset = findMessageOffset(idx);
-            if (offset >= 0) {
-                pendingCaretOffset = offset;
-                tablePanel.highlightTagCell("8", "Message " + idx);
+        });
+
+        // The views are only built, and kept up to date, once their tab has been selected
+        tableTab = new LazyTab<>("Transposed Table", messages -> {
+            FixTransposedTablePanel panel = new FixTransposedTablePanel(messages, documentUpdater, project);
+            panel.setDictionaryEntry(selectedDictionaryEntry);
+            panel.setOnCellSelected(() -> {
+                String tag = panel.getSelectedTag();
+                String messageId = panel.getSelectedMessageId();
+                if (tag != null && messageId != null) {
+                    int offset = findTagOffsetInDocument(tag, messageId);
+                    if (offset >= 0) {
+                        pendingCaretOffset = offset;
+                    }
+                }
+            });
+            return panel;
+        }, (panel, messages, change) -> {
+            if (change == null) {
+                panel.updateTable(messages);
+            } else {
+                panel.applyChange(messages, change);
+            }
+        });
+
+        treeTab = new LazyTab<>("Tree View",
+                messages -> new FixMessageTreePanel(messages, project, selectedDictionaryEntry),
+                (panel, messages, change) -> {
+                    panel.setDictionaryEntry(selectedDictionaryEntry);
+                    if (change == null) {
+                        panel.updateTree(messages);
+                    } else {
+                        panel.applyChange(messages, change);
+                    }
+                });
+
+        commTab = new LazyTab<>("Message Flow", messages -> {
+            FixCommTimelinePanel panel = new FixCommTimelinePanel(messages);
+            panel.setOnMessageSelected(idx -> {
+                int offset = findMessageOffset(idx);
+                if (offset >= 0) {
+                    pendingCaretOffset = offset;
+                    int messageNumber = getOffsetIndex().getMessageNumber(idx - 1);
+                    FixTransposedTablePanel tablePanel = tableTab.getPanel();
+                    if (messageNumber > 0 && tablePanel != null) {
+                        tablePanel.highlightTagCell("8", "Message " + messageNumber);
+                    }
+                }
+            });
+            return panel;
+        }, (panel, messages, change) -> {
+            if (change == null) {
+                panel.updateMessages(messages);
+            } else {
+                panel.applyChange(messages, change);
             }
         });
-        tabbedPane.addTab("Message Flow", commPanel);
         mainPanel.add(tabbedPane, BorderLayout.CENTER);
 
         refreshDictionarySelector();
@@ -130,64 +165,38 @@ public class FixDualViewEditor extends UserDataHolderBase implements FileEditor
             }
         });
 
-        // Full rebuild and revalidation on document change
+        // Edits are parsed in the background once typing pauses; the views get the finished model
         document.addDocumentListener(new com.intellij.openapi.editor.event.DocumentListener() {
             @Override
             public void documentChanged(@NotNull com.intellij.openapi.editor.event.DocumentEvent event) {
-                SwingUtilities.invokeLater(() -> {
-                    List<String> updatedMessages = FixMessageParser.splitMessages(document.getText());
-                    tablePanel.updateTable(updatedMessages);
-                    selectedDictionaryEntry = tablePanel.getDictionaryEntry();
-                    treePanel.setDictionaryEntry(selectedDictionaryEntry);
-                    treePanel.updateTree(updatedMessages);
-                    commPanel.updateMessages(updatedMessages);
-                    refreshDictionarySelector();
-                });
+                messagesUpdater.documentChanged(event);
+                if (offsetIndex != null) {
+                    FixParsedMessagesUpdater.PendingEdit edit = new FixParsedMessagesUpdater.PendingEdit(
+                            event.getOffset(), event.getOldLength(), event.getNewLength());
+                    pendingOffsetEdit = pendingOffsetEdit == null ? edit : pendingOffsetEdit.then(edit);
+                }
             }
-        });
+
+            @Override
+            public void bulkUpdateFinished(@NotNull Document bulkDocument) {
+                messagesUpdater.requestFullRebuild();
+                offsetIndex = null;
+                pendingOffsetEdit = null;
+            }
+        }, this);
 
         ((TextEditor) textEditor).getEditor().getCaretModel().addCaretListener(new CaretListener() {
             @Override
             public void caretPositionChanged(@NotNull com.intellij.openapi.editor.event.CaretEvent e) {
                 Caret caret = e.getCaret();
-                if (caret != null) {
-                    String text = document.getText();
-                    int offset = caret.getOffset();
-                    Pattern pattern = Pattern.compile("(\\d+)=([^|\\u0001]*)");
-                    Matcher matcher = pattern.matcher(text);
-                    while (matcher.find()) {
-                        if (matcher.start() <= offset && matcher.end() >= offset) {
-                            String tag = matcher.group(1);
-                            String messageId = getMessageIdForOffset(text, matcher.start());
-                            tablePanel.highlightTagCell(tag, messageId);
-                            return;
-                        }
+                FixTransposedTablePanel tablePanel = tableTab.getPanel();
+                if (caret != null && tablePanel != null) {
+                    FixOffsetIndex.Field field = getOffsetIndex().findFieldAt(caret.getOffset());
+                    if (field != null) {
+                        tablePanel.highlightTagCell(Integer.toString(field.tag()), "Message " + field.messageNumber());
+                    } else {
+                        tablePanel.clearHighlight();
                     }
-                    tablePanel.clearHighlight();
-                }
-            }
-
-            private String getMessageIdForOffset(String text, int matchStart) {
-                List<String> lines = FixMessageParser.splitMessages(text);
-                int cumulative = 0;
-                for (int i = 0; i < lines.size(); i++) {
-                    int lineLength = lines.get(i).length() + 1;
-                    if (cumulative + lineLength > matchStart) {
-                        return "Message " + (i + 1);
-                    }
-                    cumulative += lineLength;
-                }
-                return null;
-            }
-        });
-
-        tablePanel.setOnCellSelected(() -> {
-            String tag = tablePanel.getSelectedTag();
-            String messageId = tablePanel.getSelectedMessageId();
-            if (tag != null && messageId != null) {
-                int offset = findTagOffsetInDocument(tag, messageId);
-                if (offset >= 0) {
-                    pendingCaretOffset = offset;
                 }
             }
         });
@@ -195,6 +204,9 @@ public class FixDualViewEditor extends UserDataHolderBase implements FileEditor
         tabbedPane.addChangeListener(e -> {
             int selectedIndex = tabbedPane.getSelectedIndex();
             String selectedTitle = tabbedPane.getTitleAt(selectedIndex);
+            tableTab.activateIfSelected();
+            treeTab.activateIfSelected();
+            commTab.activateIfSelected();
             if ("Text View".equals(selectedTitle) && pendingCaretOffset != null) {
                 int offset = pendingCaretOffset;
                 pendingCaretOffset = null;
@@ -210,20 +222,43 @@ public class FixDualViewEditor extends UserDataHolderBase implements FileEditor
         refreshDictionarySelector();
     }
 
+    /**
+     * Shows a model published by the {@link FixParsedMessagesUpdater}. A model derived from the
+     * previous one by an edit only refreshes the changed messages; otherwise the views are rebuilt.
+     */
+    private void updateViews(FixParsedMessages updatedMessages) {
+        refreshDictionarySelector();
+        tableTab.update(updatedMessages);
+        treeTab.update(updatedMessages);
+        commTab.update(updatedMessages);
+    }
+
     private void handleDictionaryChange() {
         ApplicationManager.getApplication().invokeLater(() -> {
-            List<String> updatedMessages = ApplicationManager.getApplication().runReadAction(
-                    (Computable<List<String>>) () -> FixMessageParser.splitMessages(document.getText())
-            );
             refreshDictionarySelector();
-            tablePanel.refreshDictionaryMetadata();
-            treePanel.setDictionaryEntry(selectedDictionaryEntry);
-            treePanel.updateTree(updatedMessages);
+            FixTransposedTablePanel tablePanel = tableTab.getPanel();
+            if (tablePanel != null) {
+                tablePanel.refreshDictionaryMetadata();
+            }
+            // Dictionaries cached by the parsed model may be stale, so parse the document again
+            messagesUpdater.requestFullRebuild();
         });
     }
 
+    /**
+     * @return FIX version of the parsed document or, before it has been parsed, of its first line
+     */
+    private String getFixVersion() {
+        if (messagesUpdater.isParsed()) {
+            return getParsedMessages().getFixVersionOrDefault();
+        }
+        CharSequence text = document.getImmutableCharSequence();
+        int end = document.getLineCount() > 0 ? Math.min(document.getLineEndOffset(0), FIRST_LINE_LIMIT) : 0;
+        return FixUtils.extractFixVersion(text.subSequence(0, end).toString()).orElse(DEFAULT_FIX_VERSION);
+    }
+
     private void refreshDictionarySelector() {
-        String fixVersion = tablePanel.getFixVersion();
+        String fixVersion = getFixVersion();
         FixViewerSettingsState settingsState = FixViewerSettingsState.getInstance(project);
         List<DictionaryEntry> entries = settingsState.getDictionariesForVersion(fixVersion);
         DictionaryEntry defaultEntry = settingsState.getDefaultDictionary(fixVersion);
@@ -239,8 +274,14 @@ public class FixDualViewEditor extends UserDataHolderBase implements FileEditor
         if (target != null) {
             dictionarySelector.setSelectedItem(target);
         }
-        tablePanel.setDictionaryEntry(selectedDictionaryEntry);
-        treePanel.setDictionaryEntry(selectedDictionaryEntry);
+        FixTransposedTablePanel tablePanel = tableTab.getPanel();
+        if (tablePanel != null) {
+            tablePanel.setDictionaryEntry(selectedDictionaryEntry);
+        }
+        FixMessageTreePanel treePanel = treeTab.getPanel();
+        if (treePanel != null) {
+            treePanel.setDictionaryEntry(selectedDictionaryEntry);
+        }
     }
 
     private DictionaryEntry findMatchingEntry(List<DictionaryEntry> entries, DictionaryEntry desired) {
@@ -259,45 +300,70 @@ public class FixDualViewEditor extends UserDataHolderBase implements FileEditor
             return;
         }
         selectedDictionaryEntry = entry;
-        tablePanel.setDictionaryEntry(entry);
-        treePanel.setDictionaryEntry(entry);
-        ApplicationManager.getApplication().invokeLater(() -> {
-            List<String> updatedMessages = ApplicationManager.getApplication().runReadAction(
-                    (Computable<List<String>>) () -> FixMessageParser.splitMessages(document.getText())
-            );
-            treePanel.updateTree(updatedMessages);
-        });
+        FixTransposedTablePanel tablePanel = tableTab.getPanel();
+        if (tablePanel != null) {
+            tablePanel.setDictionaryEntry(entry);
+        }
+        ApplicationManager.getApplication().invokeLater(treeTab::invalidate);
     }
 
     private void stripNonFixLogText() {
         WriteCommandAction.runWriteCommandAction(project, () -> {
-            String cleanedText = FixMessageParser.extractFixMessagesText(document.getText());
+            String cleanedText = FixMessageParser.extractFixMessagesText(document.getImmutableCharSequence());
             document.replaceString(0, document.getTextLength(), cleanedText);
         });
     }
 
     private int findTagOffsetInDocument(String tag, String messageId) {
-        List<String> lines = FixMessageParser.splitMessages(document.getText());
-        int msgIndex = Integer.parseInt(messageId.replace("Message ", "")) - 1;
-        if (msgIndex < 0 || msgIndex >= lines.size()) return -1;
-        String message = lines.get(msgIndex);
-        int tagIndex = message.indexOf(tag + "=");
-        if (tagIndex < 0) return -1;
-        int offset = 0;
-        for (int i = 0; i < msgIndex; i++) {
-            offset += lines.get(i).length() + 1;
+        FixOffsetIndex.Field field = findField(tag, messageId, 1);
+        return field != null ? field.start() : -1;
+    }
+
+    /**
+     * @param tag        tag number
+     * @param messageId  table column name of the message, e.g. {@code "Message 3"}
+     * @param occurrence one-based occurrence of the tag within the message
+     * @return the field or {@code null} if the message does not contain it
+     */
+    private FixOffsetIndex.Field findField(String tag, String messageId, int occurrence) {
+        int tagNumber = FixFieldCursor.parseTag(tag, 0, tag.length());
+        if (tagNumber < 0) {
+            return null;
         }
-        return offset + tagIndex;
+        int messageNumber = Integer.parseInt(messageId.replace("Message ", ""));
+        return getOffsetIndex().findField(messageNumber, tagNumber, occurrence);
     }
 
-    private int findMessageOffset(int messageIndex) {
-        List<String> lines = FixMessageParser.splitMessages(document.getText());
-        if (messageIndex < 1 || messageIndex > lines.size()) {
+    private int findMessageOffset(int entryNumber) {
+        FixOffsetIndex index = getOffsetIndex();
+        if (entryNumber < 1 || entryNumber > index.getEntryCount()) {
             return -1;
         }
-        return IntStream.range(0, messageIndex - 1)
-                .map(i -> lines.get(i).length() + 1)
-                .sum();
+        return index.getStart(entryNumber - 1);
+    }
+
+    /**
+     * Returns the parsed form of the document shown by the table, tree and timeline views. While
+     * a rebuild is pending it does not yet include the latest edits.
+     */
+    private FixParsedMessages getParsedMessages() {
+        return messagesUpdater.getMessages();
+    }
+
+    /**
+     * Returns the offset index of the current text, applying the edits made since it was last
+     * used. Caret moves in an unchanged document only search it.
+     */
+    private FixOffsetIndex getOffsetIndex() {
+        CharSequence text = document.getImmutableCharSequence();
+        if (offsetIndex == null) {
+            offsetIndex = FixOffsetIndex.build(text);
+        } else if (pendingOffsetEdit != null) {
+            offsetIndex = offsetIndex.applyEdit(text, pendingOffsetEdit.offset(),
+                    pendingOffsetEdit.oldLength(), pendingOffsetEdit.newLength());
+        }
+        pendingOffsetEdit = null;
+        return offsetIndex;
     }
 
     @Override
@@ -312,12 +378,12 @@ public class FixDualViewEditor extends UserDataHolderBase implements FileEditor
             return textEditor.getPreferredFocusedComponent();
         }
         if (index == 1) {
-            return tablePanel;
+            return tableTab.getComponent();
         }
         if (index == 2) {
-            return treePanel;
+            return treeTab.getComponent();
         }
-        return commPanel;
+        return commTab.getComponent();
     }
 
     @Override
@@ -370,4 +436,79 @@ public class FixDualViewEditor extends UserDataHolderBase implements FileEditor
     public @NotNull VirtualFile getFile() {
         return file;
     }
+
+    /**
+     * Updates a view for a newly published model.
+     */
+    @FunctionalInterface
+    private interface ViewUpdater<T> {
+        /**
+         * @param change how the model differs from the one the view shows, or {@code null} to
+         *               rebuild the view
+         */
+        void update(T panel, FixParsedMessages messages, @Nullable FixParsedMessages.Change change);
+    }
+
+    /**
+     * A tab whose view is created the first time the tab is selected. While the tab is hidden,
+     * newly published models are not applied; the changes are combined and applied when the tab
+     * is selected again.
+     */
+    private final class LazyTab<T extends JComponent> {
+        private final JPanel container = new JPanel(new BorderLayout());
+        private final Function<FixParsedMessages, T> factory;
+        private final ViewUpdater<T> updater;
+        private T panel;
+        private final FixPendingViewUpdate pending = new FixPendingViewUpdate();
+
+        LazyTab(String title, Function<FixParsedMessages, T> factory, ViewUpdater<T> updater) {
+            this.factory = factory;
+            this.updater = updater;
+            tabbedPane.addTab(title, container);
+        }
+
+        JComponent getComponent() {
+            return panel != null ? panel : container;
+        }
+
+        /**
+         * @return the view, or {@code null} if the tab has never been selected
+         */
+        @Nullable T getPanel() {
+            return panel;
+        }
+
+        void activateIfSelected() {
+            if (tabbedPane.getSelectedComponent() != container) {
+                return;
+            }
+            if (panel == null) {
+                panel = factory.apply(getParsedMessages());
+                container.add(panel, BorderLayout.CENTER);
+                container.revalidate();
+            } else if (pending.getMessages() != null) {
+                updater.update(panel, pending.getMessages(), pending.getChange());
+            }
+            pending.clear();
+        }
+
+        void update(FixParsedMessages messages) {
+            if (panel == null) {
+                return;
+            }
+            pending.add(messages);
+            activateIfSelected();
+        }
+
+        /**
+         * Rebuilds the view from the current model when it is next shown.
+         */
+        void invalidate() {
+            if (panel == null) {
+                return;
+            }
+            pending.invalidate(getParsedMessages());
+            activateIfSelected();
+        }
+    }
 }
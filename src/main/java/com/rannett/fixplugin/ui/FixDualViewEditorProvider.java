@@ -6,16 +6,20 @@ import com.intellij.openapi.fileEditor.FileEditorProvider;
 import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.rannett.fixplugin.index.FixCompressedLogCache;
 import org.jetbrains.annotations.NotNull;
 
 public class FixDualViewEditorProvider implements FileEditorProvider, DumbAware {
     @Override
     public boolean accept(@NotNull Project project, @NotNull VirtualFile file) {
-        return "fix".equalsIgnoreCase(file.getExtension());
+        return "fix".equalsIgnoreCase(file.getExtension()) || FixCompressedLogCache.isCompressedLog(file.getName());
     }
 
     @Override
     public @NotNull FileEditor createEditor(@NotNull Project project, @NotNull VirtualFile file) {
+        if (FixCompressedLogCache.isCompressedLog(file.getName())) {
+            return new FixCompressedLogEditor(project, file);
+        }
         return new FixDualViewEditor(project, file);
     }
 
@@ -4,10 +4,11 @@ import com.intellij.openapi.project.Project;
 import com.intellij.ui.components.JBList;
 import com.intellij.ui.components.JBScrollPane;
 import com.intellij.ui.components.JBTextField;
-import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.Alarm;
 import com.rannett.fixplugin.dictionary.FieldSection;
 import com.rannett.fixplugin.dictionary.FixDictionaryCache;
 import com.rannett.fixplugin.dictionary.FixDictionaryChangeListener;
+import com.rannett.fixplugin.dictionary.FixFieldSearchIndex;
 import com.rannett.fixplugin.dictionary.FixTagDictionary;
 
 import javax.swing.DefaultListModel;
@@ -18,18 +19,26 @@ import javax.swing.SwingUtilities;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import java.awt.BorderLayout;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Panel providing search and display of FIX field information.
+ * <p>
+ * Searches use the dictionary's {@link FixFieldSearchIndex} on a pooled thread, a short delay
+ * after the last keystroke, so typing never waits for a search.
  */
 public class FixFieldLookupPanel extends JPanel {
 
+    private static final int SEARCH_DELAY_MS = 150;
+
     private final JBTextField searchField = new JBTextField();
     private final JBList<String> resultList = new JBList<>(new DefaultListModel<>());
     private final JTextArea detailsArea = new JTextArea();
     private final FixDictionaryCache dictionaryCache;
-    private FixTagDictionary dictionary;
+    private final Alarm searchAlarm;
+    private volatile FixTagDictionary dictionary;
 
     /**
      * Creates a panel for looking up FIX fields.
@@ -40,6 +49,7 @@ public class FixFieldLookupPanel extends JPanel {
         super(new BorderLayout());
         this.dictionaryCache = project.getService(FixDictionaryCache.class);
         this.dictionary = dictionaryCache.getDictionary("FIX.4.4");
+        this.searchAlarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, project);
         project.getMessageBus().connect(project).subscribe(FixDictionaryChangeListener.TOPIC, this::reloadDictionary);
         resultList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         detailsArea.setEditable(false);
@@ -70,7 +80,6 @@ public class FixFieldLookupPanel extends JPanel {
     }
 
     private void reloadDictionary() {
-        dictionaryCache.clear();
         dictionary = dictionaryCache.getDictionary("FIX.4.4");
         SwingUtilities.invokeLater(() -> {
             updateResults();
@@ -80,25 +89,29 @@ public class FixFieldLookupPanel extends JPanel {
 
     private void updateResults() {
         String term = searchField.getText().trim();
-        DefaultListModel<String> model = (DefaultListModel<String>) resultList.getModel();
-        model.clear();
+        searchAlarm.cancelAllRequests();
         if (term.isEmpty()) {
+            showResults(term, List.of());
             return;
         }
-        dictionary.getTagNameMap().entrySet().stream()
-                .filter(entry -> matches(entry.getKey(), entry.getValue(), term))
-                .sorted(Map.Entry.comparingByKey())
-                .forEach(entry -> model.addElement(entry.getKey() + " (" + entry.getValue() + ")"));
+        FixTagDictionary current = dictionary;
+        searchAlarm.addRequest(() -> {
+            List<String> results = new ArrayList<>();
+            for (FixFieldSearchIndex.Match match : current.getSearchIndex().search(term)) {
+                results.add(match.tag() + " (" + match.name() + ")");
+            }
+            SwingUtilities.invokeLater(() -> showResults(term, results));
+        }, SEARCH_DELAY_MS);
     }
 
-    private boolean matches(String tag, String name, String term) {
-        if (StringUtil.containsIgnoreCase(tag, term) || StringUtil.containsIgnoreCase(name, term)) {
-            return true;
+    private void showResults(String term, List<String> results) {
+        // Drop results of a search that was superseded while it ran
+        if (!term.equals(searchField.getText().trim())) {
+            return;
         }
-        Map<String, String> values = dictionary.getValueMap(tag);
-        return values != null && values.entrySet().stream()
-                .anyMatch(e -> StringUtil.containsIgnoreCase(e.getKey(), term)
-                        || StringUtil.containsIgnoreCase(e.getValue(), term));
+        DefaultListModel<String> model = (DefaultListModel<String>) resultList.getModel();
+        model.clear();
+        model.addAll(results);
     }
 
     private void showDetails() {
@@ -0,0 +1,77 @@
+package com.rannett.fixplugin.ui;
+
+import quickfix.DataDictionary;
+import quickfix.Field;
+import quickfix.FieldMap;
+import quickfix.Group;
+import quickfix.Message;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Builds the Header/Body/Trailer node structure shared by the tree and timeline views.
+ */
+final class FixMessageNodes {
+
+    private FixMessageNodes() {
+    }
+
+    /**
+     * Add Header, Body and Trailer nodes for a parsed message to the given node.
+     *
+     * @param messageNode node representing the message
+     * @param message     parsed message
+     * @param dd          dictionary used for field and enum names
+     */
+    static void addSections(DefaultMutableTreeNode messageNode, Message message, DataDictionary dd) {
+        DefaultMutableTreeNode headerNode = new DefaultMutableTreeNode("Header");
+        addFields(message.getHeader(), headerNode, dd);
+        messageNode.add(headerNode);
+
+        DefaultMutableTreeNode bodyNode = new DefaultMutableTreeNode("Body");
+        addFields(message, bodyNode, dd);
+        messageNode.add(bodyNode);
+
+        DefaultMutableTreeNode trailerNode = new DefaultMutableTreeNode("Trailer");
+        addFields(message.getTrailer(), trailerNode, dd);
+        messageNode.add(trailerNode);
+    }
+
+    private static void addFields(FieldMap map, DefaultMutableTreeNode parent, DataDictionary dd) {
+        Iterator<Field<?>> fieldIt = map.iterator();
+        while (fieldIt.hasNext()) {
+            Field<?> field = fieldIt.next();
+            int tag = field.getTag();
+            String name = dd.getFieldName(tag);
+            String value = String.valueOf(field.getObject());
+            String enumName = dd.getValueName(tag, value);
+
+            StringBuilder label = new StringBuilder();
+            label.append(tag).append("=").append(value);
+            if (name != null) {
+                label.append(" (").append(name);
+                if (enumName != null) {
+                    label.append("=").append(enumName);
+                }
+                label.append(")");
+            }
+            parent.add(new DefaultMutableTreeNode(label.toString()));
+        }
+
+        Iterator<Integer> groupKeys = map.groupKeyIterator();
+        while (groupKeys.hasNext()) {
+            int groupTag = groupKeys.next();
+            List<Group> groups = map.getGroups(groupTag);
+            String groupName = dd.getFieldName(groupTag);
+            int idx = 1;
+            for (Group g : groups) {
+                DefaultMutableTreeNode groupNode = new DefaultMutableTreeNode(
+                        (groupName != null ? groupName : groupTag) + " [" + idx++ + "]");
+                addFields(g, groupNode, dd);
+                parent.add(groupNode);
+            }
+        }
+    }
+}
@@ -4,20 +4,17 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.ui.treeStructure.Tree;
 import com.rannett.fixplugin.util.FixMessageParser;
-import com.rannett.fixplugin.util.FixUtils;
+import com.rannett.fixplugin.util.FixParsedMessages;
 import com.rannett.fixplugin.settings.FixViewerSettingsState.DictionaryEntry;
 import quickfix.DataDictionary;
-import quickfix.Field;
-import quickfix.FieldMap;
-import quickfix.Group;
 import quickfix.Message;
 
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTree;
 import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
 import java.awt.BorderLayout;
-import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -28,107 +25,105 @@ public class FixMessageTreePanel extends JPanel {
 
     private static final Logger LOG = Logger.getInstance(FixMessageTreePanel.class);
     private final Project project;
+    private final DefaultMutableTreeNode root = new DefaultMutableTreeNode("Messages");
+    private final DefaultTreeModel treeModel = new DefaultTreeModel(root);
     private DictionaryEntry dictionaryEntry;
+    private String fixVersion;
 
     public FixMessageTreePanel(List<String> fixMessages, Project project, DictionaryEntry dictionaryEntry) {
+        this(FixParsedMessages.of(fixMessages), project, dictionaryEntry);
+    }
+
+    public FixMessageTreePanel(FixParsedMessages messages, Project project, DictionaryEntry dictionaryEntry) {
         super(new BorderLayout());
         this.project = project;
         this.dictionaryEntry = dictionaryEntry;
-        buildTree(fixMessages);
+        JTree tree = new Tree(treeModel);
+        tree.setRootVisible(false);
+        add(new JScrollPane(tree), BorderLayout.CENTER);
+        buildTree(messages);
     }
 
     public void updateTree(List<String> fixMessages) {
-        buildTree(fixMessages);
+        buildTree(FixParsedMessages.of(fixMessages));
     }
 
-    public void setDictionaryEntry(DictionaryEntry dictionaryEntry) {
-        this.dictionaryEntry = dictionaryEntry;
+    /**
+     * Rebuild the tree from an already parsed document.
+     *
+     * @param messages parsed document shared with the other views
+     */
+    public void updateTree(FixParsedMessages messages) {
+        buildTree(messages);
     }
 
-    private void buildTree(List<String> fixMessages) {
-        DefaultMutableTreeNode root = new DefaultMutableTreeNode("Messages");
-
-        String fixVersion = detectFixVersion(fixMessages.isEmpty() ? "" : fixMessages.get(0));
-        if (fixVersion == null) fixVersion = "FIXT.1.1";
-
-        DataDictionary dd = FixMessageParser.loadDataDictionary(fixVersion, dictionaryEntry);
-
-        for (String message : fixMessages) {
-            message = message.strip();
-            if (message.isEmpty() || message.startsWith("#")) continue;
-            DefaultMutableTreeNode msgNode;
-            try {
-                Message qfMsg = FixMessageParser.parse(message, dd);
-                String label = FixMessageParser.buildMessageLabel(qfMsg, dd);
-                msgNode = new DefaultMutableTreeNode(label);
-
-                DefaultMutableTreeNode headerNode = new DefaultMutableTreeNode("Header");
-                buildNodes(qfMsg.getHeader(), headerNode, dd);
-                msgNode.add(headerNode);
-
-                DefaultMutableTreeNode bodyNode = new DefaultMutableTreeNode("Body");
-                buildNodes(qfMsg, bodyNode, dd);
-                msgNode.add(bodyNode);
-
-                DefaultMutableTreeNode trailerNode = new DefaultMutableTreeNode("Trailer");
-                buildNodes(qfMsg.getTrailer(), trailerNode, dd);
-                msgNode.add(trailerNode);
-
-            } catch (Exception e) {
-                msgNode = new DefaultMutableTreeNode("Parse error");
-                LOG.warn("Failed to parse FIX message: " + message, e);
-                msgNode.add(new DefaultMutableTreeNode("Parse error: " + e.getMessage()));
+    /**
+     * Update the tree for an edit of the document. Only the nodes of the messages replaced by
+     * the edit are rebuilt; all other nodes, including their expansion state, are kept.
+     *
+     * @param messages parsed document after the edit
+     * @param change   the messages replaced by the edit
+     */
+    public void applyChange(FixParsedMessages messages, FixParsedMessages.Change change) {
+        int first = change.getFirstMessage();
+        int removed = change.getRemovedMessages();
+        if (!messages.getFixVersionOrDefault().equals(fixVersion) || first + removed > root.getChildCount()) {
+            buildTree(messages);
+            return;
+        }
+        if (removed > 0) {
+            int[] indices = new int[removed];
+            Object[] nodes = new Object[removed];
+            for (int i = removed - 1; i >= 0; i--) {
+                indices[i] = first + i;
+                nodes[i] = root.getChildAt(first + i);
+                root.remove(first + i);
             }
-            root.add(msgNode);
+            treeModel.nodesWereRemoved(root, indices, nodes);
         }
 
-        JTree tree = new Tree(root);
-        tree.setRootVisible(false);
+        int inserted = change.getInsertedMessages();
+        if (inserted > 0) {
+            DataDictionary dd = messages.getDataDictionary(messages.getFixVersionOrDefault(), dictionaryEntry);
+            int[] indices = new int[inserted];
+            for (int i = 0; i < inserted; i++) {
+                root.insert(createNode(messages.getMessages().get(first + i), dd), first + i);
+                indices[i] = first + i;
+            }
+            treeModel.nodesWereInserted(root, indices);
+        }
+    }
 
-        removeAll();
-        add(new JScrollPane(tree), BorderLayout.CENTER);
-        revalidate();
+    public void setDictionaryEntry(DictionaryEntry dictionaryEntry) {
+        this.dictionaryEntry = dictionaryEntry;
     }
 
-    private void buildNodes(FieldMap map, DefaultMutableTreeNode parent, DataDictionary dd) {
-        Iterator<Field<?>> fieldIt = map.iterator();
-        while (fieldIt.hasNext()) {
-            Field<?> field = fieldIt.next();
-            int tag = field.getTag();
-            String name = dd.getFieldName(tag);
-            String value = String.valueOf(field.getObject());
-            String enumName = dd.getValueName(tag, value);
-
-            StringBuilder label = new StringBuilder();
-            label.append(tag).append("=").append(value);
-            if (name != null) {
-                label.append(" (").append(name);
-                if (enumName != null) {
-                    label.append("=").append(enumName);
-                }
-                label.append(")");
-            }
-            parent.add(new DefaultMutableTreeNode(label.toString()));
-        }
+    private void buildTree(FixParsedMessages messages) {
+        root.removeAllChildren();
+        fixVersion = messages.getFixVersionOrDefault();
 
-        Iterator<Integer> groupKeys = map.groupKeyIterator();
-        while (groupKeys.hasNext()) {
-            int groupTag = groupKeys.next();
-            List<Group> groups = map.getGroups(groupTag);
-            String groupName = dd.getFieldName(groupTag);
-            int idx = 1;
-            for (Group g : groups) {
-                DefaultMutableTreeNode groupNode = new DefaultMutableTreeNode(
-                        (groupName != null ? groupName : groupTag) + " [" + idx++ + "]");
-                buildNodes(g, groupNode, dd);
-                parent.add(groupNode);
-            }
+        DataDictionary dd = messages.getDataDictionary(messages.getFixVersionOrDefault(), dictionaryEntry);
+
+        for (FixParsedMessages.Entry message : messages.getMessages()) {
+            root.add(createNode(message, dd));
         }
+
+        treeModel.reload();
     }
 
-    private String detectFixVersion(String message) {
-        return FixUtils.extractFixVersion(message).orElse(null);
+    private DefaultMutableTreeNode createNode(FixParsedMessages.Entry message, DataDictionary dd) {
+        DefaultMutableTreeNode msgNode;
+        try {
+            Message qfMsg = message.getQuickFixMessage(dd);
+            String label = FixMessageParser.buildMessageLabel(qfMsg, dd);
+            msgNode = new DefaultMutableTreeNode(label);
+            FixMessageNodes.addSections(msgNode, qfMsg, dd);
+        } catch (Exception e) {
+            msgNode = new DefaultMutableTreeNode("Parse error");
+            LOG.warn("Failed to parse FIX message: " + message.getText(), e);
+            msgNode.add(new DefaultMutableTreeNode("Parse error: " + e.getMessage()));
+        }
+        return msgNode;
     }
 
 }
-
@@ -0,0 +1,179 @@
+package com.rannett.fixplugin.ui;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.util.Alarm;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.rannett.fixplugin.util.FixParsedMessages;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Consumer;
+
+/**
+ * Keeps the {@link FixParsedMessages} of a document up to date without parsing on the EDT.
+ * <p>
+ * Document events only record the edited range, merged with earlier edits into one range of the
+ * current text. Once the document has been quiet for {@link #REBUILD_DELAY_MS}, the published
+ * model is updated for that range, or parsed again in full, in a cancellable non-blocking read
+ * action on a pooled thread. A newer edit cancels a build that is still running and schedules a
+ * new one; only a finished model that reflects every edit so far is handed to the publisher on
+ * the EDT, so views never see an intermediate state.
+ * <p>
+ * Nothing is parsed until the model is first requested with {@link #getMessages()}; until then
+ * edits are ignored.
+ */
+final class FixParsedMessagesUpdater implements Disposable {
+
+    static final int REBUILD_DELAY_MS = 100;
+
+    private final Document document;
+    private final Consumer<FixParsedMessages> publisher;
+    private final Alarm alarm;
+
+    // Written on the EDT; read by builds inside read actions, which cannot overlap document edits
+    private volatile FixParsedMessages published;
+    private volatile PendingEdit pendingEdit;
+    private volatile boolean fullRebuildRequested;
+    private volatile long generation;
+
+    /**
+     * @param document  document to follow
+     * @param publisher receives each new model on the EDT; {@link FixParsedMessages#getChange()}
+     *                  is {@code null} if it was parsed in full
+     * @param parent    disposable that stops the updater
+     */
+    FixParsedMessagesUpdater(@NotNull Document document, @NotNull Consumer<FixParsedMessages> publisher,
+                             @NotNull Disposable parent) {
+        this.document = document;
+        this.publisher = publisher;
+        this.alarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, this);
+        Disposer.register(parent, this);
+    }
+
+    /**
+     * Returns the most recently published model, which may lag behind the document by the edits
+     * of a pending rebuild. The first call parses the document on the calling thread.
+     *
+     * @return the parsed document
+     */
+    @NotNull FixParsedMessages getMessages() {
+        FixParsedMessages messages = published;
+        if (messages == null) {
+            messages = ApplicationManager.getApplication().runReadAction(
+                    (Computable<FixParsedMessages>) () -> FixParsedMessages.parse(document.getImmutableCharSequence())
+            );
+            published = messages;
+            pendingEdit = null;
+            fullRebuildRequested = false;
+            // Discard a build that may already be running for the edits just parsed
+            generation++;
+        }
+        return messages;
+    }
+
+    /**
+     * @return whether {@link #getMessages()} has parsed the document yet
+     */
+    boolean isParsed() {
+        return published != null;
+    }
+
+    /**
+     * Records a document change and schedules a rebuild.
+     */
+    void documentChanged(@NotNull DocumentEvent event) {
+        if (published == null) {
+            return;
+        }
+        PendingEdit edit = new PendingEdit(event.getOffset(), event.getOldLength(), event.getNewLength());
+        PendingEdit previous = pendingEdit;
+        pendingEdit = previous == null ? edit : previous.then(edit);
+        generation++;
+        scheduleRebuild();
+    }
+
+    /**
+     * Schedules a rebuild that parses the whole document again, e.g. after a bulk update or a
+     * dictionary change.
+     */
+    void requestFullRebuild() {
+        if (published == null) {
+            return;
+        }
+        fullRebuildRequested = true;
+        generation++;
+        scheduleRebuild();
+    }
+
+    private void scheduleRebuild() {
+        alarm.cancelAllRequests();
+        alarm.addRequest(this::submitRebuild, REBUILD_DELAY_MS);
+    }
+
+    private void submitRebuild() {
+        ReadAction.nonBlocking(this::build)
+                .coalesceBy(this)
+                .expireWith(this)
+                .finishOnUiThread(ModalityState.defaultModalityState(), this::publish)
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+
+    private @Nullable Build build() {
+        long buildGeneration = generation;
+        PendingEdit edit = pendingEdit;
+        CharSequence text = document.getImmutableCharSequence();
+        FixParsedMessages model;
+        if (published == null) {
+            return null;
+        } else if (fullRebuildRequested) {
+            model = FixParsedMessages.parse(text);
+        } else if (edit != null) {
+            model = published.applyEdit(text, edit.offset(), edit.oldLength(), edit.newLength());
+        } else {
+            return null;
+        }
+        return new Build(model, buildGeneration);
+    }
+
+    private void publish(@Nullable Build build) {
+        if (build == null || build.generation() != generation) {
+            // Superseded by a later request, which has scheduled its own rebuild
+            return;
+        }
+        published = build.model();
+        pendingEdit = null;
+        fullRebuildRequested = false;
+        publisher.accept(build.model());
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    private record Build(FixParsedMessages model, long generation) {
+    }
+
+    /**
+     * The text range that replaced {@code oldLength} characters of the published model's text at
+     * {@code offset} by {@code newLength} characters of the current text.
+     */
+    record PendingEdit(int offset, int oldLength, int newLength) {
+
+        /**
+         * @param next an edit of the text produced by this one
+         * @return a single edit from the published text to the text after {@code next}
+         */
+        PendingEdit then(PendingEdit next) {
+            int start = Math.min(offset, next.offset);
+            int end = Math.max(offset + newLength, next.offset + next.oldLength);
+            return new PendingEdit(start, end - start - newLength + oldLength, end - start - next.oldLength + next.newLength);
+        }
+    }
+}
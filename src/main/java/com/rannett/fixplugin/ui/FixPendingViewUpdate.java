@@ -0,0 +1,55 @@
+package com.rannett.fixplugin.ui;
+
+import com.rannett.fixplugin.util.FixParsedMessages;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The models published while a view was hidden, combined into the one update the view needs
+ * when it is shown again: the latest model and how it differs from the model the view shows.
+ * Once any of the models was a full parse, or the view was invalidated, the view has to be
+ * rebuilt, and later edits do not change that.
+ */
+final class FixPendingViewUpdate {
+
+    private FixParsedMessages messages;
+    // Null with pending messages means the view must be rebuilt
+    private FixParsedMessages.Change change;
+
+    /**
+     * Adds a newly published model.
+     */
+    void add(FixParsedMessages published) {
+        FixParsedMessages.Change next = published.getChange();
+        boolean rebuild = next == null || (messages != null && change == null);
+        change = rebuild ? null : change == null ? next : change.then(next);
+        messages = published;
+    }
+
+    /**
+     * Requires the view to be rebuilt from the given model.
+     */
+    void invalidate(FixParsedMessages current) {
+        messages = current;
+        change = null;
+    }
+
+    /**
+     * @return the model the view has not shown yet, or {@code null} if it is up to date
+     */
+    @Nullable FixParsedMessages getMessages() {
+        return messages;
+    }
+
+    /**
+     * @return how {@link #getMessages()} differs from the shown model, or {@code null} if the
+     * view must be rebuilt
+     */
+    @Nullable FixParsedMessages.Change getChange() {
+        return change;
+    }
+
+    void clear() {
+        messages = null;
+        change = null;
+    }
+}
@@ -4,45 +4,70 @@ import com.intellij.openapi.project.Project;
 import com.rannett.fixplugin.dictionary.FixDictionaryCache;
 import com.rannett.fixplugin.dictionary.FixTagDictionary;
 import com.rannett.fixplugin.settings.FixViewerSettingsState.DictionaryEntry;
+import com.rannett.fixplugin.util.FixFieldCursor;
+import com.rannett.fixplugin.util.FixParsedMessages;
 
 import javax.swing.SwingUtilities;
+import javax.swing.event.TableModelEvent;
 import javax.swing.table.AbstractTableModel;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
-import quickfix.field.EncodedSecurityDesc;
-import quickfix.field.EncodedSecurityDescLen;
-import quickfix.field.XmlData;
-import quickfix.field.XmlDataLen;
 
+/**
+ * Table model with a row per tag occurrence and a column per message, after the Tag and Name
+ * columns.
+ * <p>
+ * Only one page of {@link #PAGE_SIZE} messages is exposed as columns at a time, so the table
+ * never creates more columns than that however long the log is. The rows are those of the tag
+ * occurrences on the current page, in order of first appearance, so showing a page only parses
+ * the messages on it.
+ */
 public class FixTransposedTableModel extends AbstractTableModel {
-    private List<String> columnHeaders;
+    static final int PAGE_SIZE = 1000;
+
     private List<String> tagOrder;
-    private Map<String, Map<String, String>> transposed;
+    // Tag number of each row, or -1 if the tag is not numeric
+    private int[] rowTagNumbers;
+    // Cell values are read from the shared message store on demand: for each message on the
+    // current page only the row of every field is kept, indexed by position on the page and
+    // then by field position
+    private List<FixParsedMessages.Entry> columnMessages;
+    private int[][] fieldRows;
+    private int page;
+    private Map<Long, String> editedValues;
+    private Map<String, Integer> rowIndexById;
+    private Map<String, List<String>> rowIdsByTag;
     private String fixVersion;
     private DictionaryEntry dictionaryEntry;
     private final DocumentUpdater documentUpdater;
     private final Project project;
 
-    private record TagValue(String tag, String value) {
+    public FixTransposedTableModel(List<String> fixMessages, DocumentUpdater updater, Project project) {
+        this(FixParsedMessages.of(fixMessages), updater, project);
     }
 
-    public FixTransposedTableModel(List<String> fixMessages, DocumentUpdater updater, Project project) {
+    public FixTransposedTableModel(FixParsedMessages messages, DocumentUpdater updater, Project project) {
         this.documentUpdater = updater;
         this.project = project;
-        buildModel(fixMessages);
+        buildModel(messages);
     }
 
     public void updateMessages(List<String> fixMessages) {
+        updateMessages(FixParsedMessages.of(fixMessages));
+    }
+
+    /**
+     * Rebuild the model from an already parsed document.
+     *
+     * @param messages parsed document shared with the other views
+     */
+    public void updateMessages(FixParsedMessages messages) {
         int oldRowCount = getRowCount();
         int oldColCount = getColumnCount();
-        buildModel(fixMessages);
+        buildModel(messages);
         SwingUtilities.invokeLater(() -> {
             if (getRowCount() != oldRowCount || getColumnCount() != oldColCount) {
                 fireTableStructureChanged();
@@ -52,164 +77,238 @@ public class FixTransposedTableModel extends AbstractTableModel {
         });
     }
 
-    private void buildModel(List<String> fixMessages) {
-        columnHeaders = new ArrayList<>();
-        transposed = new LinkedHashMap<>();
-        String version = detectFixVersion(fixMessages.isEmpty() ? "" : fixMessages.get(0));
-        fixVersion = version != null ? version : "FIXT.1.1";
-
-        List<List<TagValue>> parsed = new ArrayList<>();
-        // Maintain the order of tag occurrences as they first appear across all messages
-        tagOrder = new ArrayList<>();
-        Set<String> seenRows = new LinkedHashSet<>();
-
-        int i = 1;
-        for (String message : fixMessages) {
-            // Preserve any \u0001 delimiters by avoiding trim().
-            // Only strip Unicode whitespace from the ends.
-            message = message.strip();
-            if (message.isEmpty() || message.startsWith("#")) {
-                continue;
+    /**
+     * Update the model for an edit of the document, touching only the columns of the messages
+     * that changed. Value edits that keep every tag in place are applied as per-column updates,
+     * and changes to the trailing messages, such as appending to a log, only rebuild the columns
+     * from the first changed message onwards. Any other change rebuilds the model.
+     *
+     * @param messages parsed document after the edit
+     * @param change   the messages replaced by the edit
+     * @return {@code true} if the columns changed, {@code false} if only cell values changed
+     */
+    public boolean applyChange(FixParsedMessages messages, FixParsedMessages.Change change) {
+        int first = change.getFirstMessage();
+        int inserted = change.getInsertedMessages();
+        List<FixParsedMessages.Entry> updated = messages.getMessages();
+        boolean sameVersion = fixVersion.equals(messages.getFixVersionOrDefault());
+        int start = getPageStart();
+
+        if (sameVersion && change.getRemovedMessages() == inserted && inserted > 0) {
+            // Only the messages on the page have rows that the edit could invalidate
+            boolean sameRows = true;
+            for (int message = Math.max(first, start); message < first + inserted && isOnPage(message); message++) {
+                int[] rows = rowsFor(updated.get(message), false);
+                if (rows == null || !Arrays.equals(rows, fieldRows[message - start])) {
+                    sameRows = false;
+                    break;
+                }
             }
-            String msgId = "Message " + i++;
-            columnHeaders.add(msgId);
-
-            List<TagValue> pairs = parseFixMessage(message);
-            parsed.add(pairs);
-
-            Map<String, Integer> counts = new LinkedHashMap<>();
-            for (TagValue tv : pairs) {
-                int occ = counts.merge(tv.tag, 1, Integer::sum);
-                String rowId = tv.tag + "#" + occ;
-                if (seenRows.add(rowId)) {
-                    tagOrder.add(rowId);
-                    transposed.put(rowId, new LinkedHashMap<>());
+            if (sameRows) {
+                columnMessages = updated;
+                for (int message = first; message < first + inserted; message++) {
+                    clearEditedValues(message);
+                    if (isOnPage(message)) {
+                        fireTableChanged(new TableModelEvent(this, 0, Math.max(0, getRowCount() - 1), toColumn(message)));
+                    }
                 }
+                return false;
             }
         }
 
-        for (int idx = 0; idx < parsed.size(); idx++) {
-            String msgId = columnHeaders.get(idx);
-            Map<String, Integer> counts = new LinkedHashMap<>();
-            for (TagValue tv : parsed.get(idx)) {
-                counts.merge(tv.tag, 1, Integer::sum);
-                String rowId = tv.tag + "#" + counts.get(tv.tag);
-                transposed.get(rowId).put(msgId, tv.value);
+        if (sameVersion && first + change.getRemovedMessages() == columnMessages.size()) {
+            for (int message = first; message < columnMessages.size(); message++) {
+                clearEditedValues(message);
+            }
+            columnMessages = updated;
+            if (page > getPageCount() - 1) {
+                page = getPageCount() - 1;
+                buildPage();
+            } else {
+                // Rows are numbered in order of first appearance on the page, so the rows
+                // introduced by the replaced trailing messages are exactly those after the last
+                // row used before them
+                int kept = Math.max(0, Math.min(first - start, fieldRows.length));
+                int keptRows = 0;
+                for (int position = 0; position < kept; position++) {
+                    for (int row : fieldRows[position]) {
+                        keptRows = Math.max(keptRows, row + 1);
+                    }
+                }
+                for (int row = keptRows; row < tagOrder.size(); row++) {
+                    rowIndexById.remove(tagOrder.get(row));
+                }
+                tagOrder.subList(keptRows, tagOrder.size()).clear();
+                fieldRows = Arrays.copyOf(fieldRows, getPageSize());
+                assignRows(kept);
             }
+            fireTableStructureChanged();
+            return true;
+        }
+
+        buildModel(messages);
+        fireTableStructureChanged();
+        return true;
+    }
+
+    private void clearEditedValues(int message) {
+        editedValues.keySet().removeIf(key -> (int) (long) key == message);
+    }
+
+    private void buildModel(FixParsedMessages messages) {
+        columnMessages = messages.getMessages();
+        fixVersion = messages.getFixVersionOrDefault();
+        rowIdsByTag = new HashMap<>();
+        page = Math.min(page, getPageCount() - 1);
+        buildPage();
+    }
+
+    /**
+     * Assigns rows to the fields of the messages on the current page, keeping the order of tag
+     * occurrences as they first appear on it.
+     */
+    private void buildPage() {
+        tagOrder = new ArrayList<>();
+        rowTagNumbers = new int[16];
+        rowIndexById = new HashMap<>();
+        // Edited values are keyed by row, which the page's messages renumber
+        editedValues = new HashMap<>();
+        fieldRows = new int[getPageSize()][];
+        assignRows(0);
+    }
+
+    /**
+     * Assigns rows to the messages on the page from the given position on.
+     */
+    private void assignRows(int from) {
+        int start = getPageStart();
+        for (int position = from; position < fieldRows.length; position++) {
+            fieldRows[position] = rowsFor(columnMessages.get(start + position), true);
         }
     }
 
-    private String detectFixVersion(String message) {
-        return com.rannett.fixplugin.util.FixUtils.extractFixVersion(message).orElse(null);
+    /**
+     * @return number of pages of message columns, at least one
+     */
+    public int getPageCount() {
+        return Math.max(1, (columnMessages.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+    }
+
+    /**
+     * @return zero-based number of the page of messages shown as columns
+     */
+    public int getPage() {
+        return page;
     }
 
     /**
-     * Parse a FIX message into tag/value pairs while preserving embedded data.
-     * <p>
-     * Certain FIX fields such as {@code XmlData.FIELD} and
-     * {@code EncodedSecurityDesc.FIELD} may contain XML that itself includes
-     * delimiter characters. These fields are preceded by a length tag
-     * ({@code XmlDataLen.FIELD} or {@code EncodedSecurityDescLen.FIELD})
-     * specifying how many characters to read. This method keeps
-     * track of these lengths so that the embedded XML is extracted correctly.
+     * Shows another page of messages as columns.
      *
-     * @param msg raw FIX message using either {@code |} or SOH as delimiters
-     * @return ordered list of tag/value pairs from the message
+     * @param requestedPage zero-based page number; it is clamped to the existing pages
+     * @return {@code true} if the page changed
      */
-    private List<TagValue> parseFixMessage(String msg) {
-        // Parsed output
-        List<TagValue> result = new ArrayList<>();
-
-        // Cursor into the raw message string
-        int index = 0;
-
-        // When a length field (XmlDataLen or EncodedSecurityDescLen) is encountered
-        // the following tag will contain raw data of this length. 'expectedLength'
-        // holds the number of characters to read and 'dataTag' stores the tag number
-        // that should receive that data.
-        int expectedLength = -1;
-        String dataTag = null;
-
-        // Iterate over the message: tag=value<delimiter>
-        while (index < msg.length()) {
-            // Find the '=' separating the tag from the value
-            int eq = msg.indexOf('=', index);
-            if (eq == -1) {
-                break; // malformed message
-            }
+    public boolean setPage(int requestedPage) {
+        int target = Math.max(0, Math.min(requestedPage, getPageCount() - 1));
+        if (target == page) {
+            return false;
+        }
+        page = target;
+        buildPage();
+        fireTableStructureChanged();
+        return true;
+    }
 
-            String tag = msg.substring(index, eq);
-            index = eq + 1;
-
-            // If we previously saw a length tag, read the exact number of
-            // characters for the current value regardless of delimiters.
-            if (dataTag != null && tag.equals(dataTag) && expectedLength >= 0) {
-                int end = Math.min(index + expectedLength, msg.length());
-                String value = msg.substring(index, end);
-                result.add(new TagValue(tag, value));
-
-                // Move the cursor past the consumed data and optional delimiter
-                index = end;
-                // Some producers do not include trailing line breaks in the
-                // length field. Skip over any whitespace before the delimiter
-                while (index < msg.length() && Character.isWhitespace(msg.charAt(index))) {
-                    index++;
-                }
-                if (index < msg.length() && (msg.charAt(index) == '|' || msg.charAt(index) == '\u0001')) {
-                    index++;
-                }
+    /**
+     * @return number of messages in the model, on all pages
+     */
+    public int getMessageCount() {
+        return columnMessages.size();
+    }
 
-                // Reset special parsing state for the next iteration
-                dataTag = null;
-                expectedLength = -1;
-                continue;
-            }
+    /**
+     * @return index of the first message on the current page
+     */
+    public int getPageStart() {
+        return page * PAGE_SIZE;
+    }
+
+    /**
+     * @param messageId message identifier, e.g. {@code "Message 3"}
+     * @return zero-based index of the message or {@code -1} if there is no such message
+     */
+    public int getMessageIndex(String messageId) {
+        if (messageId == null || !messageId.startsWith("Message ")) {
+            return -1;
+        }
+        if (columnMessages.isEmpty()) {
+            return -1;
+        }
+        try {
+            // Messages of a page of a larger log are not numbered from 1
+            int index = Integer.parseInt(messageId.substring(8)) - columnMessages.get(0).getMessageNumber();
+            return index >= 0 && index < columnMessages.size() ? index : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private int getPageSize() {
+        return Math.max(0, Math.min(PAGE_SIZE, columnMessages.size() - getPageStart()));
+    }
+
+    private boolean isOnPage(int message) {
+        return message >= getPageStart() && message < getPageStart() + getPageSize();
+    }
+
+    private int toColumn(int message) {
+        return message - getPageStart() + 2;
+    }
+
+    private int toMessage(int columnIndex) {
+        return getPageStart() + columnIndex - 2;
+    }
 
-            // Read a value terminated by the next delimiter character
-            int delimPos = findDelimiter(msg, index);
-            String value = msg.substring(index, delimPos);
-            result.add(new TagValue(tag, value));
-            index = delimPos + 1; // skip the delimiter
-
-            // Check for length fields that signal the next tag contains raw data
-            if (String.valueOf(XmlDataLen.FIELD).equals(tag)) { // XMLDataLen
-                try {
-                    expectedLength = Integer.parseInt(value);
-                    dataTag = String.valueOf(XmlData.FIELD); // XMLData follows
-                } catch (NumberFormatException ignore) {
-                    // Invalid length values are treated as normal fields
-                    expectedLength = -1;
-                    dataTag = null;
+    /**
+     * Maps each field of the message to its row.
+     *
+     * @param addRows whether rows for new tag occurrences are appended
+     * @return the row of each field, or {@code null} if a row is missing and may not be added
+     */
+    private int[] rowsFor(FixParsedMessages.Entry message, boolean addRows) {
+        Map<String, Integer> counts = new HashMap<>();
+        int[] rows = new int[message.getFieldCount()];
+        for (int field = 0; field < rows.length; field++) {
+            String tag = message.getTag(field);
+            int occ = counts.merge(tag, 1, Integer::sum);
+            String rowId = rowIdFor(rowIdsByTag, tag, occ);
+            Integer row = rowIndexById.get(rowId);
+            if (row == null) {
+                if (!addRows) {
+                    return null;
                 }
-            } else if (String.valueOf(EncodedSecurityDescLen.FIELD).equals(tag)) { // EncodedSecurityDescLen
-                try {
-                    expectedLength = Integer.parseInt(value);
-                    dataTag = String.valueOf(EncodedSecurityDesc.FIELD); // EncodedSecurityDesc follows
-                } catch (NumberFormatException ignore) {
-                    expectedLength = -1;
-                    dataTag = null;
+                tagOrder.add(rowId);
+                row = tagOrder.size() - 1;
+                if (row == rowTagNumbers.length) {
+                    rowTagNumbers = Arrays.copyOf(rowTagNumbers, row * 2);
                 }
+                rowTagNumbers[row] = FixFieldCursor.parseTag(tag, 0, tag.length());
+                rowIndexById.put(rowId, row);
             }
+            rows[field] = row;
         }
-
-        return result;
+        return rows;
     }
 
-    private int findDelimiter(String msg, int start) {
-        int pipe = msg.indexOf('|', start);
-        int soh = msg.indexOf('\u0001', start);
-        int end = -1;
-        if (pipe == -1) {
-            end = soh;
-        } else if (soh == -1) {
-            end = pipe;
-        } else {
-            end = Math.min(pipe, soh);
-        }
-        if (end == -1) {
-            end = msg.length();
+    /**
+     * Returns the shared row identifier ({@code tag#occurrence}) so that each identifier is
+     * created once per model build rather than once per field.
+     */
+    private static String rowIdFor(Map<String, List<String>> rowIdsByTag, String tag, int occurrence) {
+        List<String> rowIds = rowIdsByTag.computeIfAbsent(tag, t -> new ArrayList<>(1));
+        while (rowIds.size() < occurrence) {
+            rowIds.add(tag + "#" + (rowIds.size() + 1));
         }
-        return end;
+        return rowIds.get(occurrence - 1);
     }
 
     @Override
@@ -219,12 +318,12 @@ public class FixTransposedTableModel extends AbstractTableModel {
 
     @Override
     public int getColumnCount() {
-        return 2 + columnHeaders.size();
+        return 2 + getPageSize();
     }
 
     @Override
     public String getColumnName(int column) {
-        return column == 0 ? "Tag" : column == 1 ? "Name" : columnHeaders.get(column - 2);
+        return column == 0 ? "Tag" : column == 1 ? "Name" : columnMessages.get(toMessage(column)).getMessageId();
     }
 
     @Override
@@ -236,17 +335,33 @@ public class FixTransposedTableModel extends AbstractTableModel {
         }
         if (columnIndex == 1) {
             FixTagDictionary dictionary = resolveDictionary();
-            String tagName = dictionary.getTagName(tag);
+            int tagNumber = rowTagNumbers[rowIndex];
+            String tagName = tagNumber >= 0 ? dictionary.getTagName(tagNumber) : dictionary.getTagName(tag);
             return tagName != null ? tagName : "";  // Show empty string instead of null
         }
-        String msgId = columnHeaders.get(columnIndex - 2);
-        return transposed.getOrDefault(rowId, Collections.emptyMap()).getOrDefault(msgId, "");
+        int message = toMessage(columnIndex);
+        String edited = editedValues.get(cellKey(rowIndex, message));
+        if (edited != null) {
+            return edited;
+        }
+        int[] rows = fieldRows[message - getPageStart()];
+        for (int field = 0; field < rows.length; field++) {
+            if (rows[field] == rowIndex) {
+                return columnMessages.get(message).getValue(field);
+            }
+        }
+        return "";
+    }
+
+    private static long cellKey(int rowIndex, int message) {
+        return ((long) rowIndex << 32) | message;
     }
 
 
     @Override
     public boolean isCellEditable(int rowIndex, int columnIndex) {
-        return columnIndex >= 2;
+        // Without an updater there is no document to write back to, e.g. for compressed logs
+        return columnIndex >= 2 && documentUpdater != null;
     }
 
     @Override
@@ -258,9 +373,10 @@ public class FixTransposedTableModel extends AbstractTableModel {
         if (hashIndex >= 0) {
             occurrence = Integer.parseInt(rowId.substring(hashIndex + 1));
         }
-        String msgId = columnHeaders.get(columnIndex - 2);
+        int message = toMessage(columnIndex);
+        String msgId = columnMessages.get(message).getMessageId();
         String newValue = aValue.toString();
-        transposed.get(rowId).put(msgId, newValue);
+        editedValues.put(cellKey(rowIndex, message), newValue);
         documentUpdater.updateTagValueInMessage(msgId, tag, occurrence, newValue);
         fireTableCellUpdated(rowIndex, columnIndex);
     }
@@ -274,9 +390,12 @@ public class FixTransposedTableModel extends AbstractTableModel {
         return -1;
     }
 
+    /**
+     * @return the column of the message, or {@code -1} if it is not on the current page
+     */
     public int getColumnForMessageId(String messageId) {
-        int index = columnHeaders.indexOf(messageId);
-        return index >= 0 ? index + 2 : -1;
+        int index = getMessageIndex(messageId);
+        return index >= 0 && isOnPage(index) ? toColumn(index) : -1;
     }
 
     public String getTagAtRow(int rowIndex) {
@@ -284,12 +403,18 @@ public class FixTransposedTableModel extends AbstractTableModel {
         return rowId.contains("#") ? rowId.substring(0, rowId.indexOf('#')) : rowId;
     }
 
+    /**
+     * @return the tag number of the row, or {@code -1} if its tag is not numeric
+     */
+    public int getTagNumberAtRow(int rowIndex) {
+        return rowTagNumbers[rowIndex];
+    }
+
     public String getMessageIdForColumn(int columnIndex) {
         if (columnIndex < 2) {
             return null;
         }
-        int modelIndex = columnIndex - 2;
-        return modelIndex < columnHeaders.size() ? columnHeaders.get(modelIndex) : null;
+        return columnIndex - 2 < getPageSize() ? columnMessages.get(toMessage(columnIndex)).getMessageId() : null;
     }
 
     public String getFixVersion() {
@@ -6,14 +6,18 @@ import com.intellij.diff.requests.SimpleDiffRequest;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.ComboBox;
 import com.intellij.openapi.ui.Messages;
+import com.intellij.ui.components.JBLabel;
 import com.intellij.ui.table.JBTable;
+import com.intellij.util.ui.JBUI;
 import com.rannett.fixplugin.FixFileType;
 import com.rannett.fixplugin.dictionary.FixDictionaryCache;
 import com.rannett.fixplugin.dictionary.FixTagDictionary;
 import com.rannett.fixplugin.settings.FixViewerSettingsState;
 import com.rannett.fixplugin.settings.FixViewerSettingsState.DictionaryEntry;
+import com.rannett.fixplugin.util.FixParsedMessages;
 
 import javax.swing.DefaultCellEditor;
+import javax.swing.JButton;
 import javax.swing.Icon;
 import javax.swing.JLabel;
 import javax.swing.JMenuItem;
@@ -33,6 +37,7 @@ import javax.swing.table.TableRowSorter;
 import javax.swing.RowFilter;
 import java.awt.BorderLayout;
 import java.awt.Component;
+import java.awt.FlowLayout;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
@@ -50,16 +55,24 @@ public class FixTransposedTablePanel extends JPanel {
     private Runnable onCellSelectedCallback;
     private final List<TableColumn> allColumns = new ArrayList<>();
     private final Project project;
-    private List<String> messages;
+    private FixParsedMessages messages;
     private final TableRowSorter<FixTransposedTableModel> sorter;
     private Set<String> filteredTags = new LinkedHashSet<>();
     private DictionaryEntry dictionaryEntry;
     private final FixViewerSettingsState settingsState;
+    private final JPanel pagePanel;
+    private final JBLabel pageLabel;
+    private final JButton previousPageButton;
+    private final JButton nextPageButton;
 
     public FixTransposedTablePanel(List<String> fixMessages, FixTransposedTableModel.DocumentUpdater updater, Project project) {
+        this(FixParsedMessages.of(fixMessages), updater, project);
+    }
+
+    public FixTransposedTablePanel(FixParsedMessages fixMessages, FixTransposedTableModel.DocumentUpdater updater, Project project) {
         super(new BorderLayout());
         this.project = project;
-        this.messages = new ArrayList<>(fixMessages);
+        this.messages = fixMessages;
         this.settingsState = project != null ? FixViewerSettingsState.getInstance(project) : null;
         model = new FixTransposedTableModel(fixMessages, updater, project);
         dictionaryEntry = settingsState != null ? settingsState.getDefaultDictionary(model.getFixVersion()) : null;
@@ -77,11 +90,11 @@ public class FixTransposedTablePanel extends JPanel {
                 Component c = super.getTableCellRendererComponent(tbl, value, isSelected, hasFocus, row, column);
                 String displayValue = String.valueOf(value);
                 if (column >= 2) {
-                    String tag = model.getTagAtRow(row);
+                    int tag = model.getTagNumberAtRow(row);
                     String valStr = String.valueOf(value);
                     FixTagDictionary dictionary = project.getService(FixDictionaryCache.class)
                             .getDictionary(dictionaryEntry, model.getFixVersion());
-                    String desc = dictionary.getValueName(tag, valStr);
+                    String desc = tag >= 0 ? dictionary.getValueName(tag, valStr) : null;
                     if (desc != null && !desc.isEmpty()) {
                         displayValue = valStr + " (" + desc + ")";
                     }
@@ -153,6 +166,22 @@ public class FixTransposedTablePanel extends JPanel {
             }
         });
 
+        // Long logs are shown one page of message columns at a time
+        pagePanel = new JPanel(new BorderLayout());
+        pagePanel.setBorder(JBUI.Borders.empty(2, 8));
+        pageLabel = new JBLabel();
+        pagePanel.add(pageLabel, BorderLayout.WEST);
+        JPanel navigationPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 4, 0));
+        previousPageButton = new JButton("Previous");
+        previousPageButton.addActionListener(event -> showPage(model.getPage() - 1));
+        nextPageButton = new JButton("Next");
+        nextPageButton.addActionListener(event -> showPage(model.getPage() + 1));
+        navigationPanel.add(previousPageButton);
+        navigationPanel.add(nextPageButton);
+        pagePanel.add(navigationPanel, BorderLayout.EAST);
+        add(pagePanel, BorderLayout.NORTH);
+        updatePageControls();
+
         add(new JScrollPane(table), BorderLayout.CENTER);
         table.getSelectionModel().addListSelectionListener(e -> notifySelection());
         table.getColumnModel().getSelectionModel().addListSelectionListener(e -> notifySelection());
@@ -163,14 +192,67 @@ public class FixTransposedTablePanel extends JPanel {
     }
 
     public void updateTable(List<String> fixMessages) {
-        this.messages = new ArrayList<>(fixMessages);
+        updateTable(FixParsedMessages.of(fixMessages));
+    }
+
+    /**
+     * Rebuild the table from an already parsed document.
+     *
+     * @param fixMessages parsed document shared with the other views
+     */
+    public void updateTable(FixParsedMessages fixMessages) {
+        this.messages = fixMessages;
         model.updateMessages(fixMessages);
+        columnsChanged();
+    }
+
+    /**
+     * Update the table for an edit of the document, refreshing only the columns of the
+     * messages that changed.
+     *
+     * @param fixMessages parsed document after the edit
+     * @param change      the messages replaced by the edit
+     */
+    public void applyChange(FixParsedMessages fixMessages, FixParsedMessages.Change change) {
+        this.messages = fixMessages;
+        if (model.applyChange(fixMessages, change)) {
+            columnsChanged();
+        }
+    }
+
+    private void columnsChanged() {
         if (!Objects.equals(model.getFixVersion(), dictionaryEntry != null ? dictionaryEntry.getVersion() : null)) {
             dictionaryEntry = settingsState != null ? settingsState.getDefaultDictionary(model.getFixVersion()) : null;
             model.setDictionaryEntry(dictionaryEntry);
         }
+        // Hidden columns belong to the replaced column set
+        allColumns.clear();
         applyTagFilter(filteredTags);
         configureColumnWidths();
+        updatePageControls();
+    }
+
+    /**
+     * Shows another page of message columns.
+     *
+     * @param page zero-based page number
+     */
+    public void showPage(int page) {
+        if (model.setPage(page)) {
+            columnsChanged();
+        }
+    }
+
+    private void updatePageControls() {
+        int page = model.getPage();
+        int pageCount = model.getPageCount();
+        int first = model.getPageStart();
+        int total = model.getMessageCount();
+        pagePanel.setVisible(pageCount > 1);
+        pageLabel.setText(String.format("Messages %,d-%,d of %,d",
+                first + 1, Math.min(first + FixTransposedTableModel.PAGE_SIZE, total), total));
+        previousPageButton.setEnabled(page > 0);
+        nextPageButton.setEnabled(page < pageCount - 1);
     }
 
     /**
@@ -239,8 +321,8 @@ public class FixTransposedTablePanel extends JPanel {
     public String getMessageText(String messageId) {
         if (messageId == null || !messageId.startsWith("Message ")) return "";
         try {
-            int idx = Integer.parseInt(messageId.substring(8)) - 1;
-            return (idx >= 0 && idx < messages.size()) ? messages.get(idx) : "";
+            FixParsedMessages.Entry message = messages.getMessage(Integer.parseInt(messageId.substring(8)));
+            return message != null ? message.getRaw() : "";
         } catch (NumberFormatException ignore) {
             return "";
         }
@@ -251,10 +333,16 @@ public class FixTransposedTablePanel extends JPanel {
         for (int i = 0; i < model.getRowCount(); i++) {
             tags.add(model.getTagAtRow(i));
         }
+        // Rows only cover the current page; keep tags filtered on other pages selectable
+        tags.addAll(filteredTags);
         return tags;
     }
 
     public void highlightTagCell(String tag, String messageId) {
+        int messageIndex = model.getMessageIndex(messageId);
+        if (messageIndex >= 0) {
+            showPage(messageIndex / FixTransposedTableModel.PAGE_SIZE);
+        }
         int row = model.getRowForTag(tag);
         int col = model.getColumnForMessageId(messageId);
         if (row >= 0 && col >= 0) {
@@ -0,0 +1,218 @@
+package com.rannett.fixplugin.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The entry boundaries of a FIX document together with the state needed to maintain them as the
+ * document is edited.
+ * <p>
+ * Besides the start and end of each entry, the splitter's resume position before every entry is
+ * kept. A {@link FixMessageSplitter} started at a resume position produces the same remaining
+ * entries as one that got there by scanning, so after an edit only the entries around the
+ * changed range are rescanned: scanning restarts at the last resume position whose entries
+ * cannot have looked at the edited text, and stops as soon as it reaches a resume position of
+ * the old document beyond the edit, where the old entries are reused. This is the same
+ * resynchronisation that {@link FixParallelMessageSplitter} uses to stitch its segments.
+ */
+public final class FixEntryBoundaries {
+
+    /**
+     * The splitter may look at the character following a resume position and, when it finds
+     * {@code 8=} there, at the one after it.
+     */
+    private static final int LOOKAHEAD = 2;
+
+    private static final int[] NONE = new int[0];
+
+    /** Start and end offsets of each entry, as consecutive pairs. */
+    private final int[] bounds;
+    /** Resume position before each entry, followed by the one after the last entry. */
+    private final int[] resumes;
+    /** Indices of entries whose extent depends on all text after them, in ascending order. */
+    private final int[] openEnded;
+
+    FixEntryBoundaries(int[] bounds, int[] resumes, int[] openEnded) {
+        this.bounds = bounds;
+        this.resumes = resumes;
+        this.openEnded = openEnded.length == 0 ? NONE : openEnded;
+    }
+
+    /**
+     * Split the text, in parallel when it is large.
+     *
+     * @param text text to split; it must not change while it is being split
+     * @return the boundaries of its entries
+     */
+    public static FixEntryBoundaries scan(@NotNull CharSequence text) {
+        return FixParallelMessageSplitter.scan(text);
+    }
+
+    /**
+     * @return number of entries
+     */
+    public int size() {
+        return bounds.length / 2;
+    }
+
+    /**
+     * @param entry zero-based entry index
+     * @return offset of the first character of the entry
+     */
+    public int getStart(int entry) {
+        return bounds[2 * entry];
+    }
+
+    /**
+     * @param entry zero-based entry index
+     * @return offset just past the last character of the entry
+     */
+    public int getEnd(int entry) {
+        return bounds[2 * entry + 1];
+    }
+
+    /**
+     * @return start and end offsets of each entry, as consecutive pairs
+     */
+    public int[] toArray() {
+        return bounds.clone();
+    }
+
+    /**
+     * Update the boundaries for an edit that replaced {@code oldLength} characters at
+     * {@code offset} by {@code newLength} characters.
+     *
+     * @param text      the document text after the edit
+     * @param offset    offset of the edit
+     * @param oldLength number of characters removed
+     * @param newLength number of characters inserted
+     * @return the new boundaries and the range of entries that changed
+     */
+    public Edit applyEdit(@NotNull CharSequence text, int offset, int oldLength, int newLength) {
+        int count = size();
+        int delta = newLength - oldLength;
+        int oldEditEnd = offset + oldLength;
+
+        // Restart after the last entry whose scan ended before the edited text and did not
+        // depend on text after it
+        int restart = lastResumeAtMost(offset - LOOKAHEAD);
+        if (openEnded.length > 0) {
+            restart = Math.min(restart, openEnded[0]);
+        }
+
+        IntList scannedBounds = new IntList();
+        IntList scannedResumes = new IntList();
+        IntList scannedOpenEnded = new IntList();
+        FixMessageSplitter splitter = new FixMessageSplitter(text, resumes[restart]);
+        int position = resumes[restart];
+        int resync = -1;
+        while (true) {
+            if (position - delta >= oldEditEnd) {
+                int found = Arrays.binarySearch(resumes, restart, resumes.length, position - delta);
+                if (found >= 0) {
+                    resync = found;
+                    break;
+                }
+            }
+            if (!splitter.skip()) {
+                break;
+            }
+            if (splitter.isEntryOpenEnded()) {
+                scannedOpenEnded.add(restart + scannedBounds.size / 2);
+            }
+            scannedBounds.add((int) splitter.getEntryStart());
+            scannedBounds.add((int) splitter.getEntryEnd());
+            position = (int) splitter.getPosition();
+            scannedResumes.add(position);
+        }
+
+        int reused = resync >= 0 ? resync : count;
+        int inserted = scannedBounds.size / 2;
+        int shift = inserted - (reused - restart);
+
+        int[] newBounds = new int[2 * (restart + inserted + count - reused)];
+        System.arraycopy(bounds, 0, newBounds, 0, 2 * restart);
+        System.arraycopy(scannedBounds.values, 0, newBounds, 2 * restart, scannedBounds.size);
+        for (int i = 2 * reused, j = 2 * (restart + inserted); i < bounds.length; i++, j++) {
+            newBounds[j] = bounds[i] + delta;
+        }
+
+        int[] newResumes = new int[newBounds.length / 2 + 1];
+        System.arraycopy(resumes, 0, newResumes, 0, restart + 1);
+        System.arraycopy(scannedResumes.values, 0, newResumes, restart + 1, scannedResumes.size);
+        for (int i = reused + 1, j = restart + 1 + inserted; i < resumes.length; i++, j++) {
+            newResumes[j] = resumes[i] + delta;
+        }
+
+        IntList newOpenEnded = new IntList();
+        for (int i = 0; i < scannedOpenEnded.size; i++) {
+            newOpenEnded.add(scannedOpenEnded.values[i]);
+        }
+        for (int entry : openEnded) {
+            if (entry >= reused) {
+                newOpenEnded.add(entry + shift);
+            }
+        }
+
+        FixEntryBoundaries updated = new FixEntryBoundaries(newBounds, newResumes, newOpenEnded.toArray());
+        return new Edit(updated, restart, reused - restart, inserted);
+    }
+
+    private int lastResumeAtMost(int position) {
+        int found = Arrays.binarySearch(resumes, position);
+        int index = found >= 0 ? found : -found - 2;
+        return Math.max(0, index);
+    }
+
+    /**
+     * The result of {@link #applyEdit}: entries {@code [firstEntry, firstEntry + removedCount)}
+     * of the old boundaries were replaced by {@code insertedCount} entries, and all other entries
+     * are unchanged apart from their offsets.
+     */
+    public static final class Edit {
+        private final FixEntryBoundaries boundaries;
+        private final int firstEntry;
+        private final int removedCount;
+        private final int insertedCount;
+
+        Edit(FixEntryBoundaries boundaries, int firstEntry, int removedCount, int insertedCount) {
+            this.boundaries = boundaries;
+            this.firstEntry = firstEntry;
+            this.removedCount = removedCount;
+            this.insertedCount = insertedCount;
+        }
+
+        public FixEntryBoundaries getBoundaries() {
+            return boundaries;
+        }
+
+        public int getFirstEntry() {
+            return firstEntry;
+        }
+
+        public int getRemovedCount() {
+            return removedCount;
+        }
+
+        public int getInsertedCount() {
+            return insertedCount;
+        }
+    }
+
+    static final class IntList {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.rannett.fixplugin.util;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Reusable, allocation-free cursor over the {@code tag=value} fields of a raw FIX message.
+ * <p>
+ * The cursor walks the message in place: the current tag is exposed as an {@code int} and the
+ * value as a start/end slice of the underlying text, so no {@link String} is created unless a
+ * caller explicitly asks for one through {@link #tagText()} or {@link #value()}. A single
+ * instance can be {@link #reset(CharSequence) reset} and reused for any number of messages.
+ * <p>
+ * Either {@code |} or SOH is accepted as the field delimiter. Length-prefixed data fields
+ * ({@code XmlDataLen/XmlData} and {@code EncodedSecurityDescLen/EncodedSecurityDesc}) are read
+ * by length so that embedded delimiters, such as those inside FpML payloads, are preserved.
+ */
+public final class FixFieldCursor {
+
+    /** Tag number of the BeginString field. */
+    public static final int BEGIN_STRING = 8;
+    /** Tag number of the MsgType field. */
+    public static final int MSG_TYPE = 35;
+    /** Tag number of the CheckSum field. */
+    public static final int CHECK_SUM = 10;
+
+    private static final int ENCODED_SECURITY_DESC_LEN = 350;
+    private static final int ENCODED_SECURITY_DESC = 351;
+    private static final int XML_DATA_LEN = 212;
+    private static final int XML_DATA = 213;
+
+    private static final int CACHED_TAG_TEXTS = 10_000;
+    private static final String[] TAG_TEXTS = new String[CACHED_TAG_TEXTS];
+
+    private final FixTextScanner scanner = new FixTextScanner();
+    private CharSequence text = "";
+    private int end;
+    private int position;
+
+    private int tag;
+    private int tagStart;
+    private int tagEnd;
+    private int valueStart;
+    private int valueEnd;
+
+    // When a length field is encountered the following data tag holds raw data of this length
+    private int expectedLength = -1;
+    private int dataTag = -1;
+
+    /**
+     * Position the cursor before the first field of the given message.
+     *
+     * @param message raw FIX message
+     * @return this cursor
+     */
+    public FixFieldCursor reset(@NotNull CharSequence message) {
+        return reset(message, 0, message.length());
+    }
+
+    /**
+     * Position the cursor before the first field of the message occupying the given range.
+     *
+     * @param source text containing the message
+     * @param start  offset of the first character of the message
+     * @param end    offset just past the last character of the message
+     * @return this cursor
+     */
+    public FixFieldCursor reset(@NotNull CharSequence source, int start, int end) {
+        this.text = source;
+        this.position = start;
+        this.end = end;
+        this.tag = -1;
+        this.tagStart = this.tagEnd = this.valueStart = this.valueEnd = start;
+        this.expectedLength = -1;
+        this.dataTag = -1;
+        scanner.reset(source, end);
+        return this;
+    }
+
+    /**
+     * Advance to the next field.
+     *
+     * @return {@code false} when no further field exists
+     */
+    public boolean next() {
+        if (position >= end) {
+            return false;
+        }
+        int eq = scanner.nextEquals(position);
+        if (eq == -1) {
+            // malformed trailing text
+            position = end;
+            return false;
+        }
+
+        tagStart = position;
+        tagEnd = eq;
+        tag = parseTag(text, tagStart, tagEnd);
+        valueStart = eq + 1;
+
+        // If we previously saw a length tag, read the exact number of
+        // characters for the current value regardless of delimiters.
+        if (dataTag >= 0 && tag == dataTag && expectedLength >= 0) {
+            valueEnd = (int) Math.min((long) valueStart + expectedLength, end);
+            position = valueEnd;
+            // Some producers do not include trailing line breaks in the
+            // length field. Skip over any whitespace before the delimiter
+            while (position < end && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+            if (position < end && FixTextScanner.isDelimiter(text.charAt(position))) {
+                position++;
+            }
+            dataTag = -1;
+            expectedLength = -1;
+            return true;
+        }
+
+        valueEnd = scanner.nextDelimiter(valueStart);
+        position = valueEnd + 1;
+
+        if (tag == XML_DATA_LEN) {
+            trackDataLength(XML_DATA);
+        } else if (tag == ENCODED_SECURITY_DESC_LEN) {
+            trackDataLength(ENCODED_SECURITY_DESC);
+        }
+        return true;
+    }
+
+    private void trackDataLength(int followingTag) {
+        int length = parseNumber(text, valueStart, valueEnd);
+        if (length >= 0) {
+            expectedLength = length;
+            dataTag = followingTag;
+        } else {
+            // Invalid length values are treated as normal fields
+            expectedLength = -1;
+            dataTag = -1;
+        }
+    }
+
+    /**
+     * @return numeric tag of the current field or {@code -1} if the tag is not a plain number
+     */
+    public int tag() {
+        return tag;
+    }
+
+    public int tagStart() {
+        return tagStart;
+    }
+
+    public int tagEnd() {
+        return tagEnd;
+    }
+
+    public int valueStart() {
+        return valueStart;
+    }
+
+    public int valueEnd() {
+        return valueEnd;
+    }
+
+    public int valueLength() {
+        return valueEnd - valueStart;
+    }
+
+    /**
+     * @return the underlying text the cursor currently walks
+     */
+    public CharSequence text() {
+        return text;
+    }
+
+    /**
+     * Returns the tag of the current field as text. Numeric tags below 10000 are served from a
+     * shared cache so that repeated calls do not allocate.
+     *
+     * @return tag text
+     */
+    public String tagText() {
+        return tagText(tag, text, tagStart, tagEnd);
+    }
+
+    /**
+     * Returns the text of a tag, served from the shared cache for numeric tags below 10000.
+     *
+     * @param source text containing the tag
+     * @param start  offset of the first character of the tag
+     * @param end    offset just past the last character of the tag
+     * @return tag text
+     */
+    public static String tagText(@NotNull CharSequence source, int start, int end) {
+        return tagText(parseTag(source, start, end), source, start, end);
+    }
+
+    private static String tagText(int tag, CharSequence source, int start, int end) {
+        if (tag >= 0 && tag < CACHED_TAG_TEXTS) {
+            String cached = TAG_TEXTS[tag];
+            if (cached == null) {
+                cached = Integer.toString(tag);
+                TAG_TEXTS[tag] = cached;
+            }
+            return cached;
+        }
+        return source.subSequence(start, end).toString();
+    }
+
+    /**
+     * @return value of the current field, materialized as a new string
+     */
+    public String value() {
+        return text.subSequence(valueStart, valueEnd).toString();
+    }
+
+    /**
+     * Compares the current value with the given text without materializing it.
+     *
+     * @param expected text to compare with
+     * @return {@code true} if the value equals the text
+     */
+    public boolean valueEquals(@NotNull CharSequence expected) {
+        if (expected.length() != valueLength()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (text.charAt(valueStart + i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return value of the current field as a non-negative integer or {@code -1} if not numeric
+     */
+    public int valueAsInt() {
+        return parseNumber(text, valueStart, valueEnd);
+    }
+
+    /**
+     * Find the value of the first field with the given tag in a message.
+     *
+     * @param message raw FIX message
+     * @param tag     tag number to look for
+     * @return the value or {@code null} if the tag is not present
+     */
+    public static String findValue(@NotNull CharSequence message, int tag) {
+        FixFieldCursor cursor = new FixFieldCursor().reset(message);
+        while (cursor.next()) {
+            if (cursor.tag() == tag) {
+                return cursor.value();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses a FIX tag number. Only plain decimal numbers without leading zeros are accepted.
+     *
+     * @return the tag or {@code -1} if the text is not a tag number
+     */
+    public static int parseTag(@NotNull CharSequence source, int start, int end) {
+        int length = end - start;
+        if (length < 1 || length > 9 || (length > 1 && source.charAt(start) == '0')) {
+            return -1;
+        }
+        return parseNumber(source, start, end);
+    }
+
+    private static int parseNumber(CharSequence source, int start, int end) {
+        if (start >= end || end - start > 9) {
+            return -1;
+        }
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
@@ -12,9 +12,19 @@ import quickfix.FieldNotFound;
 import quickfix.Message;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Utility methods for parsing FIX messages with QuickFIX/J.
@@ -143,152 +153,35 @@ public final class FixMessageParser {
      * continue until the checksum field ({@code 10=###}) delimiter. Any text
      * before the first {@code 8=} or between messages is treated as a separate
      * entry, allowing comment lines to be preserved.
+     * <p>
+     * Large inputs are split on several cores by {@link FixParallelMessageSplitter}, which
+     * yields exactly the same entries.
      *
      * @param text raw text potentially containing multiple messages
      * @return list of extracted message strings in order of appearance
      */
-    public static java.util.List<String> splitMessages(@NotNull String text) {
-        java.util.List<String> messages = new java.util.ArrayList<>();
-        if (text.isEmpty()) {
-            return messages;
+    public static List<String> splitMessages(@NotNull CharSequence text) {
+        if (text.length() >= FixParallelMessageSplitter.PARALLEL_THRESHOLD) {
+            return FixParallelMessageSplitter.split(text);
         }
-
-        int index = 0;
-        while (index < text.length()) {
-            index = skipNewlines(text, index);
-            if (index >= text.length()) {
-                break;
-            }
-
-            // Treat comment lines as standalone entries
-            if (text.charAt(index) == '#') {
-                index = consumeCommentLine(text, index, messages);
-                continue;
-            }
-
-            int start = text.indexOf("8=", index);
-            if (start == -1) {
-                addIfNotBlank(messages, text.substring(index).trim());
-                break;
-            }
-
-            if (start > index) {
-                String pre = text.substring(index, start).trim();
-                addIfNotBlank(messages, pre);
-                index = start;
-            }
-
-            ChecksumField checksumField = findChecksumField(text, start);
-
-            if (checksumField == null) {
-                int nl = text.indexOf('\n', start);
-                if (nl == -1) {
-                    addIfNotBlank(messages, text.substring(start).trim());
-                    break;
-                } else {
-                    addIfNotBlank(messages, text.substring(start, nl).trim());
-                    index = nl + 1;
-                    continue;
-                }
-            }
-
-            int msgEnd = checksumField.getDigitsEnd();
-            if (msgEnd < text.length() && isFieldDelimiter(text.charAt(msgEnd))) {
-                msgEnd++;
-            }
-            messages.add(text.substring(start, msgEnd));
-            index = msgEnd;
-            index = skipNewlines(text, index);
-        }
-
+        List<String> messages = new ArrayList<>();
+        new FixMessageSplitter(text).forEachRemaining(messages::add);
         return messages;
     }
 
-    private static int skipNewlines(String text, int index) {
-        int nextIndex = index;
-        while (nextIndex < text.length()
-                && (text.charAt(nextIndex) == '\n' || text.charAt(nextIndex) == '\r')) {
-            nextIndex++;
-        }
-        return nextIndex;
-    }
-
-    private static int consumeCommentLine(String text, int index, List<String> messages) {
-        int nl = text.indexOf('\n', index);
-        if (nl == -1) {
-            nl = text.length();
-        }
-        messages.add(text.substring(index, nl));
-        return nl + 1;
-    }
-
-    private static void addIfNotBlank(List<String> messages, String entry) {
-        if (!entry.isEmpty()) {
-            messages.add(entry);
-        }
-    }
-
-    private static ChecksumField findChecksumField(String text, int startIndex) {
-        int searchPosition = startIndex;
-        while (true) {
-            int candidate = text.indexOf("10=", searchPosition);
-            if (candidate == -1) {
-                return null;
-            }
-            if (candidate > startIndex) {
-                char previous = text.charAt(candidate - 1);
-                if (!isMessageBoundaryCharacter(previous)) {
-                    searchPosition = candidate + 3;
-                    continue;
-                }
-            }
-
-            int candidateDigitsStart = candidate + 3;
-            int candidateDigitsEnd = consumeDigits(text, candidateDigitsStart);
-            if (candidateDigitsEnd == candidateDigitsStart) {
-                searchPosition = candidate + 3;
-                continue;
-            }
-
-            if (candidateDigitsEnd < text.length()) {
-                char afterDigits = text.charAt(candidateDigitsEnd);
-                if (!isMessageBoundaryCharacter(afterDigits)) {
-                    searchPosition = candidate + 3;
-                    continue;
-                }
-            }
-
-            return new ChecksumField(candidateDigitsEnd);
-        }
-    }
-
-    private static int consumeDigits(String text, int startIndex) {
-        int index = startIndex;
-        while (index < text.length() && Character.isDigit(text.charAt(index))) {
-            index++;
-        }
-        return index;
-    }
-
-    private static boolean isMessageBoundaryCharacter(char character) {
-        return isFieldDelimiter(character) || character == '\n' || character == '\r';
-    }
-
-    private static boolean isFieldDelimiter(char character) {
-        return character == '\u0001' || character == '|';
-    }
-
-    private static final class ChecksumField {
-
-        private final int digitsEnd;
-
-        private ChecksumField(int digitsEnd) {
-            this.digitsEnd = digitsEnd;
-        }
-
-        private int getDigitsEnd() {
-            return digitsEnd;
-        }
+    /**
+     * Lazily split the text provided by a reader into FIX messages using the same rules as
+     * {@link #splitMessages(CharSequence)}. Only the message currently being scanned is held
+     * in memory, so arbitrarily large logs can be processed. The reader is not closed.
+     *
+     * @param reader source of the raw text
+     * @return ordered stream of extracted message strings
+     */
+    public static Stream<String> streamMessages(@NotNull Reader reader) {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(new FixMessageSplitter(reader),
+                        Spliterator.ORDERED | Spliterator.NONNULL),
+                false);
     }
 
     /**
@@ -298,10 +191,37 @@ public final class FixMessageParser {
      * @param text raw text containing FIX messages and log content
      * @return a newline-delimited string containing only FIX messages
      */
-    public static String extractFixMessagesText(@NotNull String text) {
-        List<String> messages = splitMessages(text);
-        return messages.stream()
-                .filter(message -> FixUtils.extractFixVersion(message).isPresent())
+    public static String extractFixMessagesText(@NotNull CharSequence text) {
+        return fixMessagesOnly(new FixMessageSplitter(text))
                 .collect(Collectors.joining("\n"));
     }
+
+    /**
+     * Streaming variant of {@link #extractFixMessagesText(CharSequence)} that copies only the FIX
+     * messages from the reader to the writer, one message per line. Neither stream is closed.
+     *
+     * @param reader source of the raw text
+     * @param writer destination for the extracted messages
+     * @throws IOException if reading or writing fails
+     */
+    public static void extractFixMessagesText(@NotNull Reader reader, @NotNull Writer writer) throws IOException {
+        try {
+            Iterator<String> messages = fixMessagesOnly(new FixMessageSplitter(reader)).iterator();
+            while (messages.hasNext()) {
+                writer.write(messages.next());
+                if (messages.hasNext()) {
+                    writer.write('\n');
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Stream<String> fixMessagesOnly(FixMessageSplitter splitter) {
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(splitter, Spliterator.ORDERED | Spliterator.NONNULL),
+                        false)
+                .filter(message -> FixUtils.extractFixVersion(message).isPresent());
+    }
 }
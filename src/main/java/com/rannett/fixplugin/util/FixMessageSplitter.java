@@ -0,0 +1,424 @@
+package com.rannett.fixplugin.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator over the entries of a FIX log, emitting one message (or comment / non-FIX text block)
+ * at a time.
+ * <p>
+ * The splitter can run over an in-memory {@link CharSequence} or stream from a {@link Reader}.
+ * In streaming mode only a sliding window of the input is buffered: text is read in chunks as
+ * the scan needs it and consumed text is discarded once an entry has been emitted. The
+ * boundary rules are identical to {@link FixMessageParser#splitMessages(CharSequence)}, which is
+ * implemented on top of this class.
+ * <p>
+ * After each call to {@link #next()} or {@link #skip()} the character offsets of the returned entry within the
+ * whole input are available through {@link #getEntryStart()} and {@link #getEntryEnd()}.
+ */
+public final class FixMessageSplitter implements Iterator<String> {
+
+    private static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final CharSequence text;
+    private final StringBuilder buffer;
+    private final char[] chunk;
+    private boolean eof;
+
+    /** Absolute offset of the first buffered character. */
+    private long base;
+    /** Scan position relative to {@link #base}. */
+    private int index;
+
+    private boolean pending;
+    private int nextFrom;
+    private int nextTo;
+    private long entryStart = -1;
+    private long entryEnd = -1;
+    private boolean entryComment;
+    private boolean nextOpenEnded;
+    private boolean entryOpenEnded;
+
+    /** Pending message found while a preceding non-FIX block was emitted. */
+    private int pendingStart = -1;
+
+    /**
+     * Create a splitter over text that is already in memory. No copy of the text is made.
+     *
+     * @param text the text to split
+     */
+    public FixMessageSplitter(@NotNull CharSequence text) {
+        this(text, 0);
+    }
+
+    /**
+     * Create a splitter over in-memory text, starting the scan at the given offset.
+     *
+     * @param text      the text to split
+     * @param fromIndex offset at which scanning begins
+     */
+    public FixMessageSplitter(@NotNull CharSequence text, int fromIndex) {
+        this.reader = null;
+        this.text = text;
+        this.buffer = null;
+        this.chunk = null;
+        this.eof = true;
+        this.index = fromIndex;
+    }
+
+    /**
+     * Create a splitter that streams its input from a reader. The reader is not closed by the
+     * splitter.
+     *
+     * @param reader source of the text to split
+     */
+    public FixMessageSplitter(@NotNull Reader reader) {
+        this(reader, DEFAULT_CHUNK_SIZE);
+    }
+
+    FixMessageSplitter(@NotNull Reader reader, int chunkSize) {
+        this.reader = reader;
+        this.buffer = new StringBuilder(chunkSize);
+        this.text = buffer;
+        this.chunk = new char[chunkSize];
+        this.eof = false;
+    }
+
+    /**
+     * Create a streaming splitter over a byte channel. FIX is 7-bit ASCII so the channel is
+     * decoded as ISO-8859-1, which maps every byte to exactly one character.
+     *
+     * @param channel source of the bytes to split
+     * @return a streaming splitter
+     */
+    public static FixMessageSplitter fromChannel(@NotNull ReadableByteChannel channel) {
+        return new FixMessageSplitter(Channels.newReader(channel, StandardCharsets.ISO_8859_1));
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!pending) {
+            advance();
+        }
+        return pending;
+    }
+
+    @Override
+    public String next() {
+        if (!skip()) {
+            throw new NoSuchElementException();
+        }
+        return text.subSequence(nextFrom, nextTo).toString();
+    }
+
+    /**
+     * Moves past the next entry without materializing its text. The entry's offsets are then
+     * available through {@link #getEntryStart()} and {@link #getEntryEnd()}, which makes this the
+     * cheap way to locate message boundaries in large inputs.
+     *
+     * @return {@code false} if there are no more entries
+     */
+    public boolean skip() {
+        if (!hasNext()) {
+            return false;
+        }
+        entryStart = base + nextFrom;
+        entryEnd = base + nextTo;
+        entryComment = text.charAt(nextFrom) == '#';
+        entryOpenEnded = nextOpenEnded;
+        pending = false;
+        return true;
+    }
+
+    /**
+     * @return absolute offset of the first character of the entry last returned by
+     * {@link #next()} or {@link #skip()}
+     */
+    public long getEntryStart() {
+        return entryStart;
+    }
+
+    /**
+     * @return absolute offset just past the last character of the entry last returned by
+     * {@link #next()} or {@link #skip()}
+     */
+    public long getEntryEnd() {
+        return entryEnd;
+    }
+
+    /**
+     * @return {@code true} if the entry last returned by {@link #next()} or {@link #skip()} is a
+     * comment line rather than a message
+     */
+    public boolean isEntryComment() {
+        return entryComment;
+    }
+
+    /**
+     * Returns whether the extent of the entry last returned by {@link #next()} or {@link #skip()}
+     * depends on text beyond its resume position. This is the case for a message without a valid
+     * checksum field: it was cut at a line break only because no checksum field follows anywhere
+     * in the rest of the input.
+     *
+     * @return {@code true} if later text can change where the entry ends
+     */
+    boolean isEntryOpenEnded() {
+        return entryOpenEnded;
+    }
+
+    /**
+     * Returns the absolute offset at which scanning for the next entry resumes. A new splitter
+     * started at this offset over the same text produces the same remaining entries.
+     *
+     * @return the resume offset
+     */
+    public long getPosition() {
+        if (pending) {
+            return base + nextFrom;
+        }
+        return base + (pendingStart >= 0 ? pendingStart : index);
+    }
+
+    private void advance() {
+        if (pendingStart >= 0) {
+            int start = pendingStart;
+            pendingStart = -1;
+            emitMessage(start);
+            return;
+        }
+        compact();
+        while (true) {
+            index = skipNewlines(index);
+            if (!ensure(index)) {
+                return;
+            }
+
+            // Treat comment lines as standalone entries
+            if (text.charAt(index) == '#') {
+                int nl = indexOf('\n', index);
+                if (nl == -1) {
+                    nl = text.length();
+                }
+                setNext(index, nl);
+                index = nl + 1;
+                return;
+            }
+
+            int start = indexOf("8=", index);
+            if (start == -1) {
+                setNextTrimmed(index, text.length());
+                index = text.length();
+                if (pending) {
+                    return;
+                }
+                continue;
+            }
+
+            if (start > index) {
+                setNextTrimmed(index, start);
+                index = start;
+                if (pending) {
+                    pendingStart = start;
+                    return;
+                }
+            }
+
+            emitMessage(start);
+            if (pending) {
+                return;
+            }
+        }
+    }
+
+    private void emitMessage(int start) {
+        int digitsEnd = findChecksumField(start);
+
+        if (digitsEnd == -1) {
+            int nl = indexOf('\n', start);
+            if (nl == -1) {
+                setNextTrimmed(start, text.length());
+                index = text.length();
+            } else {
+                setNextTrimmed(start, nl);
+                index = nl + 1;
+                nextOpenEnded = true;
+            }
+            return;
+        }
+
+        int msgEnd = digitsEnd;
+        if (ensure(msgEnd) && FixTextScanner.isDelimiter(text.charAt(msgEnd))) {
+            msgEnd++;
+        }
+        setNext(start, msgEnd);
+        index = msgEnd;
+    }
+
+    private int findChecksumField(int startIndex) {
+        int searchPosition = startIndex;
+        while (true) {
+            int candidate = indexOf("10=", searchPosition);
+            if (candidate == -1) {
+                return -1;
+            }
+            if (candidate > startIndex) {
+                char previous = text.charAt(candidate - 1);
+                if (!isMessageBoundaryCharacter(previous)) {
+                    searchPosition = candidate + 3;
+                    continue;
+                }
+            }
+
+            int candidateDigitsStart = candidate + 3;
+            int candidateDigitsEnd = consumeDigits(candidateDigitsStart);
+            if (candidateDigitsEnd == candidateDigitsStart) {
+                searchPosition = candidate + 3;
+                continue;
+            }
+
+            if (ensure(candidateDigitsEnd)) {
+                char afterDigits = text.charAt(candidateDigitsEnd);
+                if (!isMessageBoundaryCharacter(afterDigits)) {
+                    searchPosition = candidate + 3;
+                    continue;
+                }
+            }
+
+            return candidateDigitsEnd;
+        }
+    }
+
+    private int consumeDigits(int startIndex) {
+        int position = startIndex;
+        while (ensure(position) && Character.isDigit(text.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    private int skipNewlines(int from) {
+        int position = from;
+        while (ensure(position) && (text.charAt(position) == '\n' || text.charAt(position) == '\r')) {
+            position++;
+        }
+        return position;
+    }
+
+    private void setNext(int start, int end) {
+        pending = true;
+        nextOpenEnded = false;
+        nextFrom = start;
+        nextTo = end;
+    }
+
+    /**
+     * Emits the given range with surrounding whitespace and control characters removed, exactly
+     * as {@link String#trim()} would, or nothing if the trimmed range is empty.
+     */
+    private void setNextTrimmed(int start, int end) {
+        int from = start;
+        int to = end;
+        while (from < to && text.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && text.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        if (from < to) {
+            setNext(from, to);
+        }
+    }
+
+    /**
+     * Makes sure the character at {@code position} is buffered, reading more input if required.
+     *
+     * @return {@code false} if the input ends before {@code position}
+     */
+    private boolean ensure(int position) {
+        while (position >= text.length()) {
+            if (!fill()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int indexOf(char target, int from) {
+        int searchFrom = from;
+        while (true) {
+            int found = FixTextScanner.indexOf(text, target, searchFrom);
+            if (found >= 0) {
+                return found;
+            }
+            int scanned = text.length();
+            if (!fill()) {
+                return -1;
+            }
+            searchFrom = Math.max(searchFrom, scanned);
+        }
+    }
+
+    private int indexOf(String target, int from) {
+        int searchFrom = from;
+        while (true) {
+            int found = FixTextScanner.indexOf(text, target, searchFrom);
+            if (found >= 0) {
+                return found;
+            }
+            int scanned = text.length();
+            if (!fill()) {
+                return -1;
+            }
+            // Re-examine the tail in case the target straddles the old buffer end
+            searchFrom = Math.max(searchFrom, scanned - target.length() + 1);
+        }
+    }
+
+    private boolean fill() {
+        if (eof) {
+            return false;
+        }
+        try {
+            int read;
+            do {
+                read = reader.read(chunk, 0, chunk.length);
+            } while (read == 0);
+            if (read < 0) {
+                eof = true;
+                return false;
+            }
+            buffer.append(chunk, 0, read);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Drops already consumed text from the streaming buffer so that memory use stays bounded
+     * by the size of the largest entry rather than the size of the input.
+     */
+    private void compact() {
+        if (buffer == null || index < chunk.length) {
+            return;
+        }
+        int consumed = Math.min(index, buffer.length());
+        buffer.delete(0, consumed);
+        base += consumed;
+        index -= consumed;
+    }
+
+    private static boolean isMessageBoundaryCharacter(char character) {
+        return FixTextScanner.isDelimiter(character) || character == '\n' || character == '\r';
+    }
+
+}
@@ -0,0 +1,192 @@
+package com.rannett.fixplugin.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Compact, immutable storage for the entries of a FIX log.
+ * <p>
+ * FIX is 7-bit ASCII, so the text of all entries is packed into a single {@code byte[]} with one
+ * byte per character and accessed through lightweight {@link CharSequence} views. Compared with
+ * holding one {@link String} per entry and per field this avoids an object header and array per
+ * string, which dominates the footprint of logs made of many short fields. Characters up to
+ * {@code U+00FF} are stored losslessly; an entry containing anything beyond that is kept as a
+ * regular string instead.
+ */
+public final class FixMessageStore {
+
+    private static final FixMessageStore EMPTY = new Builder().build();
+
+    private final byte[] data;
+    private final int[] starts;
+    /** Entries that could not be stored as single bytes, or {@code null} if there are none. */
+    private final String[] wide;
+
+    private FixMessageStore(byte[] data, int[] starts, String[] wide) {
+        this.data = data;
+        this.starts = starts;
+        this.wide = wide;
+    }
+
+    /**
+     * @return a store without entries
+     */
+    public static FixMessageStore empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @return number of stored entries
+     */
+    public int size() {
+        return starts.length - 1;
+    }
+
+    /**
+     * @param index zero-based entry index
+     * @return a view of the entry text; no copy is made
+     */
+    public CharSequence get(int index) {
+        if (wide != null && wide[index] != null) {
+            return wide[index];
+        }
+        return new ByteCharSequence(data, starts[index], starts[index + 1] - starts[index]);
+    }
+
+    /**
+     * @param index zero-based entry index
+     * @return the entry text as a new string
+     */
+    public String getString(int index) {
+        return get(index).toString();
+    }
+
+    /**
+     * @return approximate number of bytes retained by the stored text
+     */
+    public long getRetainedSize() {
+        long size = data.length + 4L * starts.length;
+        if (wide != null) {
+            for (String entry : wide) {
+                if (entry != null) {
+                    size += 2L * entry.length();
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Appends entries in order and packs them into a store.
+     */
+    public static final class Builder {
+        private byte[] data = new byte[1024];
+        private int length;
+        private int[] starts = new int[65];
+        private int size;
+        private String[] wide;
+
+        /**
+         * Append the characters {@code [start, end)} of the source as a new entry.
+         *
+         * @param source text containing the entry
+         * @param start  offset of the first character
+         * @param end    offset just past the last character
+         * @return this builder
+         */
+        public Builder add(@NotNull CharSequence source, int start, int end) {
+            int count = end - start;
+            ensureCapacity(count);
+            int written = 0;
+            for (; written < count; written++) {
+                char c = source.charAt(start + written);
+                if (c > 0xFF) {
+                    break;
+                }
+                data[length + written] = (byte) c;
+            }
+            if (written < count) {
+                // Not representable as single bytes: keep the entry as a string
+                if (wide == null) {
+                    wide = new String[starts.length];
+                }
+                wide[size] = source.subSequence(start, end).toString();
+            } else {
+                length += count;
+            }
+            size++;
+            starts[size] = length;
+            return this;
+        }
+
+        /**
+         * Append a whole character sequence as a new entry.
+         *
+         * @param entry entry text
+         * @return this builder
+         */
+        public Builder add(@NotNull CharSequence entry) {
+            return add(entry, 0, entry.length());
+        }
+
+        public FixMessageStore build() {
+            String[] wideEntries = wide != null ? Arrays.copyOf(wide, size) : null;
+            return new FixMessageStore(Arrays.copyOf(data, length), Arrays.copyOf(starts, size + 1), wideEntries);
+        }
+
+        private void ensureCapacity(int count) {
+            if (length + count > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + count));
+            }
+            if (size + 2 > starts.length) {
+                starts = Arrays.copyOf(starts, starts.length * 2);
+                if (wide != null) {
+                    wide = Arrays.copyOf(wide, starts.length);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read-only view of a range of Latin-1 bytes as characters.
+     */
+    static final class ByteCharSequence implements CharSequence {
+        private final byte[] data;
+        private final int offset;
+        private final int length;
+
+        ByteCharSequence(byte[] data, int offset, int length) {
+            this.data = data;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+            }
+            return (char) (data[offset + index] & 0xFF);
+        }
+
+        @Override
+        public @NotNull CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length || start > end) {
+                throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+            }
+            return new ByteCharSequence(data, offset + start, end - start);
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return new String(data, offset, length, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.rannett.fixplugin.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Answers which message and field of a FIX document lie at a given offset.
+ * <p>
+ * Entry ranges come from {@link FixEntryBoundaries} and are found by binary search. The field
+ * ranges of a message are collected with a {@link FixFieldCursor} the first time an offset in it
+ * is looked up and are then searched the same way, so moving the caret within a message does not
+ * scan any text. After an edit, {@link #applyEdit(CharSequence, int, int, int)} rescans only the
+ * entries around the edited range. The value of a field of a given message is found the same
+ * way, so that table edits can replace exactly its range. Instances are not thread-safe.
+ */
+public final class FixOffsetIndex {
+
+    private static final int FIELD_SLOTS = 4;
+
+    private final CharSequence text;
+    private final FixEntryBoundaries boundaries;
+    /** One-based message number of each entry, or {@code -1} for comment and blank entries. */
+    private final int[] messageNumbers;
+    /** Entry of each message, in ascending order. */
+    private final int[] messageEntries;
+
+    // Field ranges of the entry looked up last: tag start, value start, value end and tag of each field
+    private int cachedEntry = -1;
+    private int[] cachedFields;
+    private final FixFieldCursor cursor = new FixFieldCursor();
+
+    private FixOffsetIndex(CharSequence text, FixEntryBoundaries boundaries, int[] messageNumbers) {
+        this.text = text;
+        this.boundaries = boundaries;
+        this.messageNumbers = messageNumbers;
+        int count = 0;
+        for (int number : messageNumbers) {
+            if (number > 0) {
+                count++;
+            }
+        }
+        this.messageEntries = new int[count];
+        for (int i = 0, j = 0; i < messageNumbers.length; i++) {
+            if (messageNumbers[i] > 0) {
+                messageEntries[j++] = i;
+            }
+        }
+    }
+
+    /**
+     * Index the given text.
+     *
+     * @param text document text; it must not change afterwards
+     * @return the index
+     */
+    public static FixOffsetIndex build(@NotNull CharSequence text) {
+        FixEntryBoundaries boundaries = FixEntryBoundaries.scan(text);
+        int[] messageNumbers = new int[boundaries.size()];
+        number(text, boundaries, 0, boundaries.size(), 1, messageNumbers);
+        return new FixOffsetIndex(text, boundaries, messageNumbers);
+    }
+
+    /**
+     * Update the index for an edit that replaced {@code oldLength} characters at {@code offset}
+     * by {@code newLength} characters.
+     *
+     * @param newText   the document text after the edit; it must not change afterwards
+     * @param offset    offset of the edit
+     * @param oldLength number of characters removed
+     * @param newLength number of characters inserted
+     * @return an index of the new text
+     */
+    public FixOffsetIndex applyEdit(@NotNull CharSequence newText, int offset, int oldLength, int newLength) {
+        FixEntryBoundaries.Edit edit = boundaries.applyEdit(newText, offset, oldLength, newLength);
+        FixEntryBoundaries updated = edit.getBoundaries();
+        int first = edit.getFirstEntry();
+        int removed = edit.getRemovedCount();
+        int inserted = edit.getInsertedCount();
+
+        int[] numbers = new int[updated.size()];
+        System.arraycopy(messageNumbers, 0, numbers, 0, first);
+        int nextNumber = nextMessageNumber(messageNumbers, first);
+        int removedMessages = 0;
+        for (int i = first; i < first + removed; i++) {
+            if (messageNumbers[i] > 0) {
+                removedMessages++;
+            }
+        }
+        int insertedMessages = number(newText, updated, first, first + inserted, nextNumber, numbers);
+        int shift = insertedMessages - removedMessages;
+        for (int i = first + removed, j = first + inserted; i < messageNumbers.length; i++, j++) {
+            numbers[j] = messageNumbers[i] > 0 ? messageNumbers[i] + shift : -1;
+        }
+        return new FixOffsetIndex(newText, updated, numbers);
+    }
+
+    /**
+     * Finds the entry containing the given offset. An offset equal to an entry's end offset is
+     * considered part of that entry so that a caret placed right after a message maps to it.
+     *
+     * @param offset character offset in the indexed text
+     * @return zero-based entry number or {@code -1} if the offset lies between entries
+     */
+    public int findEntryAt(int offset) {
+        int low = 0;
+        int high = boundaries.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (boundaries.getStart(middle) <= offset) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high >= 0 && offset <= boundaries.getEnd(high) ? high : -1;
+    }
+
+    /**
+     * @return number of entries, including comment and blank ones
+     */
+    public int getEntryCount() {
+        return boundaries.size();
+    }
+
+    /**
+     * @param entry zero-based entry number
+     * @return offset of the first character of the entry
+     */
+    public int getStart(int entry) {
+        return boundaries.getStart(entry);
+    }
+
+    /**
+     * @param entry zero-based entry number
+     * @return one-based message number of the entry or {@code -1} if it is not a FIX message
+     */
+    public int getMessageNumber(int entry) {
+        return messageNumbers[entry];
+    }
+
+    /**
+     * @param messageNumber one-based message number
+     * @return zero-based entry number of the message or {@code -1} if out of range
+     */
+    public int getEntryForMessage(int messageNumber) {
+        if (messageNumber < 1 || messageNumber > messageEntries.length) {
+            return -1;
+        }
+        return messageEntries[messageNumber - 1];
+    }
+
+    /**
+     * Finds a field of a message by tag number. Only whole tags match, so looking for tag
+     * {@code 5} does not find {@code 55}.
+     *
+     * @param messageNumber one-based message number
+     * @param tag           tag number
+     * @param occurrence    one-based occurrence of the tag within the message
+     * @return the field or {@code null} if the message does not have that many such fields
+     */
+    public @Nullable Field findField(int messageNumber, int tag, int occurrence) {
+        int entry = getEntryForMessage(messageNumber);
+        if (entry < 0 || occurrence < 1) {
+            return null;
+        }
+        int[] fields = getFields(entry);
+        int seen = 0;
+        for (int i = 0; i < fields.length; i += FIELD_SLOTS) {
+            if (fields[i + 3] == tag && ++seen == occurrence) {
+                return field(entry, fields, i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the field whose {@code tag=value} text contains the given offset, including the
+     * offset just past its value.
+     *
+     * @param offset character offset in the indexed text
+     * @return the field or {@code null} if the offset is not inside a field of a message
+     */
+    public @Nullable Field findFieldAt(int offset) {
+        int entry = findEntryAt(offset);
+        if (entry < 0 || messageNumbers[entry] < 0) {
+            return null;
+        }
+        int[] fields = getFields(entry);
+        // Last field starting at or before the offset
+        int low = 0;
+        int high = fields.length / FIELD_SLOTS - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (fields[FIELD_SLOTS * middle] <= offset) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (high < 0 || offset > fields[FIELD_SLOTS * high + 2]) {
+            return null;
+        }
+        return field(entry, fields, FIELD_SLOTS * high);
+    }
+
+    private Field field(int entry, int[] fields, int slot) {
+        return new Field(messageNumbers[entry], fields[slot + 3], fields[slot], fields[slot + 1], fields[slot + 2]);
+    }
+
+    private int[] getFields(int entry) {
+        if (entry != cachedEntry) {
+            FixEntryBoundaries.IntList fields = new FixEntryBoundaries.IntList();
+            cursor.reset(text, boundaries.getStart(entry), boundaries.getEnd(entry));
+            while (cursor.next()) {
+                if (cursor.tag() >= 0) {
+                    fields.add(cursor.tagStart());
+                    fields.add(cursor.valueStart());
+                    fields.add(cursor.valueEnd());
+                    fields.add(cursor.tag());
+                }
+            }
+            cachedFields = fields.toArray();
+            cachedEntry = entry;
+        }
+        return cachedFields;
+    }
+
+    /**
+     * Numbers the messages among entries {@code [from, to)} the way {@link FixParsedMessages}
+     * does: entries that are blank or start with {@code #} are not messages.
+     *
+     * @return the number of messages found
+     */
+    private static int number(CharSequence text, FixEntryBoundaries boundaries, int from, int to,
+                              int firstNumber, int[] target) {
+        int number = firstNumber;
+        for (int i = from; i < to; i++) {
+            int position = boundaries.getStart(i);
+            int end = boundaries.getEnd(i);
+            while (position < end && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+            target[i] = position < end && text.charAt(position) != '#' ? number++ : -1;
+        }
+        return number - firstNumber;
+    }
+
+    private static int nextMessageNumber(int[] numbers, int entry) {
+        for (int i = entry - 1; i >= 0; i--) {
+            if (numbers[i] > 0) {
+                return numbers[i] + 1;
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * A field found by {@link #findFieldAt(int)} or {@link #findField(int, int, int)}.
+     *
+     * @param messageNumber one-based number of the message containing the field
+     * @param tag           tag number
+     * @param start         offset of the first character of the tag
+     * @param valueStart    offset of the first character of the value
+     * @param end           offset just past the last character of the value
+     */
+    public record Field(int messageNumber, int tag, int start, int valueStart, int end) {
+    }
+}
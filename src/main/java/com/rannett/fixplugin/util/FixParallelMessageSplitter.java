@@ -0,0 +1,202 @@
+package com.rannett.fixplugin.util;
+
+import com.rannett.fixplugin.util.FixEntryBoundaries.IntList;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Splits large in-memory FIX logs on all cores while producing exactly the entries of the
+ * sequential {@link FixMessageSplitter}.
+ * <p>
+ * The text is cut into segments at line breaks and each segment is scanned speculatively on the
+ * fork/join common pool, recording every position at which its splitter resumes scanning. The
+ * segments are then stitched together in order: a segment's entries are only reused from the
+ * point where the sequential position reaches one of its resume positions. Because a splitter
+ * started at a resume position produces the same remaining entries as one that got there by
+ * scanning, the result is identical to a sequential scan. Where a segment started in the middle
+ * of a message, e.g. inside a DATA field containing line breaks or {@code 10=}, its first
+ * entries are simply discarded and the stitching step rescans up to the next common position.
+ */
+public final class FixParallelMessageSplitter {
+
+    /** Inputs shorter than this are split sequentially. */
+    static final int PARALLEL_THRESHOLD = 4 * 1024 * 1024;
+    private static final int MIN_SEGMENT_LENGTH = 1024 * 1024;
+
+    private FixParallelMessageSplitter() {
+    }
+
+    /**
+     * Split the text into entries, in parallel when it is large enough to benefit.
+     *
+     * @param text text to split; it must not change while it is being split
+     * @return the same entries as {@link FixMessageParser#splitMessages(CharSequence)}
+     */
+    public static List<String> split(@NotNull CharSequence text) {
+        return split(text, defaultSegmentCount(text.length()));
+    }
+
+    static List<String> split(@NotNull CharSequence text, int segmentCount) {
+        int[] bounds = findEntryBoundaries(text, segmentCount);
+        String[] entries = new String[bounds.length / 2];
+        IntStream range = IntStream.range(0, entries.length);
+        if (segmentCount > 1) {
+            range = range.parallel();
+        }
+        range.forEach(i -> entries[i] = text.subSequence(bounds[2 * i], bounds[2 * i + 1]).toString());
+        return new ArrayList<>(Arrays.asList(entries));
+    }
+
+    /**
+     * Locate the entries of the text without materializing them.
+     *
+     * @param text text to split; it must not change while it is being split
+     * @return start and end offsets of each entry, as consecutive pairs
+     */
+    public static int[] findEntryBoundaries(@NotNull CharSequence text) {
+        return findEntryBoundaries(text, defaultSegmentCount(text.length()));
+    }
+
+    static int[] findEntryBoundaries(@NotNull CharSequence text, int segmentCount) {
+        return scan(text, segmentCount).toArray();
+    }
+
+    static FixEntryBoundaries scan(@NotNull CharSequence text) {
+        return scan(text, defaultSegmentCount(text.length()));
+    }
+
+    static FixEntryBoundaries scan(@NotNull CharSequence text, int segmentCount) {
+        int[] syncPoints = syncPoints(text, segmentCount);
+        Segment[] segments = new Segment[syncPoints.length];
+        IntStream range = IntStream.range(0, segments.length);
+        if (segments.length > 1) {
+            range = range.parallel();
+        }
+        range.forEach(i -> {
+            int limit = i + 1 < syncPoints.length ? syncPoints[i + 1] : Integer.MAX_VALUE;
+            segments[i] = Segment.scan(text, syncPoints[i], limit);
+        });
+        return stitch(text, segments, syncPoints);
+    }
+
+    private static int defaultSegmentCount(int length) {
+        if (length < PARALLEL_THRESHOLD) {
+            return 1;
+        }
+        int bySize = length / MIN_SEGMENT_LENGTH;
+        return Math.max(1, Math.min(bySize, ForkJoinPool.getCommonPoolParallelism() * 4));
+    }
+
+    /**
+     * Chooses segment starts just before line breaks, where a message usually ends. The first
+     * segment always starts at zero and starts are strictly increasing.
+     */
+    private static int[] syncPoints(CharSequence text, int segmentCount) {
+        int length = text.length();
+        int[] points = new int[Math.max(1, segmentCount)];
+        int count = 1;
+        for (int i = 1; i < segmentCount; i++) {
+            int position = Math.max((int) ((long) length * i / segmentCount), points[count - 1] + 1);
+            while (position < length && text.charAt(position) != '\n') {
+                position++;
+            }
+            if (position >= length) {
+                break;
+            }
+            points[count++] = position;
+        }
+        return Arrays.copyOf(points, count);
+    }
+
+    private static FixEntryBoundaries stitch(CharSequence text, Segment[] segments, int[] syncPoints) {
+        IntList bounds = new IntList();
+        IntList resumes = new IntList();
+        IntList openEnded = new IntList();
+        int position = 0;
+        resumes.add(position);
+        for (int i = 0; i < segments.length; i++) {
+            Segment segment = segments[i];
+            int limit = i + 1 < syncPoints.length ? syncPoints[i + 1] : Integer.MAX_VALUE;
+            int aligned = segment.indexOfResume(position);
+            if (aligned < 0) {
+                // The speculative scan started out of step; rescan until both agree
+                FixMessageSplitter splitter = new FixMessageSplitter(text, position);
+                while (aligned < 0 && position < limit) {
+                    if (!splitter.skip()) {
+                        return new FixEntryBoundaries(bounds.toArray(), resumes.toArray(), openEnded.toArray());
+                    }
+                    if (splitter.isEntryOpenEnded()) {
+                        openEnded.add(bounds.size / 2);
+                    }
+                    bounds.add((int) splitter.getEntryStart());
+                    bounds.add((int) splitter.getEntryEnd());
+                    position = (int) splitter.getPosition();
+                    resumes.add(position);
+                    aligned = segment.indexOfResume(position);
+                }
+            }
+            if (aligned >= 0) {
+                segment.appendFrom(aligned, bounds, resumes, openEnded);
+                position = segment.finalResume();
+            }
+        }
+        return new FixEntryBoundaries(bounds.toArray(), resumes.toArray(), openEnded.toArray());
+    }
+
+    /**
+     * Entries found by a speculative scan starting at a sync point, together with the resume
+     * position before each entry and after the last one.
+     */
+    private static final class Segment {
+        private final IntList bounds = new IntList();
+        private final IntList resumes = new IntList();
+        private final IntList openEnded = new IntList();
+
+        static Segment scan(CharSequence text, int from, int limit) {
+            Segment segment = new Segment();
+            FixMessageSplitter splitter = new FixMessageSplitter(text, from);
+            segment.resumes.add(from);
+            while (splitter.getPosition() < limit && splitter.skip()) {
+                if (splitter.isEntryOpenEnded()) {
+                    segment.openEnded.add(segment.bounds.size / 2);
+                }
+                segment.bounds.add((int) splitter.getEntryStart());
+                segment.bounds.add((int) splitter.getEntryEnd());
+                segment.resumes.add((int) splitter.getPosition());
+            }
+            return segment;
+        }
+
+        /**
+         * @return index of the entry scanned from the given resume position, or {@code -1}
+         */
+        int indexOfResume(int position) {
+            int found = Arrays.binarySearch(resumes.values, 0, resumes.size, position);
+            return found >= 0 ? found : -1;
+        }
+
+        void appendFrom(int entry, IntList targetBounds, IntList targetResumes, IntList targetOpenEnded) {
+            int offset = targetBounds.size / 2 - entry;
+            for (int i = 0; i < openEnded.size; i++) {
+                if (openEnded.values[i] >= entry) {
+                    targetOpenEnded.add(openEnded.values[i] + offset);
+                }
+            }
+            for (int i = 2 * entry; i < bounds.size; i++) {
+                targetBounds.add(bounds.values[i]);
+            }
+            for (int i = entry + 1; i < resumes.size; i++) {
+                targetResumes.add(resumes.values[i]);
+            }
+        }
+
+        int finalResume() {
+            return resumes.values[resumes.size - 1];
+        }
+    }
+}
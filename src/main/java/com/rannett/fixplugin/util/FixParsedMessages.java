@@ -0,0 +1,666 @@
+package com.rannett.fixplugin.util;
+
+import com.intellij.openapi.progress.ProgressManager;
+import com.rannett.fixplugin.dictionary.FixDataDictionaryCache;
+import com.rannett.fixplugin.settings.FixViewerSettingsState.DictionaryEntry;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import quickfix.DataDictionary;
+import quickfix.Message;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The parsed form of one version of a FIX document, shared by the table, tree and timeline views.
+ * <p>
+ * The text is split and classified once when the model is created. Field slices and QuickFIX/J
+ * messages are computed on first use and then reused by every view, so a document edit costs a
+ * single parse regardless of how many views display it. QuickFIX/J messages are cached per
+ * {@link DataDictionary}; views asking for the same FIX version and dictionary through
+ * {@link #getDataDictionary(String, DictionaryEntry)} therefore share the same parsed message.
+ * <p>
+ * Entry text is held once, in a {@link FixMessageStore}; fields are kept as offsets into it and
+ * strings are only created when a caller asks for one.
+ * <p>
+ * A model parsed from document text can be updated for an edit with
+ * {@link #applyEdit(CharSequence, int, int, int)}. Only the entries around the edited range are
+ * split and stored again; all other entries, including their parsed fields and QuickFIX/J
+ * messages, are carried over, and {@link #getChange()} tells views which entries to refresh.
+ * Entries after the edit are renumbered lazily, when they are first accessed, so an edit costs
+ * time proportional to the entries it replaced rather than to the size of the document. Every
+ * {@link #MAX_EDIT_DEPTH} edits the entry lists are flattened, which bounds the cost of access.
+ */
+public final class FixParsedMessages {
+
+    private static final String DEFAULT_VERSION = "FIXT.1.1";
+    // Entries processed between cancellation checks
+    private static final int CANCEL_CHECK_INTERVAL = 1024;
+    // Successive edits resolved through base models before the entry lists are flattened
+    static final int MAX_EDIT_DEPTH = 8;
+
+    private final List<Entry> entries;
+    private final List<Entry> messages;
+    private final String fixVersion;
+    private final Map<String, DataDictionary> dictionaries;
+    /** Boundaries of the entries in the document, or {@code null} if the model was not parsed from one. */
+    private final FixEntryBoundaries boundaries;
+    private final Change change;
+    /** Number of edits since the entry lists were last flattened. */
+    private final int editDepth;
+
+    private FixParsedMessages(List<Entry> entries, List<Entry> messages, int editDepth, FixEntryBoundaries boundaries,
+                              String fixVersion, Map<String, DataDictionary> dictionaries, Change change) {
+        this.entries = entries;
+        this.messages = messages;
+        this.editDepth = editDepth;
+        this.boundaries = boundaries;
+        this.fixVersion = fixVersion;
+        this.dictionaries = dictionaries;
+        this.change = change;
+    }
+
+    private static FixParsedMessages create(FixMessageStore store, FixEntryBoundaries boundaries,
+                                            int entriesBefore, int messagesBefore) {
+        List<Entry> entries = new ArrayList<>(store.size());
+        classify(store, entriesBefore, messagesBefore + 1, entries);
+        return new FixParsedMessages(Collections.unmodifiableList(entries), messagesOf(entries), 0, boundaries,
+                detectVersion(entries), new ConcurrentHashMap<>(), null);
+    }
+
+    private static List<Entry> messagesOf(List<Entry> entries) {
+        List<Entry> fixMessages = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            if (entry.isMessage()) {
+                fixMessages.add(entry);
+            }
+        }
+        return Collections.unmodifiableList(fixMessages);
+    }
+
+    /**
+     * Creates entries for all text held by the store and appends them to the list.
+     *
+     * @return the number of entries that are messages
+     */
+    private static int classify(FixMessageStore store, int firstIndex, int firstMessageNumber, List<Entry> target) {
+        int messageNumber = firstMessageNumber;
+        for (int i = 0; i < store.size(); i++) {
+            checkCanceled(i);
+            CharSequence raw = store.get(i);
+            int start = 0;
+            int end = raw.length();
+            while (start < end && Character.isWhitespace(raw.charAt(start))) {
+                start++;
+            }
+            while (end > start && Character.isWhitespace(raw.charAt(end - 1))) {
+                end--;
+            }
+            boolean message = start < end && raw.charAt(start) != '#';
+            target.add(new Entry(store, i, firstIndex + i, message ? messageNumber++ : -1, start, end));
+        }
+        return messageNumber - firstMessageNumber;
+    }
+
+    private static String detectVersion(List<Entry> entries) {
+        String first = entries.isEmpty() ? "" : entries.get(0).getRaw();
+        return FixUtils.extractFixVersion(first).orElse(null);
+    }
+
+    /**
+     * Checks for cancellation of the current progress every {@link #CANCEL_CHECK_INTERVAL}
+     * entries, so that a parse running in a cancellable read action stops promptly.
+     */
+    private static void checkCanceled(int entry) {
+        if (entry % CANCEL_CHECK_INTERVAL == 0) {
+            ProgressManager.checkCanceled();
+        }
+    }
+
+    /**
+     * Split and classify the given document text. Parsing stops with a
+     * {@link com.intellij.openapi.progress.ProcessCanceledException} if the current progress is
+     * cancelled.
+     *
+     * @param text document text
+     * @return the parsed model
+     */
+    public static FixParsedMessages parse(@NotNull CharSequence text) {
+        FixEntryBoundaries boundaries = FixEntryBoundaries.scan(text);
+        FixMessageStore.Builder builder = new FixMessageStore.Builder();
+        for (int i = 0; i < boundaries.size(); i++) {
+            checkCanceled(i);
+            builder.add(text, boundaries.getStart(i), boundaries.getEnd(i));
+        }
+        return create(builder.build(), boundaries, 0, 0);
+    }
+
+    /**
+     * Wrap entries that were already split, e.g. by {@link FixMessageParser#splitMessages(CharSequence)}.
+     *
+     * @param rawEntries entries in document order
+     * @return the parsed model
+     */
+    public static FixParsedMessages of(@NotNull List<String> rawEntries) {
+        return of(rawEntries, 0, 0);
+    }
+
+    /**
+     * Wrap entries that are a contiguous part of a larger log, such as one page of a compressed
+     * log. Entries and messages are numbered by their position in the whole log.
+     *
+     * @param rawEntries     entries in log order
+     * @param entriesBefore  number of entries in the log before the first one
+     * @param messagesBefore number of messages in the log before the first one
+     * @return the parsed model
+     */
+    public static FixParsedMessages of(@NotNull List<String> rawEntries, int entriesBefore, int messagesBefore) {
+        FixMessageStore.Builder builder = new FixMessageStore.Builder();
+        for (String entry : rawEntries) {
+            builder.add(entry);
+        }
+        return create(builder.build(), null, entriesBefore, messagesBefore);
+    }
+
+    /**
+     * Returns the model for the document after an edit that replaced {@code oldLength}
+     * characters at {@code offset} by {@code newLength} characters. Entries outside the affected
+     * range are reused; the affected range is described by {@link #getChange()} of the result.
+     * A model that was not created by {@link #parse(CharSequence)} is parsed again in full.
+     *
+     * @param text      the document text after the edit
+     * @param offset    offset of the edit
+     * @param oldLength number of characters removed
+     * @param newLength number of characters inserted
+     * @return the updated model
+     */
+    public FixParsedMessages applyEdit(@NotNull CharSequence text, int offset, int oldLength, int newLength) {
+        if (boundaries == null) {
+            FixParsedMessages parsed = parse(text);
+            Change all = new Change(0, entries.size(), parsed.entries.size(),
+                    0, messages.size(), parsed.messages.size());
+            return new FixParsedMessages(parsed.entries, parsed.messages, 0, parsed.boundaries, parsed.fixVersion,
+                    parsed.dictionaries, all);
+        }
+
+        FixEntryBoundaries.Edit edit = boundaries.applyEdit(text, offset, oldLength, newLength);
+        FixEntryBoundaries updated = edit.getBoundaries();
+        int first = edit.getFirstEntry();
+        int removed = edit.getRemovedCount();
+        int inserted = edit.getInsertedCount();
+
+        int firstMessage = countMessagesBefore(first);
+        int removedMessages = 0;
+        for (int i = first; i < first + removed; i++) {
+            if (entries.get(i).isMessage()) {
+                removedMessages++;
+            }
+        }
+
+        FixMessageStore.Builder builder = new FixMessageStore.Builder();
+        for (int i = first; i < first + inserted; i++) {
+            checkCanceled(i - first);
+            builder.add(text, updated.getStart(i), updated.getEnd(i));
+        }
+        List<Entry> insertedEntries = new ArrayList<>(inserted);
+        int insertedMessages = classify(builder.build(), first, firstMessage + 1, insertedEntries);
+
+        EditedEntries updatedEntries = new EditedEntries(entries, first, removed, insertedEntries,
+                insertedMessages - removedMessages);
+        List<Entry> updatedMessages = new EditedMessages(messages, firstMessage, removedMessages,
+                messagesOf(insertedEntries), updatedEntries);
+        String version = first == 0 ? detectVersion(updatedEntries) : fixVersion;
+        Change change = new Change(first, removed, inserted, firstMessage, removedMessages, insertedMessages);
+        if (editDepth + 1 >= MAX_EDIT_DEPTH) {
+            List<Entry> flattened = new ArrayList<>(updatedEntries);
+            return new FixParsedMessages(Collections.unmodifiableList(flattened), messagesOf(flattened), 0,
+                    updated, version, dictionaries, change);
+        }
+        return new FixParsedMessages(updatedEntries, updatedMessages, editDepth + 1, updated, version,
+                dictionaries, change);
+    }
+
+    /**
+     * @param entry zero-based entry position
+     * @return number of messages before the entry
+     */
+    private int countMessagesBefore(int entry) {
+        int low = 0;
+        int high = messages.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (messages.get(middle).index < entry) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return how this model differs from the one it was derived from by
+     * {@link #applyEdit(CharSequence, int, int, int)}, or {@code null} if it was parsed from scratch
+     */
+    public @Nullable Change getChange() {
+        return change;
+    }
+
+    /**
+     * @return all entries in document order, including comment lines
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return the entries that are FIX messages, i.e. neither blank nor comment lines
+     */
+    public List<Entry> getMessages() {
+        return messages;
+    }
+
+    /**
+     * @param messageNumber one-based message number, as returned by {@link Entry#getMessageNumber()}
+     * @return the message or {@code null} if out of range
+     */
+    public @Nullable Entry getMessage(int messageNumber) {
+        if (messages.isEmpty()) {
+            return null;
+        }
+        int index = messageNumber - messages.get(0).getMessageNumber();
+        return index >= 0 && index < messages.size() ? messages.get(index) : null;
+    }
+
+    /**
+     * @return the raw entries as produced by the splitter
+     */
+    public List<String> getRawEntries() {
+        List<String> raw = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            raw.add(entry.getRaw());
+        }
+        return raw;
+    }
+
+    /**
+     * @return approximate number of bytes retained by the text of all entries
+     */
+    public long getRetainedTextSize() {
+        long size = 0;
+        Set<FixMessageStore> stores = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Entry entry : entries) {
+            if (stores.add(entry.store)) {
+                size += entry.store.getRetainedSize();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return FIX version declared by the first entry or {@code null} if it has none
+     */
+    public @Nullable String getFixVersion() {
+        return fixVersion;
+    }
+
+    /**
+     * @return FIX version declared by the first entry, falling back to {@code FIXT.1.1}
+     */
+    public @NotNull String getFixVersionOrDefault() {
+        return fixVersion != null ? fixVersion : DEFAULT_VERSION;
+    }
+
+    /**
+     * Returns the dictionary for the given version and entry from the shared
+     * {@link FixDataDictionaryCache}, or, without an application, loads it at most once per
+     * model. A {@code null} entry and a built-in entry for the same version resolve to the same
+     * dictionary instance.
+     *
+     * @param version FIX version
+     * @param entry   selected dictionary or {@code null} for the built-in one
+     * @return the dictionary or {@code null} if none could be loaded
+     */
+    public @Nullable DataDictionary getDataDictionary(@NotNull String version, @Nullable DictionaryEntry entry) {
+        FixDataDictionaryCache cache = FixDataDictionaryCache.getInstance();
+        if (cache != null) {
+            return cache.getDictionary(version, entry);
+        }
+        return dictionaries.computeIfAbsent(FixDataDictionaryCache.getCacheKey(version, entry),
+                k -> FixMessageParser.loadDataDictionary(version, entry));
+    }
+
+    /**
+     * The range of entries, and of messages among them, that an edit replaced. Entries before the
+     * range are identical in both models; entries after it are the same entries at shifted
+     * positions. Positions are zero-based.
+     */
+    public static final class Change {
+        private final int firstEntry;
+        private final int removedEntries;
+        private final int insertedEntries;
+        private final int firstMessage;
+        private final int removedMessages;
+        private final int insertedMessages;
+
+        Change(int firstEntry, int removedEntries, int insertedEntries,
+               int firstMessage, int removedMessages, int insertedMessages) {
+            this.firstEntry = firstEntry;
+            this.removedEntries = removedEntries;
+            this.insertedEntries = insertedEntries;
+            this.firstMessage = firstMessage;
+            this.removedMessages = removedMessages;
+            this.insertedMessages = insertedMessages;
+        }
+
+        /**
+         * Combines this change with one that was applied to its result.
+         *
+         * @param next change applied after this one
+         * @return a single change with the same overall effect
+         */
+        public Change then(@NotNull Change next) {
+            int[] entryRange = combine(firstEntry, removedEntries, insertedEntries,
+                    next.firstEntry, next.removedEntries, next.insertedEntries);
+            int[] messageRange = combine(firstMessage, removedMessages, insertedMessages,
+                    next.firstMessage, next.removedMessages, next.insertedMessages);
+            return new Change(entryRange[0], entryRange[1], entryRange[2],
+                    messageRange[0], messageRange[1], messageRange[2]);
+        }
+
+        private static int[] combine(int first, int removed, int inserted,
+                                     int nextFirst, int nextRemoved, int nextInserted) {
+            // Union of both ranges, in the coordinates between the two changes
+            int start = Math.min(first, nextFirst);
+            int end = Math.max(first + inserted, nextFirst + nextRemoved);
+            return new int[]{start, end - inserted + removed - start, end - nextRemoved + nextInserted - start};
+        }
+
+        public int getFirstEntry() {
+            return firstEntry;
+        }
+
+        public int getRemovedEntries() {
+            return removedEntries;
+        }
+
+        public int getInsertedEntries() {
+            return insertedEntries;
+        }
+
+        public int getFirstMessage() {
+            return firstMessage;
+        }
+
+        public int getRemovedMessages() {
+            return removedMessages;
+        }
+
+        public int getInsertedMessages() {
+            return insertedMessages;
+        }
+    }
+
+    /**
+     * A list of a model derived by an edit from the same list of its base model. Elements before
+     * the edit are those of the base list, followed by the inserted elements; elements after the
+     * edit are resolved from the base list when accessed, so creating the list only costs the edit.
+     */
+    private abstract static class EditedList extends AbstractList<Entry> implements RandomAccess {
+        final List<Entry> base;
+        final int first;
+        final List<Entry> inserted;
+        /** Position of an element after the edit minus its position in the base list. */
+        final int shift;
+        private final int size;
+
+        EditedList(List<Entry> base, int first, int removed, List<Entry> inserted) {
+            this.base = base;
+            this.first = first;
+            this.inserted = inserted;
+            this.shift = inserted.size() - removed;
+            this.size = base.size() + shift;
+        }
+
+        @Override
+        public Entry get(int index) {
+            Objects.checkIndex(index, size);
+            if (index < first) {
+                return base.get(index);
+            }
+            if (index < first + inserted.size()) {
+                return inserted.get(index - first);
+            }
+            return getFollowing(index);
+        }
+
+        /**
+         * @param index position of an element after the edit
+         * @return the base element, renumbered for this list
+         */
+        abstract Entry getFollowing(int index);
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private static final class EditedEntries extends EditedList {
+        private final int messageShift;
+        /** Entries after the edit that have been renumbered so far, so each has one instance. */
+        private final Map<Integer, Entry> moved = new ConcurrentHashMap<>();
+
+        EditedEntries(List<Entry> base, int first, int removed, List<Entry> inserted, int messageShift) {
+            super(base, first, removed, inserted);
+            this.messageShift = messageShift;
+        }
+
+        @Override
+        Entry getFollowing(int index) {
+            if (shift == 0 && messageShift == 0) {
+                return base.get(index);
+            }
+            return moved.computeIfAbsent(index, i -> base.get(i - shift).moveBy(shift, messageShift));
+        }
+    }
+
+    private static final class EditedMessages extends EditedList {
+        private final EditedEntries entries;
+
+        EditedMessages(List<Entry> base, int first, int removed, List<Entry> inserted, EditedEntries entries) {
+            super(base, first, removed, inserted);
+            this.entries = entries;
+        }
+
+        @Override
+        Entry getFollowing(int index) {
+            return entries.get(base.get(index - shift).index + entries.shift);
+        }
+    }
+
+    /**
+     * A single entry of the document: a FIX message, a comment line or other text.
+     */
+    public static final class Entry {
+        private final FixMessageStore store;
+        /** Position of the text within the store. */
+        private final int storeIndex;
+        private final int index;
+        private final int messageNumber;
+        private final int textStart;
+        private final int textEnd;
+
+        /** Tag start, tag end, value start and value end of each field, relative to the text. */
+        private volatile int[] fields;
+
+        private DataDictionary parsedWith;
+        private Message parsed;
+        private Exception parseError;
+
+        private Entry(FixMessageStore store, int storeIndex, int index, int messageNumber, int textStart, int textEnd) {
+            this.store = store;
+            this.storeIndex = storeIndex;
+            this.index = index;
+            this.messageNumber = messageNumber;
+            this.textStart = textStart;
+            this.textEnd = textEnd;
+        }
+
+        /**
+         * Returns this entry at a new position, sharing its text and parsed state.
+         */
+        private Entry moveBy(int entryShift, int messageShift) {
+            if (entryShift == 0 && (messageShift == 0 || !isMessage())) {
+                return this;
+            }
+            Entry moved = new Entry(store, storeIndex, index + entryShift,
+                    isMessage() ? messageNumber + messageShift : -1, textStart, textEnd);
+            moved.fields = fields;
+            synchronized (this) {
+                moved.parsedWith = parsedWith;
+                moved.parsed = parsed;
+                moved.parseError = parseError;
+            }
+            return moved;
+        }
+
+        /**
+         * @return one-based position of the entry among all entries
+         */
+        public int getEntryNumber() {
+            return index + 1;
+        }
+
+        /**
+         * @return one-based message number or {@code -1} for blank and comment entries
+         */
+        public int getMessageNumber() {
+            return messageNumber;
+        }
+
+        /**
+         * @return whether the entry is a FIX message rather than a blank or comment line
+         */
+        public boolean isMessage() {
+            return messageNumber > 0;
+        }
+
+        /**
+         * @return the {@code "Message N"} identifier used by the table view or {@code null}
+         */
+        public @Nullable String getMessageId() {
+            return isMessage() ? "Message " + messageNumber : null;
+        }
+
+        /**
+         * @return the entry text as produced by the splitter
+         */
+        public String getRaw() {
+            return store.getString(storeIndex);
+        }
+
+        /**
+         * @return the entry text without surrounding whitespace
+         */
+        public String getText() {
+            return getTextView().toString();
+        }
+
+        /**
+         * @return a view of the entry text without surrounding whitespace; no copy is made
+         */
+        public CharSequence getTextView() {
+            return store.get(storeIndex).subSequence(textStart, textEnd);
+        }
+
+        /**
+         * @return number of {@code tag=value} fields in the entry
+         */
+        public int getFieldCount() {
+            return ensureFields().length / 4;
+        }
+
+        /**
+         * @param field zero-based field position
+         * @return tag text of the field
+         */
+        public String getTag(int field) {
+            int[] bounds = ensureFields();
+            return FixFieldCursor.tagText(getTextView(), bounds[4 * field], bounds[4 * field + 1]);
+        }
+
+        /**
+         * @param field zero-based field position
+         * @return value of the field as a new string
+         */
+        public String getValue(int field) {
+            return getValueView(field).toString();
+        }
+
+        /**
+         * @param field zero-based field position
+         * @return a view of the value of the field; no copy is made
+         */
+        public CharSequence getValueView(int field) {
+            int[] bounds = ensureFields();
+            return getTextView().subSequence(bounds[4 * field + 2], bounds[4 * field + 3]);
+        }
+
+        /**
+         * Returns the entry parsed by QuickFIX/J. The result is cached for the most recent
+         * dictionary, so views using the same dictionary share one parse.
+         *
+         * @param dd dictionary to parse with
+         * @return the parsed message
+         * @throws Exception if QuickFIX/J rejects the message
+         */
+        public synchronized Message getQuickFixMessage(DataDictionary dd) throws Exception {
+            if (parsedWith != dd || (parsed == null && parseError == null)) {
+                parsedWith = dd;
+                parsed = null;
+                parseError = null;
+                try {
+                    parsed = FixMessageParser.parse(getText(), dd);
+                } catch (Exception e) {
+                    parseError = e;
+                }
+            }
+            if (parseError != null) {
+                throw parseError;
+            }
+            return parsed;
+        }
+
+        private int[] ensureFields() {
+            int[] bounds = fields;
+            if (bounds != null) {
+                return bounds;
+            }
+            bounds = new int[32];
+            int count = 0;
+            FixFieldCursor cursor = new FixFieldCursor().reset(getTextView());
+            while (cursor.next()) {
+                if (count + 4 > bounds.length) {
+                    bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                }
+                bounds[count++] = cursor.tagStart();
+                bounds[count++] = cursor.tagEnd();
+                bounds[count++] = cursor.valueStart();
+                bounds[count++] = cursor.valueEnd();
+            }
+            bounds = Arrays.copyOf(bounds, count);
+            fields = bounds;
+            return bounds;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.rannett.fixplugin.util;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Delimiter scanning shared by {@link FixMessageSplitter} and {@link FixFieldCursor}.
+ * <p>
+ * Long-range searches, such as locating the next {@code 8=} or {@code 10=}, delegate to
+ * {@link String#indexOf} and {@link StringBuilder#indexOf}, which the JVM compiles to vectorized
+ * intrinsics. Fields are only a few characters long, where the call overhead of those intrinsics
+ * outweighs their gain, so the per-field searches of an instance use plain loops that are
+ * specialized for {@link String}. This keeps the hot {@code charAt} call monomorphic even when the
+ * plugin scans documents, builders and strings through the same code.
+ */
+public final class FixTextScanner {
+
+    /** Field delimiter used on the wire. */
+    public static final char SOH = '\u0001';
+    /** Field delimiter commonly used in logs. */
+    public static final char PIPE = '|';
+
+    private CharSequence text = "";
+    private String string;
+    private int end;
+
+    /**
+     * Prepare the scanner for a new range.
+     *
+     * @param text text to scan
+     * @param end  offset just past the last character that may be examined
+     * @return this scanner
+     */
+    public FixTextScanner reset(@NotNull CharSequence text, int end) {
+        this.text = text;
+        this.string = text instanceof String s ? s : null;
+        this.end = end;
+        return this;
+    }
+
+    /**
+     * Finds the next field delimiter.
+     *
+     * @param from offset at which to start looking
+     * @return offset of the next {@code |} or SOH, or the end offset if there is none
+     */
+    public int nextDelimiter(int from) {
+        if (string != null) {
+            for (int i = from; i < end; i++) {
+                char c = string.charAt(i);
+                if (c == PIPE || c == SOH) {
+                    return i;
+                }
+            }
+            return end;
+        }
+        for (int i = from; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == PIPE || c == SOH) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Finds the next {@code =} separating a tag from its value.
+     *
+     * @param from offset at which to start looking
+     * @return offset of the separator or {@code -1} if there is none
+     */
+    public int nextEquals(int from) {
+        if (string != null) {
+            for (int i = from; i < end; i++) {
+                if (string.charAt(i) == '=') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        for (int i = from; i < end; i++) {
+            if (text.charAt(i) == '=') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds a character within a range.
+     *
+     * @param source text to search
+     * @param target character to find
+     * @param from   first offset to examine
+     * @param to     offset just past the last character to examine
+     * @return offset of the character or {@code -1} if it does not occur in the range
+     */
+    public static int indexOf(@NotNull CharSequence source, char target, int from, int to) {
+        int start = Math.max(from, 0);
+        // An unbounded indexOf may run far past the range when the target is absent, so only
+        // use it when the text after the range is not much longer than the range itself.
+        if (source instanceof String string && string.length() - to <= to - start) {
+            int found = string.indexOf(target, start);
+            return found >= 0 && found < to ? found : -1;
+        }
+        for (int i = start; i < to; i++) {
+            if (source.charAt(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds a character anywhere after the given offset.
+     *
+     * @param source text to search
+     * @param target character to find
+     * @param from   first offset to examine
+     * @return offset of the character or {@code -1} if it does not occur
+     */
+    public static int indexOf(@NotNull CharSequence source, char target, int from) {
+        if (source instanceof String string) {
+            return string.indexOf(target, from);
+        }
+        return indexOf(source, target, from, source.length());
+    }
+
+    /**
+     * Finds a string anywhere after the given offset.
+     *
+     * @param source text to search
+     * @param target string to find
+     * @param from   first offset to examine
+     * @return offset of the first character of the match or {@code -1} if it does not occur
+     */
+    public static int indexOf(@NotNull CharSequence source, @NotNull String target, int from) {
+        if (source instanceof String string) {
+            return string.indexOf(target, from);
+        }
+        if (source instanceof StringBuilder builder) {
+            return builder.indexOf(target, from);
+        }
+        char first = target.charAt(0);
+        int last = source.length() - target.length();
+        for (int i = Math.max(from, 0); i <= last; i++) {
+            if (source.charAt(i) != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < target.length() && source.charAt(i + j) == target.charAt(j)) {
+                j++;
+            }
+            if (j == target.length()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param character character to test
+     * @return whether the character is a field delimiter
+     */
+    public static boolean isDelimiter(char character) {
+        return character == SOH || character == PIPE;
+    }
+}
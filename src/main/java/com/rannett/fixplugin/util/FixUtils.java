@@ -25,4 +25,22 @@ public class FixUtils {
 
         return Optional.empty();
     }
+
+    /**
+     * Calculates the FIX checksum of the given text: the sum of the SOH and printable ASCII
+     * characters modulo 256. Any other characters, such as line breaks, are ignored.
+     *
+     * @param text message text preceding the {@code 10=} field
+     * @return checksum value between 0 and 255
+     */
+    public static int calculateChecksum(CharSequence text) {
+        int sum = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == 1 || (c >= 32 && c <= 126)) {
+                sum += c;
+            }
+        }
+        return sum % 256;
+    }
 }
@@ -0,0 +1,54 @@
+package com.rannett.fixplugin.dictionary;
+
+import com.rannett.fixplugin.settings.FixViewerSettingsState.DictionaryEntry;
+import org.junit.Test;
+import quickfix.DataDictionary;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class FixDataDictionaryCacheTest {
+
+    @Test
+    public void testBuiltInDictionaryIsLoadedOnce() {
+        FixDataDictionaryCache cache = new FixDataDictionaryCache();
+        DataDictionary first = cache.getDictionary("FIX.4.4", null);
+        assertNotNull(first);
+        assertSame(first, cache.getDictionary("FIX.4.4", null));
+        assertSame(first, cache.getDictionary("FIX.4.4", new DictionaryEntry("FIX.4.4", null, true, true)));
+        assertNotSame(first, cache.getDictionary("FIX.4.2", null));
+    }
+
+    @Test
+    public void testInvalidateDropsOnlyCustomDictionaries() throws Exception {
+        Path file = Files.createTempFile("custom", ".xml");
+        try (InputStream in = FixDataDictionaryCacheTest.class.getResourceAsStream("/dictionaries/FIX.4.4.xml")) {
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        DictionaryEntry custom = new DictionaryEntry("FIX.4.4", file.toString(), false, true);
+        FixDataDictionaryCache cache = new FixDataDictionaryCache();
+        DataDictionary builtIn = cache.getDictionary("FIX.4.4", null);
+        DataDictionary customDictionary = cache.getDictionary("FIX.4.4", custom);
+        assertNotSame(builtIn, customDictionary);
+        assertSame(customDictionary, cache.getDictionary("FIX.4.4", custom));
+
+        cache.invalidateCustomDictionaries();
+
+        assertSame(builtIn, cache.getDictionary("FIX.4.4", null));
+        assertNotSame(customDictionary, cache.getDictionary("FIX.4.4", custom));
+    }
+
+    @Test
+    public void testCacheKey() {
+        assertEquals("BUILTIN:FIX.4.2", FixDataDictionaryCache.getCacheKey("FIX.4.2", null));
+        assertEquals("CUSTOM:/tmp/dict.xml", FixDataDictionaryCache.getCacheKey("FIX.4.2",
+                new DictionaryEntry("FIX.4.2", "/tmp/dict.xml", false, false)));
+    }
+}
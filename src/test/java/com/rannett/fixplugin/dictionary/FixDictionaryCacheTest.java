@@ -1,5 +1,6 @@
 package com.rannett.fixplugin.dictionary;
 
+import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.testFramework.fixtures.BasePlatformTestCase;
 import com.rannett.fixplugin.settings.FixViewerSettingsState;
 import com.rannett.fixplugin.settings.FixViewerSettingsState.DictionaryEntry;
@@ -61,4 +62,64 @@ public class FixDictionaryCacheTest extends BasePlatformTestCase {
         assertNotSame(first, second);
         assertEquals("Second", second.getTagName("1"));
     }
+
+    public void testBuiltInDictionaryIsSharedBetweenProjectCaches() {
+        FixDictionaryCache first = new FixDictionaryCache(getProject());
+        FixDictionaryCache second = new FixDictionaryCache(getProject());
+        try {
+            FixTagDictionary dictionary = first.getDictionary(null, "FIX.4.4");
+            assertSame(dictionary, second.getDictionary(null, "FIX.4.4"));
+            assertEquals("MsgType", dictionary.getTagName("35"));
+
+            FixBuiltInDictionaryCache.MemoryUsage usage = FixBuiltInDictionaryCache.getInstance().getMemoryUsage();
+            assertTrue(usage.getRetainedSize() >= dictionary.getEstimatedSize());
+            assertTrue(usage.getSavedSize() >= dictionary.getEstimatedSize());
+        } finally {
+            first.dispose();
+            second.dispose();
+        }
+    }
+
+    public void testReloadReplacesOnlyTheChangedDictionary() throws Exception {
+        File file1 = File.createTempFile("dict1", ".xml");
+        Files.writeString(file1.toPath(), "<dictionary>\n<field number=\"1\" name=\"First\" type=\"STRING\"/>\n</dictionary>");
+        File file2 = File.createTempFile("dict2", ".xml");
+        Files.writeString(file2.toPath(), "<dictionary>\n<field number=\"1\" name=\"Other\" type=\"STRING\"/>\n</dictionary>");
+        DictionaryEntry entry1 = new DictionaryEntry("FIX.4.2", file1.getAbsolutePath(), false, true);
+        DictionaryEntry entry2 = new DictionaryEntry("FIX.4.4", file2.getAbsolutePath(), false, true);
+
+        FixDictionaryCache cache = new FixDictionaryCache(getProject());
+        FixTagDictionary first = cache.getDictionary(entry1, "FIX.4.2");
+        FixTagDictionary other = cache.getDictionary(entry2, "FIX.4.4");
+        String path1 = com.intellij.openapi.util.io.FileUtil.toSystemIndependentName(file1.getAbsolutePath());
+        assertFalse("unchanged file is not reloaded", cache.reload(path1));
+
+        Files.writeString(file1.toPath(), "<dictionary>\n<field number=\"1\" name=\"Changed\" type=\"STRING\"/>\n</dictionary>");
+        // The file watcher reports the change through a VFS refresh
+        VfsUtil.markDirtyAndRefresh(false, false, false, file1);
+        assertTrue(cache.reload(path1));
+
+        assertEquals("Changed", cache.getDictionary(entry1, "FIX.4.2").getTagName("1"));
+        assertNotSame(first, cache.getDictionary(entry1, "FIX.4.2"));
+        assertSame(other, cache.getDictionary(entry2, "FIX.4.4"));
+    }
+
+    public void testLeastRecentlyUsedDictionaryIsEvicted() throws Exception {
+        FixDictionaryCache cache = new FixDictionaryCache(getProject(), 2);
+        java.util.List<DictionaryEntry> entries = new java.util.ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            File file = File.createTempFile("dict" + i, ".xml");
+            Files.writeString(file.toPath(), "<dictionary>\n<field number=\"1\" name=\"Name" + i + "\" type=\"STRING\"/>\n</dictionary>");
+            entries.add(new DictionaryEntry("FIX.4.2", file.getAbsolutePath(), false, false));
+        }
+
+        FixTagDictionary first = cache.getDictionary(entries.get(0), "FIX.4.2");
+        FixTagDictionary second = cache.getDictionary(entries.get(1), "FIX.4.2");
+        assertSame(first, cache.getDictionary(entries.get(0), "FIX.4.2"));
+        cache.getDictionary(entries.get(2), "FIX.4.2");
+
+        assertSame(first, cache.getDictionary(entries.get(0), "FIX.4.2"));
+        assertNotSame(second, cache.getDictionary(entries.get(1), "FIX.4.2"));
+        assertEquals(2, cache.getCachedPaths().size());
+    }
 }
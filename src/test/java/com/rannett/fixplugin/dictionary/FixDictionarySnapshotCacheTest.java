@@ -0,0 +1,171 @@
+package com.rannett.fixplugin.dictionary;
+
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FixDictionarySnapshotCacheTest {
+
+    private static final String XML = """
+            <fix>
+             <header>
+              <field name="MsgType" required="Y"/>
+             </header>
+             <fields>
+              <field number="35" name="MsgType" type="STRING">
+               <value enum="0" description="HEARTBEAT"/>
+               <value enum="D" description="ORDER_SINGLE"/>
+              </field>
+              <field number="55" name="Symbol" type="STRING"/>
+              <field number="20001" name="Custom" type="INT"/>
+             </fields>
+            </fix>
+            """;
+
+    private static List<Path> snapshots(Path directory) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".dict")).toList();
+        }
+    }
+
+    private static void assertMembersEqual(List<FixDictionaryMember> expected, List<FixDictionaryMember> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), actual.get(i).toString());
+            assertMembersEqual(expected.get(i).getMembers(), actual.get(i).getMembers());
+        }
+    }
+
+    @Test
+    public void testSecondLoadReadsSnapshot() throws Exception {
+        Path directory = Files.createTempDirectory("snapshots");
+        FixDictionarySnapshotCache cache = new FixDictionarySnapshotCache(directory);
+        byte[] content = XML.getBytes(StandardCharsets.UTF_8);
+        AtomicInteger parses = new AtomicInteger();
+        FixDictionarySnapshotCache.Parser parser = source -> {
+            parses.incrementAndGet();
+            return FixTagDictionary.parse(source, "xml");
+        };
+
+        FixTagDictionary parsed = cache.load(content, "xml", parser);
+        FixTagDictionary restored = cache.load(content, "xml", parser);
+
+        assertEquals(1, parses.get());
+        assertEquals(1, snapshots(directory).size());
+        assertEquals(parsed.getTagNameMap(), restored.getTagNameMap());
+        assertEquals("MsgType", restored.getTagName(35));
+        assertEquals("INT", restored.getFieldType(20001));
+        assertEquals("ORDER_SINGLE", restored.getValueName(35, "D"));
+        assertEquals(Map.of("0", "HEARTBEAT", "D", "ORDER_SINGLE"), restored.getValueMap("35"));
+        assertEquals(FieldSection.HEADER, restored.getFieldSection("35"));
+        assertEquals(FieldSection.BODY, restored.getFieldSection("55"));
+        assertNull(restored.getValueMap("55"));
+    }
+
+    @Test
+    public void testChangedContentIsParsedAgain() throws Exception {
+        Path directory = Files.createTempDirectory("snapshots");
+        FixDictionarySnapshotCache cache = new FixDictionarySnapshotCache(directory);
+        AtomicInteger parses = new AtomicInteger();
+        FixDictionarySnapshotCache.Parser parser = source -> {
+            parses.incrementAndGet();
+            return FixTagDictionary.parse(source, "xml");
+        };
+
+        cache.load(XML.getBytes(StandardCharsets.UTF_8), "xml", parser);
+        FixTagDictionary changed = cache.load(XML.replace("Symbol", "Ticker").getBytes(StandardCharsets.UTF_8), "xml", parser);
+
+        assertEquals(2, parses.get());
+        assertEquals("Ticker", changed.getTagName("55"));
+    }
+
+    @Test
+    public void testCorruptSnapshotIsRebuilt() throws Exception {
+        Path directory = Files.createTempDirectory("snapshots");
+        FixDictionarySnapshotCache cache = new FixDictionarySnapshotCache(directory);
+        byte[] content = XML.getBytes(StandardCharsets.UTF_8);
+        cache.load(content, "xml", source -> FixTagDictionary.parse(source, "xml"));
+        Path snapshot = snapshots(directory).get(0);
+        Files.write(snapshot, new byte[]{1, 2, 3});
+
+        FixTagDictionary rebuilt = cache.load(content, "xml", source -> FixTagDictionary.parse(source, "xml"));
+
+        assertEquals("Symbol", rebuilt.getTagName("55"));
+        assertEquals(rebuilt.getTagNameMap(), FixDictionarySnapshotCache.read(snapshot).getTagNameMap());
+    }
+
+    @Test
+    public void testPruneKeepsMostRecentlyUsedSnapshots() throws Exception {
+        Path directory = Files.createTempDirectory("snapshots");
+        FixDictionarySnapshotCache cache = new FixDictionarySnapshotCache(directory);
+        byte[] content = XML.getBytes(StandardCharsets.UTF_8);
+        cache.load(content, "xml", source -> FixTagDictionary.parse(source, "xml"));
+        Path used = snapshots(directory).get(0);
+        Files.setLastModifiedTime(used, FileTime.fromMillis(0));
+        int count = FixDictionarySnapshotCache.MAX_SNAPSHOTS + 3;
+        for (int i = 0; i < count; i++) {
+            Path snapshot = Files.createFile(directory.resolve("dict" + i + "-v" + FixDictionarySnapshotCache.FORMAT_VERSION + ".dict"));
+            Files.setLastModifiedTime(snapshot, FileTime.fromMillis(1_000_000L * (i + 1)));
+        }
+        Path oldVersion = Files.createFile(directory.resolve("old-v" + (FixDictionarySnapshotCache.FORMAT_VERSION - 1) + ".dict"));
+        Path unversioned = Files.createFile(directory.resolve("legacy.dict"));
+        Path other = Files.createFile(directory.resolve("dict.tmp"));
+
+        // Reading a snapshot marks it as the most recently used
+        cache.load(content, "xml", source -> {
+            throw new AssertionError("snapshot should be read");
+        });
+        cache.pruneSnapshots();
+
+        assertTrue(Files.exists(used));
+        for (int i = 0; i < count; i++) {
+            Path snapshot = directory.resolve("dict" + i + "-v" + FixDictionarySnapshotCache.FORMAT_VERSION + ".dict");
+            assertEquals("dict" + i, i >= 4, Files.exists(snapshot));
+        }
+        assertFalse(Files.exists(oldVersion));
+        assertFalse(Files.exists(unversioned));
+        assertTrue(Files.exists(other));
+    }
+
+    @Test
+    public void testBuiltInDictionaryRoundTrip() throws Exception {
+        byte[] content;
+        try (InputStream in = FixTagDictionary.class.getResourceAsStream("/dictionaries/FIX.4.4.xml")) {
+            content = in.readAllBytes();
+        }
+        Path directory = Files.createTempDirectory("snapshots");
+        FixDictionarySnapshotCache cache = new FixDictionarySnapshotCache(directory);
+        FixTagDictionary parsed = cache.load(content, "xml", source -> FixTagDictionary.parse(source, "xml"));
+        FixTagDictionary restored = FixDictionarySnapshotCache.read(snapshots(directory).get(0));
+
+        assertEquals(parsed.getTagNameMap(), restored.getTagNameMap());
+        for (String tag : parsed.getTagNameMap().keySet()) {
+            assertEquals(parsed.getFieldType(tag), restored.getFieldType(tag));
+            assertEquals(parsed.getFieldSection(tag), restored.getFieldSection(tag));
+            assertEquals(parsed.getValueMap(tag), restored.getValueMap(tag));
+        }
+        assertMembersEqual(parsed.getHeaderMembers(), restored.getHeaderMembers());
+        assertMembersEqual(parsed.getTrailerMembers(), restored.getTrailerMembers());
+        assertEquals(parsed.getMessages().size(), restored.getMessages().size());
+        for (FixMessageDefinition message : parsed.getMessages()) {
+            FixMessageDefinition copy = restored.getMessage(message.getMsgType());
+            assertEquals(message.getName(), copy.getName());
+            assertEquals(message.getCategory(), copy.getCategory());
+            assertMembersEqual(message.getMembers(), copy.getMembers());
+        }
+        assertMembersEqual(parsed.getComponentMembers("Parties"), restored.getComponentMembers("Parties"));
+    }
+}
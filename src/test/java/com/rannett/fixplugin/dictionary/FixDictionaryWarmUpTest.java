@@ -0,0 +1,42 @@
+package com.rannett.fixplugin.dictionary;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.rannett.fixplugin.settings.FixViewerSettingsState;
+import com.rannett.fixplugin.settings.FixViewerSettingsState.DictionaryEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FixDictionaryWarmUpTest extends BasePlatformTestCase {
+
+    @Override
+    protected void tearDown() throws Exception {
+        try {
+            FixViewerSettingsState.getInstance(getProject()).setDictionaryEntries(new ArrayList<>());
+        } finally {
+            super.tearDown();
+        }
+    }
+
+    public void testUnitTestModeSkipsWarmUp() {
+        assertNull(FixDictionaryWarmUp.createTask(getProject()));
+    }
+
+    public void testVersionsAndEntriesComeFromSettings() {
+        FixViewerSettingsState settings = FixViewerSettingsState.getInstance(getProject());
+        DictionaryEntry custom = new DictionaryEntry("FIX.4.4", "/tmp/custom44.xml", false, true);
+        DictionaryEntry other = new DictionaryEntry("FIX.5.0", "/tmp/fix50.xml", false, false);
+        settings.setDictionaryEntries(List.of(custom, other));
+
+        FixDictionaryWarmUp.WarmUpTask task = FixDictionaryWarmUp.createTask(getProject(), settings);
+
+        // Each version once, in settings order, with its default dictionary
+        assertEquals(List.of("FIX.4.4", "FIX.5.0", "FIX.4.2", "FIXT.1.1"), task.getVersions());
+        List<DictionaryEntry> defaults = task.getEntries();
+        assertEquals(4, defaults.size());
+        assertSame(custom, defaults.get(0));
+        assertSame(other, defaults.get(1));
+        assertTrue(defaults.get(2).isBuiltIn());
+        assertEquals("FIXT.1.1", defaults.get(3).getVersion());
+    }
+}
@@ -0,0 +1,149 @@
+package com.rannett.fixplugin.dictionary;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FixDictionaryXmlParserTest {
+
+    // Attributes split across lines and elements sharing lines, as reformatting tools produce
+    private static final String XML = """
+            <fix major="4" minor="4">
+             <header>
+              <field name="BeginString" required="Y"/><field name="MsgType" required="Y"/>
+              <group name="NoHops" required="N">
+               <field name="HopCompID" required="N"/>
+              </group>
+             </header>
+             <trailer><field name="CheckSum" required="Y"/></trailer>
+             <messages>
+              <message name="NewOrderSingle"
+                       msgtype="D"
+                       msgcat="app">
+               <field name="ClOrdID"
+                      required="Y"/>
+               <component name="Parties" required="N"/>
+               <group name="NoAllocs" required="N">
+                <field name="AllocAccount" required="N"/>
+                <group name="NoNestedPartyIDs" required="N">
+                 <field name="NestedPartyID" required="N"/>
+                </group>
+               </group>
+              </message>
+             </messages>
+             <components>
+              <component name="Parties">
+               <group name="NoPartyIDs" required="N">
+                <component name="PartyIdentity" required="Y"/>
+                <field name="PartyRole" required="N"/>
+               </group>
+              </component>
+              <component name="PartyIdentity">
+               <field name="PartyID" required="Y"/>
+              </component>
+             </components>
+             <fields>
+              <field number="8" name="BeginString" type="STRING"/>
+              <field number="35" name="MsgType" type="STRING"><value enum="D" description="ORDER_SINGLE"/></field>
+              <field number="627" name="NoHops" type="NUMINGROUP"/>
+              <field number="628" name="HopCompID" type="STRING"/>
+              <field number="10" name="CheckSum" type="STRING"/>
+              <field
+                number="11"
+                name="ClOrdID"
+                type="STRING"/>
+              <field number="453" name="NoPartyIDs" type="NUMINGROUP"/>
+              <field number="448" name="PartyID" type="STRING"/>
+              <field number="452" name="PartyRole" type="INT">
+               <value enum="1"
+                      description="EXECUTING_FIRM"/>
+              </field>
+             </fields>
+            </fix>
+            """;
+
+    private static FixTagDictionary parse(String xml) throws Exception {
+        return FixTagDictionary.parse(xml.getBytes(StandardCharsets.UTF_8), "xml");
+    }
+
+    @Test
+    public void testFieldsAreReadRegardlessOfLayout() throws Exception {
+        FixTagDictionary dictionary = parse(XML);
+
+        assertEquals("ClOrdID", dictionary.getTagName("11"));
+        assertEquals("STRING", dictionary.getFieldType("11"));
+        assertEquals("EXECUTING_FIRM", dictionary.getValueName("452", "1"));
+        assertEquals("ORDER_SINGLE", dictionary.getValueName("35", "D"));
+        assertEquals("452", dictionary.getTagNumber("PartyRole"));
+        assertNull(dictionary.getTagNumber("Unknown"));
+    }
+
+    @Test
+    public void testSections() throws Exception {
+        FixTagDictionary dictionary = parse(XML);
+
+        assertEquals(FieldSection.HEADER, dictionary.getFieldSection("8"));
+        assertEquals(FieldSection.HEADER, dictionary.getFieldSection("627"));
+        assertEquals(FieldSection.HEADER, dictionary.getFieldSection("628"));
+        assertEquals(FieldSection.TRAILER, dictionary.getFieldSection("10"));
+        assertEquals(FieldSection.BODY, dictionary.getFieldSection("11"));
+        assertEquals(3, dictionary.getHeaderMembers().size());
+        assertEquals("CheckSum", dictionary.getTrailerMembers().get(0).getName());
+    }
+
+    @Test
+    public void testMessageStructure() throws Exception {
+        FixTagDictionary dictionary = parse(XML);
+
+        FixMessageDefinition message = dictionary.getMessage("D");
+        assertNotNull(message);
+        assertEquals("NewOrderSingle", message.getName());
+        assertEquals("app", message.getCategory());
+        assertEquals(1, dictionary.getMessages().size());
+
+        List<FixDictionaryMember> members = message.getMembers();
+        assertEquals(3, members.size());
+        assertEquals(FixDictionaryMember.Kind.FIELD, members.get(0).getKind());
+        assertTrue(members.get(0).isRequired());
+        assertEquals(FixDictionaryMember.Kind.COMPONENT, members.get(1).getKind());
+        assertFalse(members.get(1).isRequired());
+
+        FixDictionaryMember allocs = members.get(2);
+        assertEquals(FixDictionaryMember.Kind.GROUP, allocs.getKind());
+        assertEquals("NoAllocs", allocs.getName());
+        FixDictionaryMember nested = allocs.getMembers().get(1);
+        assertEquals("NoNestedPartyIDs", nested.getName());
+        assertEquals("NestedPartyID", nested.getMembers().get(0).getName());
+    }
+
+    @Test
+    public void testComponentsAndGroupDelimiter() throws Exception {
+        FixTagDictionary dictionary = parse(XML);
+
+        List<FixDictionaryMember> parties = dictionary.getComponentMembers("Parties");
+        assertEquals(1, parties.size());
+        FixDictionaryMember group = parties.get(0);
+        assertEquals(FixDictionaryMember.Kind.GROUP, group.getKind());
+        // The first member is a component whose first field is PartyID
+        assertEquals(448, dictionary.getGroupDelimiter(group));
+        assertEquals(628, dictionary.getGroupDelimiter(dictionary.getHeaderMembers().get(2)));
+        assertNull(dictionary.getComponentMembers("Unknown"));
+    }
+
+    @Test
+    public void testDictionaryWithoutStructure() throws Exception {
+        FixTagDictionary dictionary = parse("<dictionary><field number=\"55\" name=\"Symbol\" type=\"STRING\"/></dictionary>");
+
+        assertEquals("Symbol", dictionary.getTagName("55"));
+        assertEquals(FieldSection.BODY, dictionary.getFieldSection("55"));
+        assertTrue(dictionary.getMessages().isEmpty());
+        assertTrue(dictionary.getHeaderMembers().isEmpty());
+    }
+}
@@ -0,0 +1,50 @@
+package com.rannett.fixplugin.dictionary;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class FixFieldDescriptionsTest {
+
+    @Test
+    public void testParseFieldPhrases() throws Exception {
+        String xml = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <phrases version="FIX.5.0SP2" langId="en">
+                   <phrase textId="AT_Acct">
+                      <text><para>Account</para></text>
+                   </phrase>
+                   <phrase textId="FIELD_1">
+                      <text>
+                         <para>  Account mnemonic.  </para>
+                         <para>Second <b>bold</b> paragraph</para>
+                      </text>
+                   </phrase>
+                   <phrase textId="FIELD_2">
+                      <text/>
+                   </phrase>
+                </phrases>
+                """;
+
+        Map<String, String> descriptions = FixFieldDescriptions.parse(
+                new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, descriptions.size());
+        assertEquals("Account mnemonic. Second bold paragraph", descriptions.get("1"));
+        assertEquals("", descriptions.get("2"));
+        assertNull(descriptions.get("Acct"));
+    }
+
+    @Test
+    public void testBundledPhrasesAreShared() {
+        assertEquals(FixFieldDescriptions.get("1"),
+                FixTagDictionary.fromBuiltInVersion("FIX.4.2").getFieldDescription("1"));
+        assertEquals(FixTagDictionary.fromBuiltInVersion("FIX.4.4").getFieldDescription("55"),
+                new FixTagDictionary().getFieldDescription("55"));
+    }
+}
@@ -0,0 +1,115 @@
+package com.rannett.fixplugin.dictionary;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FixFieldSearchIndexTest {
+
+    // User-defined tags, so that no field descriptions from the phrases file apply
+    private static final String JSON = """
+            {
+              "121054": { "name": "Side", "values": { "1": "Buy", "2": "Sell" } },
+              "1210544": { "name": "CashMargin" },
+              "130100": { "name": "SideExecID" },
+              "9121054": { "name": "VenueSideFlag" },
+              "140000": { "name": "OrderCapacityDetail", "values": { "S": "Sellside" } }
+            }
+            """;
+
+    private static List<String> tags(List<FixFieldSearchIndex.Match> matches) {
+        List<String> tags = new ArrayList<>();
+        for (FixFieldSearchIndex.Match match : matches) {
+            tags.add(match.tag());
+        }
+        return tags;
+    }
+
+    private static FixFieldSearchIndex index() throws Exception {
+        return FixTagDictionary.parse(JSON.getBytes(StandardCharsets.UTF_8), "json").getSearchIndex();
+    }
+
+    @Test
+    public void testResultsAreRanked() throws Exception {
+        FixFieldSearchIndex index = index();
+
+        // Exact name, then name prefix, then name containing the term, then enum descriptions
+        assertEquals(List.of("121054", "130100", "9121054", "140000"), tags(index.search("side")));
+        // Exact tag first, then tags starting with it, then tags containing it
+        assertEquals(List.of("121054", "1210544", "9121054"), tags(index.search("121054")));
+    }
+
+    @Test
+    public void testEnumValuesAreSearched() throws Exception {
+        FixFieldSearchIndex index = index();
+
+        assertEquals(List.of("121054", "140000"), tags(index.search("SELL")));
+        assertEquals("Side", index.search("buy").get(0).name());
+        assertTrue(index.search("nothing like this").isEmpty());
+        assertTrue(index.search("  ").isEmpty());
+    }
+
+    @Test
+    public void testDescriptionsAreSearched() throws Exception {
+        FixTagDictionary dictionary = FixTagDictionary.fromBuiltInVersion("FIX.4.4");
+        String description = dictionary.getFieldDescription("35").toLowerCase(Locale.ROOT);
+        String phrase = description.substring(0, Math.min(12, description.length()));
+
+        assertTrue(tags(dictionary.getSearchIndex().search(phrase)).contains("35"));
+    }
+
+    @Test
+    public void testIndexMatchesFullScan() {
+        FixTagDictionary dictionary = FixTagDictionary.fromBuiltInVersion("FIX.4.4");
+        FixFieldSearchIndex index = dictionary.getSearchIndex();
+
+        for (String term : List.of("ord", "Qty", "clordid", "price", "xyz", "new", "35", "1", "ex")) {
+            String lower = term.toLowerCase(Locale.ROOT);
+            Set<String> expected = new HashSet<>();
+            for (Map.Entry<String, String> field : dictionary.getTagNameMap().entrySet()) {
+                if (matches(dictionary, field.getKey(), field.getValue(), lower)) {
+                    expected.add(field.getKey());
+                }
+            }
+            List<String> found = tags(index.search(term));
+            assertEquals(term, expected, new HashSet<>(found));
+            assertEquals(term, found.size(), new HashSet<>(found).size());
+        }
+    }
+
+    @Test
+    public void testIndexIsBuiltOnce() {
+        FixTagDictionary dictionary = FixTagDictionary.fromBuiltInVersion("FIX.4.2");
+
+        assertSame(dictionary.getSearchIndex(), dictionary.getSearchIndex());
+        assertFalse(dictionary.getSearchIndex().search("ClOrdID").isEmpty());
+    }
+
+    private static boolean matches(FixTagDictionary dictionary, String tag, String name, String term) {
+        if (tag.contains(term) || name.toLowerCase(Locale.ROOT).contains(term)) {
+            return true;
+        }
+        Map<String, String> values = dictionary.getValueMap(tag);
+        if (values != null) {
+            for (Map.Entry<String, String> value : values.entrySet()) {
+                if (value.getKey().toLowerCase(Locale.ROOT).contains(term)
+                        || value.getValue().toLowerCase(Locale.ROOT).contains(term)) {
+                    return true;
+                }
+            }
+        }
+        String description = dictionary.getFieldDescription(tag);
+        return term.length() >= 3 && description != null && description.toLowerCase(Locale.ROOT).contains(term);
+    }
+}
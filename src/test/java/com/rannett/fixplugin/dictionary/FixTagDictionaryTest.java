@@ -9,7 +9,10 @@ import java.io.FileWriter;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 
@@ -72,6 +75,63 @@ public class FixTagDictionaryTest {
         assertNull(dictionary.getValueName("11", "X"));
     }
 
+    @Test
+    public void testIntTagLookups() throws Exception {
+        String xmlContent = """
+                    <dictionary>
+                        <field number="35" name="MsgType" type="CHAR">
+                            <value enum="0" description="Heartbeat"/>
+                        </field>
+                        <field number="20001" name="CustomTag" type="INT">
+                            <value enum="1" description="One"/>
+                        </field>
+                    </dictionary>
+                """;
+        File tempFile = File.createTempFile("test", ".xml");
+        try (FileWriter writer = new FileWriter(tempFile)) {
+            writer.write(xmlContent);
+        }
+
+        FixTagDictionary dictionary = FixTagDictionary.fromFile(tempFile);
+        assertEquals("MsgType", dictionary.getTagName(35));
+        assertEquals("CHAR", dictionary.getFieldType(35));
+        assertEquals("Heartbeat", dictionary.getValueName(35, "0"));
+        // Tags above the dense range are looked up in the sparse table
+        assertEquals("CustomTag", dictionary.getTagName(20001));
+        assertEquals("INT", dictionary.getFieldType(20001));
+        assertEquals("One", dictionary.getValueName(20001, "1"));
+        assertNull(dictionary.getTagName(11));
+        assertNull(dictionary.getTagName(-1));
+        assertNull(dictionary.getFieldType(FixTagDictionary.DENSE_TAG_LIMIT));
+    }
+
+    @Test
+    public void testIntLookupsMatchStringLookupsForBuiltIn() {
+        FixTagDictionary dictionary = FixTagDictionary.fromBuiltInVersion("FIX.4.4");
+        for (Map.Entry<String, String> entry : dictionary.getTagNameMap().entrySet()) {
+            int tag = Integer.parseInt(entry.getKey());
+            assertEquals(entry.getValue(), dictionary.getTagName(tag));
+            assertEquals(dictionary.getFieldType(entry.getKey()), dictionary.getFieldType(tag));
+            Map<String, String> values = dictionary.getValueMap(entry.getKey());
+            if (values != null) {
+                for (Map.Entry<String, String> value : values.entrySet()) {
+                    assertEquals(value.getValue(), dictionary.getValueName(tag, value.getKey()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStringLookupsOnlyMatchTagNumbers() {
+        FixTagDictionary dictionary = FixTagDictionary.fromBuiltInVersion("FIX.4.4");
+        assertEquals("MsgType", dictionary.getTagName("35"));
+        assertNull(dictionary.getTagName("035"));
+        assertNull(dictionary.getFieldType("035"));
+        assertNull(dictionary.getTagName(""));
+        assertNull(dictionary.getTagName("3a"));
+        assertNull(dictionary.getTagName("-5"));
+    }
+
     @Test
     public void testGetFieldTypeUnknownTag() {
         FixTagDictionary dictionary = new FixTagDictionary();
@@ -169,4 +229,104 @@ public class FixTagDictionaryTest {
         FixTagDictionary dictionary = FixTagDictionary.fromFile(tempFile);
         assertNull(dictionary.getTagName("35"));
     }
+
+    @Test
+    public void testJsonOverlayOnBuiltInBase() throws Exception {
+        String jsonContent = """
+                    {
+                      "base": "FIX.4.4",
+                      "20001": {
+                        "name": "VenueOrderFlag",
+                        "type": "CHAR",
+                        "values": { "Y": "Yes", "N": "No" }
+                      },
+                      "40": {
+                        "values": { "Z": "Venue Peg" }
+                      }
+                    }
+                """;
+        File tempFile = File.createTempFile("venue", ".json");
+        try (FileWriter writer = new FileWriter(tempFile)) {
+            writer.write(jsonContent);
+        }
+
+        FixTagDictionary dictionary = FixTagDictionary.fromFile(tempFile);
+        assertEquals("FIX.4.4", dictionary.getBaseVersion());
+        assertEquals("VenueOrderFlag", dictionary.getTagName("20001"));
+        assertEquals("Yes", dictionary.getValueName(20001, "Y"));
+        // Base fields and values are looked up through the layer
+        assertEquals("MsgType", dictionary.getTagName(35));
+        assertEquals("OrdType", dictionary.getTagName("40"));
+        assertEquals("CHAR", dictionary.getFieldType("40"));
+        assertEquals("Venue Peg", dictionary.getValueName("40", "Z"));
+        assertEquals("MARKET", dictionary.getValueName("40", "1"));
+        assertEquals("MARKET", dictionary.getValueMap("40").get("1"));
+        assertEquals("Venue Peg", dictionary.getValueMap("40").get("Z"));
+        assertEquals(FieldSection.HEADER, dictionary.getFieldSection("49"));
+        assertEquals("VenueOrderFlag", dictionary.getTagNameMap().get("20001"));
+        assertEquals("Symbol", dictionary.getTagNameMap().get("55"));
+        assertEquals(FixTagDictionary.fromBuiltInVersion("FIX.4.4").getTagNameMap().size() + 1,
+                dictionary.getTagNameMap().entrySet().stream().count());
+        Map<String, String> ordTypes = dictionary.getValueMap("40");
+        assertEquals(FixTagDictionary.fromBuiltInVersion("FIX.4.4").getValueMap("40").size() + 1, ordTypes.size());
+        assertTrue(ordTypes.entrySet().stream().anyMatch(value -> value.getKey().equals("Z")));
+        assertThrows(UnsupportedOperationException.class, () -> ordTypes.put("Q", "Quote"));
+        assertNull(dictionary.getTagName("base"));
+        // The overlay does not copy the base tables
+        assertTrue(dictionary.getEstimatedSize() < FixTagDictionary.fromBuiltInVersion("FIX.4.4").getEstimatedSize() / 10);
+    }
+
+    @Test
+    public void testXmlOverlayOnBuiltInBase() throws Exception {
+        String xmlContent = """
+                    <fix base="FIX.4.4">
+                     <messages>
+                      <message name="VenueReport" msgtype="U1" msgcat="app">
+                       <field name="VenueOrderFlag" required="Y"/>
+                      </message>
+                     </messages>
+                     <fields>
+                      <field number="20001" name="VenueOrderFlag" type="CHAR"/>
+                     </fields>
+                    </fix>
+                """;
+        File tempFile = File.createTempFile("venue", ".xml");
+        try (FileWriter writer = new FileWriter(tempFile)) {
+            writer.write(xmlContent);
+        }
+
+        FixTagDictionary dictionary = FixTagDictionary.fromFile(tempFile);
+        assertEquals("FIX.4.4", dictionary.getBaseVersion());
+        assertEquals("VenueOrderFlag", dictionary.getTagName(20001));
+        assertEquals("20001", dictionary.getTagNumber("VenueOrderFlag"));
+        assertEquals("35", dictionary.getTagNumber("MsgType"));
+        assertEquals("VenueReport", dictionary.getMessage("U1").getName());
+        assertEquals("NewOrderSingle", dictionary.getMessage("D").getName());
+        assertTrue(dictionary.getMessages().contains(dictionary.getMessage("U1")));
+        assertTrue(dictionary.getMessages().contains(dictionary.getMessage("D")));
+        assertFalse(dictionary.getHeaderMembers().isEmpty());
+    }
+
+    @Test
+    public void testNamesAndDescriptionsArePooledAcrossDictionaries() throws Exception {
+        String json = "{ \"54\": { \"name\": \"Side\", \"type\": \"CHAR\", \"values\": { \"1\": \"Buy\" } } }";
+        FixTagDictionary first = FixTagDictionary.parse(json.getBytes(), "json");
+        FixTagDictionary second = FixTagDictionary.parse(new String(json.getBytes()).getBytes(), "json");
+        FixTagDictionary xml = FixTagDictionary.parse(
+                "<fix><field number=\"54\" name=\"Side\" type=\"CHAR\"><value enum=\"1\" description=\"Buy\"/></field></fix>".getBytes(), "xml");
+
+        assertSame(first.getTagName("54"), second.getTagName("54"));
+        assertSame(first.getTagName(54), xml.getTagName(54));
+        assertSame(first.getValueName("54", "1"), xml.getValueName("54", "1"));
+        assertSame(first.getFieldType(54), xml.getFieldType(54));
+    }
+
+    @Test
+    public void testEntryCount() throws Exception {
+        String json = "{ \"54\": { \"name\": \"Side\", \"values\": { \"1\": \"Buy\", \"2\": \"Sell\" } }, \"55\": \"Symbol\" }";
+        FixTagDictionary dictionary = FixTagDictionary.parse(json.getBytes(), "json");
+
+        assertEquals(4, dictionary.getEntryCount());
+        assertTrue(FixTagDictionary.fromBuiltInVersion("FIX.4.4").getEntryCount() > 900);
+    }
 }
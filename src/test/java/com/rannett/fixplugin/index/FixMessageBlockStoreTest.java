@@ -0,0 +1,213 @@
+package com.rannett.fixplugin.index;
+
+import com.rannett.fixplugin.util.FixMessageSplitter;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FixMessageBlockStoreTest {
+
+    private static String log(int messages) {
+        StringBuilder text = new StringBuilder("# session start\n");
+        for (int i = 1; i <= messages; i++) {
+            text.append("8=FIX.4.4|9=20|35=D|34=").append(i).append("|11=ORD").append(i).append("|10=000|\n");
+        }
+        return text.toString();
+    }
+
+    private static List<String> split(String text) {
+        List<String> entries = new ArrayList<>();
+        new FixMessageSplitter(text).forEachRemaining(entries::add);
+        return entries;
+    }
+
+    @Test
+    public void testReadEntriesAcrossBlocks() throws Exception {
+        String text = log(25);
+        Path file = Files.createTempFile("fix-blocks", ".blocks");
+        try {
+            FixMessageBlockStore store = FixMessageBlockStore.build(new StringReader(text), file, 4, null);
+            List<String> expected = split(text);
+            assertEquals(expected.size(), store.getEntryCount());
+            assertEquals(25, store.getMessageCount());
+            assertEquals(7, store.getBlockCount());
+            assertEquals(expected, store.readEntries(0, store.getEntryCount()));
+            assertEquals(expected.subList(3, 11), store.readEntries(3, 11));
+            assertEquals(expected.subList(24, 26), store.readEntries(24, 40));
+            assertTrue(store.readEntries(30, 40).isEmpty());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testFindBlock() throws Exception {
+        Path file = Files.createTempFile("fix-blocks", ".blocks");
+        try {
+            FixMessageBlockStore store = FixMessageBlockStore.build(new StringReader(log(9)), file, 4, null);
+            assertEquals(0, store.findBlock(0));
+            assertEquals(0, store.findBlock(3));
+            assertEquals(1, store.findBlock(4));
+            assertEquals(2, store.findBlock(9));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testOpenExistingStore() throws Exception {
+        String text = log(12);
+        Path file = Files.createTempFile("fix-blocks", ".blocks");
+        try {
+            FixMessageBlockStore.build(new StringReader(text), file, 5, null);
+            FixMessageBlockStore store = FixMessageBlockStore.open(file);
+            assertEquals(13, store.getEntryCount());
+            assertEquals(12, store.getMessageCount());
+            assertEquals(split(text).subList(4, 9), store.readEntries(4, 9));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testCountMessagesBefore() throws Exception {
+        String text = log(4) + "# reconnect\n" + log(4);
+        Path file = Files.createTempFile("fix-blocks", ".blocks");
+        try {
+            FixMessageBlockStore.build(new StringReader(text), file, 3, null);
+            FixMessageBlockStore store = FixMessageBlockStore.open(file);
+            assertEquals(8, store.getMessageCount());
+            assertEquals(0, store.countMessagesBefore(0));
+            assertEquals(0, store.countMessagesBefore(1));
+            assertEquals(2, store.countMessagesBefore(3));
+            assertEquals(4, store.countMessagesBefore(6));
+            assertEquals(4, store.countMessagesBefore(7));
+            assertEquals(5, store.countMessagesBefore(8));
+            assertEquals(8, store.countMessagesBefore(store.getEntryCount()));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testNonAsciiEntriesRoundTrip() throws Exception {
+        String text = "# café\n8=FIX.4.4|35=B|58=Zürich → 東京 \uD83D\uDCC8|10=000|\n" + log(3);
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        Path file = Files.createTempFile("fix-blocks", ".blocks");
+        try (Reader reader = FixCompressedLogCache.openReader(new ByteArrayInputStream(gzip.toByteArray()), "a.fix.gz")) {
+            FixMessageBlockStore.build(reader, file, 2, null);
+            FixMessageBlockStore store = FixMessageBlockStore.open(file);
+            assertEquals(split(text), store.readEntries(0, store.getEntryCount()));
+            assertTrue(store.readEntries(1, 2).get(0).contains("58=Zürich → 東京 \uD83D\uDCC8|"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testOpenRejectsIncompleteStore() throws Exception {
+        Path file = Files.createTempFile("fix-blocks", ".blocks");
+        try {
+            FixMessageBlockStore.build(new StringReader(log(3)), file, 2, null);
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+            FixMessageBlockStore.open(file);
+            fail("Expected truncated store to be rejected");
+        } catch (IOException expected) {
+            // expected
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testOpenReaderDecompressesGzipAndZip() throws Exception {
+        String text = log(3);
+
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(text.getBytes(StandardCharsets.ISO_8859_1));
+        }
+        assertEquals(text, read(FixCompressedLogCache.openReader(new ByteArrayInputStream(gzip.toByteArray()), "a.fix.gz")));
+
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(zip)) {
+            out.putNextEntry(new ZipEntry("logs/"));
+            out.putNextEntry(new ZipEntry("logs/a.fix"));
+            out.write("8=FIX.4.4|35=0|10=000|".getBytes(StandardCharsets.ISO_8859_1));
+            out.putNextEntry(new ZipEntry("logs/b.fix"));
+            out.write("8=FIX.4.4|35=1|10=000|".getBytes(StandardCharsets.ISO_8859_1));
+        }
+        assertEquals("8=FIX.4.4|35=0|10=000|\n8=FIX.4.4|35=1|10=000|\n",
+                read(FixCompressedLogCache.openReader(new ByteArrayInputStream(zip.toByteArray()), "a.FIX.ZIP")));
+    }
+
+    @Test
+    public void testIsCompressedLog() {
+        assertTrue(FixCompressedLogCache.isCompressedLog("session.fix.gz"));
+        assertTrue(FixCompressedLogCache.isCompressedLog("SESSION.FIX.ZIP"));
+        assertFalse(FixCompressedLogCache.isCompressedLog("session.fix"));
+        assertFalse(FixCompressedLogCache.isCompressedLog("session.gz"));
+    }
+
+    @Test
+    public void testPruneKeepsMostRecentlyOpenedStores() throws Exception {
+        Path directory = Files.createTempDirectory("fix-compressed-logs");
+        try {
+            int count = FixCompressedLogCache.MAX_STORED_LOGS + 3;
+            for (int i = 0; i < count; i++) {
+                Path store = Files.createFile(directory.resolve("log" + i + ".blocks"));
+                Files.setLastModifiedTime(store, FileTime.fromMillis(1_000_000L * (i + 1)));
+            }
+            Path other = Files.createFile(directory.resolve("other.tmp"));
+
+            new FixCompressedLogCache(directory).pruneStores();
+
+            for (int i = 0; i < count; i++) {
+                assertEquals("log" + i, i >= 3, Files.exists(directory.resolve("log" + i + ".blocks")));
+            }
+            assertTrue(Files.exists(other));
+        } finally {
+            try (var files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    private static String read(Reader reader) throws IOException {
+        try (reader) {
+            StringBuilder text = new StringBuilder();
+            char[] buffer = new char[7];
+            int read;
+            while ((read = reader.read(buffer)) >= 0) {
+                text.append(buffer, 0, read);
+            }
+            return text.toString();
+        }
+    }
+}
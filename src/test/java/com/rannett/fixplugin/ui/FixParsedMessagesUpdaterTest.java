@@ -0,0 +1,64 @@
+package com.rannett.fixplugin.ui;
+
+import com.rannett.fixplugin.util.FixParsedMessages;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class FixParsedMessagesUpdaterTest {
+
+    private static final String MESSAGES = String.join("\n",
+            "8=FIX.4.4|9=5|35=0|49=A|56=B|10=000|",
+            "8=FIX.4.4|9=5|35=D|49=A|56=B|11=1|10=000|",
+            "8=FIX.4.4|9=5|35=8|49=B|56=A|11=1|10=000|",
+            "8=FIX.4.4|9=5|35=0|49=B|56=A|10=000|");
+
+    private static String replace(StringBuilder text, int offset, int oldLength, String inserted) {
+        text.replace(offset, offset + oldLength, inserted);
+        return text.toString();
+    }
+
+    /**
+     * Applies a burst of edits as a single merged edit and checks that the result matches a full
+     * parse of the final text.
+     */
+    private static void assertMergedEdits(int[][] edits, String[] inserts) {
+        StringBuilder text = new StringBuilder(MESSAGES);
+        FixParsedMessages published = FixParsedMessages.parse(MESSAGES);
+        FixParsedMessagesUpdater.PendingEdit merged = null;
+        for (int i = 0; i < edits.length; i++) {
+            replace(text, edits[i][0], edits[i][1], inserts[i]);
+            FixParsedMessagesUpdater.PendingEdit edit =
+                    new FixParsedMessagesUpdater.PendingEdit(edits[i][0], edits[i][1], inserts[i].length());
+            merged = merged == null ? edit : merged.then(edit);
+        }
+
+        FixParsedMessages updated = published.applyEdit(text, merged.offset(), merged.oldLength(), merged.newLength());
+        assertEquals(FixParsedMessages.parse(text).getRawEntries(), updated.getRawEntries());
+        assertEquals(text.length() - MESSAGES.length(), merged.newLength() - merged.oldLength());
+    }
+
+    @Test
+    public void testTypingIsMergedIntoOneEdit() {
+        assertMergedEdits(new int[][]{{60, 0}, {61, 0}, {62, 0}}, new String[]{"5", "5", "=X|"});
+    }
+
+    @Test
+    public void testDistantEditsAreMerged() {
+        assertMergedEdits(new int[][]{{120, 0}, {10, 4}}, new String[]{"\n8=FIX.4.4|35=0|10=000|", "9=77"});
+    }
+
+    @Test
+    public void testOverlappingDeletesAreMerged() {
+        assertMergedEdits(new int[][]{{40, 10}, {35, 20}, {0, 0}}, new String[]{"", "|", "# comment\n"});
+    }
+
+    @Test
+    public void testMergedEditDescribesTheWholeRange() {
+        FixParsedMessagesUpdater.PendingEdit edit = new FixParsedMessagesUpdater.PendingEdit(10, 0, 1)
+                .then(new FixParsedMessagesUpdater.PendingEdit(11, 0, 1))
+                .then(new FixParsedMessagesUpdater.PendingEdit(100, 2, 0));
+
+        assertEquals(new FixParsedMessagesUpdater.PendingEdit(10, 90, 90), edit);
+    }
+}
@@ -0,0 +1,104 @@
+package com.rannett.fixplugin.ui;
+
+import com.rannett.fixplugin.util.FixParsedMessages;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class FixPendingViewUpdateTest {
+
+    private static final String MESSAGES = String.join("\n",
+            "8=FIX.4.4|9=5|35=0|49=A|56=B|10=000|",
+            "8=FIX.4.4|9=5|35=D|49=A|56=B|11=1|10=000|",
+            "8=FIX.4.4|9=5|35=8|49=B|56=A|11=1|10=000|",
+            "8=FIX.4.4|9=5|35=0|49=B|56=A|10=000|");
+
+    private static FixParsedMessages edit(FixParsedMessages messages, StringBuilder text, int offset, int oldLength,
+                                          String inserted) {
+        text.replace(offset, offset + oldLength, inserted);
+        return messages.applyEdit(text.toString(), offset, oldLength, inserted.length());
+    }
+
+    /**
+     * Applies the pending change to the entries the view showed and checks that it yields the
+     * pending model.
+     */
+    private static void assertChangeLeadsTo(FixParsedMessages shown, FixPendingViewUpdate pending) {
+        FixParsedMessages.Change change = pending.getChange();
+        assertNotNull(change);
+        List<String> target = pending.getMessages().getRawEntries();
+        List<String> updated = new ArrayList<>(shown.getRawEntries().subList(0, change.getFirstEntry()));
+        updated.addAll(target.subList(change.getFirstEntry(), change.getFirstEntry() + change.getInsertedEntries()));
+        updated.addAll(shown.getRawEntries().subList(change.getFirstEntry() + change.getRemovedEntries(),
+                shown.getRawEntries().size()));
+        assertEquals(target, updated);
+    }
+
+    @Test
+    public void testEditsAreCombined() {
+        StringBuilder text = new StringBuilder(MESSAGES);
+        FixParsedMessages shown = FixParsedMessages.parse(text);
+        FixParsedMessages first = edit(shown, text, 40, 0, "\n8=FIX.4.4|35=0|10=000|");
+        FixParsedMessages second = edit(first, text, text.length() - 5, 5, "");
+
+        FixPendingViewUpdate pending = new FixPendingViewUpdate();
+        pending.add(first);
+        pending.add(second);
+
+        assertSame(second, pending.getMessages());
+        assertChangeLeadsTo(shown, pending);
+    }
+
+    @Test
+    public void testFullParseAfterEditRebuilds() {
+        StringBuilder text = new StringBuilder(MESSAGES);
+        FixParsedMessages edited = edit(FixParsedMessages.parse(text), text, 10, 4, "9=77");
+        FixParsedMessages parsed = FixParsedMessages.parse(text);
+
+        FixPendingViewUpdate pending = new FixPendingViewUpdate();
+        pending.add(edited);
+        pending.add(parsed);
+
+        assertSame(parsed, pending.getMessages());
+        assertNull(pending.getChange());
+    }
+
+    @Test
+    public void testEditAfterFullParseStillRebuilds() {
+        StringBuilder text = new StringBuilder(MESSAGES);
+        FixParsedMessages parsed = FixParsedMessages.parse(text);
+        FixParsedMessages edited = edit(parsed, text, 10, 4, "9=77");
+
+        FixPendingViewUpdate pending = new FixPendingViewUpdate();
+        pending.add(parsed);
+        pending.add(edited);
+
+        assertSame(edited, pending.getMessages());
+        assertNull(pending.getChange());
+    }
+
+    @Test
+    public void testEditAfterInvalidateStillRebuilds() {
+        StringBuilder text = new StringBuilder(MESSAGES);
+        FixParsedMessages current = FixParsedMessages.parse(text);
+        FixParsedMessages edited = edit(current, text, 0, 0, "# comment\n");
+
+        FixPendingViewUpdate pending = new FixPendingViewUpdate();
+        pending.invalidate(current);
+        pending.add(edited);
+
+        assertSame(edited, pending.getMessages());
+        assertNull(pending.getChange());
+
+        pending.clear();
+        assertNull(pending.getMessages());
+        pending.add(edit(edited, text, 0, 0, "# another\n"));
+        assertNotNull(pending.getChange());
+    }
+}
@@ -1,7 +1,10 @@
 package com.rannett.fixplugin.ui;
 
+import com.rannett.fixplugin.util.FixParsedMessages;
 import org.junit.Test;
 
+import javax.swing.event.TableModelEvent;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -16,4 +19,141 @@ public class FixTransposedTableModelTest {
         assertNull(model.getMessageIdForColumn(1));
         assertNull(model.getMessageIdForColumn(3));
     }
+
+    @Test
+    public void testColumnsOfALaterPageKeepTheirMessageNumbers() {
+        FixParsedMessages page = FixParsedMessages.of(List.of("8=FIX.4.4|35=A|10=000|", "8=FIX.4.4|35=0|10=000|"), 1000, 1000);
+        FixTransposedTableModel model = new FixTransposedTableModel(page, (id, tag, occ, value) -> {}, null);
+
+        assertEquals("Message 1001", model.getColumnName(2));
+        assertEquals(1, model.getMessageIndex("Message 1002"));
+        assertEquals(3, model.getColumnForMessageId("Message 1002"));
+        assertEquals(-1, model.getMessageIndex("Message 1"));
+    }
+
+    @Test
+    public void testValueEditUpdatesOnlyItsColumn() {
+        String text = "8=FIX.4.4|35=A|10=000|\n8=FIX.4.4|35=0|10=000|\n";
+        FixParsedMessages parsed = FixParsedMessages.parse(text);
+        FixTransposedTableModel model = new FixTransposedTableModel(parsed, (id, tag, occ, value) -> {}, null);
+        List<TableModelEvent> events = new ArrayList<>();
+        model.addTableModelListener(events::add);
+
+        int offset = text.indexOf("35=0") + 3;
+        String edited = text.substring(0, offset) + "5" + text.substring(offset + 1);
+        FixParsedMessages updated = parsed.applyEdit(edited, offset, 1, 1);
+
+        assertFalse(model.applyChange(updated, updated.getChange()));
+        assertEquals(1, events.size());
+        assertEquals(3, events.get(0).getColumn());
+        assertEquals("5", model.getValueAt(model.getRowForTag("35"), 3));
+        assertEquals("A", model.getValueAt(model.getRowForTag("35"), 2));
+    }
+
+    @Test
+    public void testChangesMatchRebuiltModel() {
+        String text = "8=FIX.4.4|35=A|10=000|\n8=FIX.4.4|35=0|10=000|\n";
+        String[] edits = {"8=FIX.4.4|35=D|11=X|10=000|\n", "8=FIX.4.4|35=0|58=hi|10=000|\n"};
+        FixParsedMessages parsed = FixParsedMessages.parse(text);
+        FixTransposedTableModel model = new FixTransposedTableModel(parsed, (id, tag, occ, value) -> {}, null);
+
+        // Append a message, then replace the last one with different tags
+        String appended = text + edits[0];
+        parsed = parsed.applyEdit(appended, text.length(), 0, edits[0].length());
+        assertTrue(model.applyChange(parsed, parsed.getChange()));
+        assertSameContent(new FixTransposedTableModel(parsed, null, null), model);
+
+        String replaced = text + edits[1];
+        parsed = parsed.applyEdit(replaced, text.length(), edits[0].length(), edits[1].length());
+        assertTrue(model.applyChange(parsed, parsed.getChange()));
+        assertSameContent(new FixTransposedTableModel(parsed, null, null), model);
+
+        // Remove the first message
+        String removed = replaced.substring(replaced.indexOf('\n') + 1);
+        parsed = parsed.applyEdit(removed, 0, replaced.indexOf('\n') + 1, 0);
+        assertTrue(model.applyChange(parsed, parsed.getChange()));
+        assertSameContent(new FixTransposedTableModel(parsed, null, null), model);
+    }
+
+    @Test
+    public void testOnlyOnePageOfMessagesIsShownAsColumns() {
+        int count = FixTransposedTableModel.PAGE_SIZE + 10;
+        StringBuilder text = new StringBuilder("8=FIX.4.4|35=0|52=first|10=000|\n");
+        for (int i = 1; i < count; i++) {
+            text.append("8=FIX.4.4|35=0|34=").append(i + 1).append("|10=000|\n");
+        }
+        text.append("8=FIX.4.4|35=0|58=last|10=000|\n");
+        FixParsedMessages parsed = FixParsedMessages.parse(text);
+        FixTransposedTableModel model = new FixTransposedTableModel(parsed, (id, tag, occ, value) -> {}, null);
+
+        assertEquals(2, model.getPageCount());
+        assertEquals(2 + FixTransposedTableModel.PAGE_SIZE, model.getColumnCount());
+        // Rows only cover the tags on the page
+        assertEquals(-1, model.getRowForTag("58"));
+        assertEquals("first", model.getValueAt(model.getRowForTag("52"), 2));
+        assertEquals(-1, model.getColumnForMessageId("Message " + count));
+
+        assertTrue(model.setPage(1));
+        assertEquals(2 + 11, model.getColumnCount());
+        assertEquals("Message " + (FixTransposedTableModel.PAGE_SIZE + 1), model.getColumnName(2));
+        assertEquals(String.valueOf(count), model.getValueAt(model.getRowForTag("34"), model.getColumnForMessageId("Message " + count)));
+        assertEquals("last", model.getValueAt(model.getRowForTag("58"), model.getColumnCount() - 1));
+        assertEquals(-1, model.getRowForTag("52"));
+        assertFalse(model.setPage(5));
+
+        assertTrue(model.setPage(0));
+        assertEquals(-1, model.getRowForTag("58"));
+        assertEquals("first", model.getValueAt(model.getRowForTag("52"), 2));
+    }
+
+    @Test
+    public void testChangesOnLaterPageMatchRebuiltModel() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < FixTransposedTableModel.PAGE_SIZE + 2; i++) {
+            builder.append("8=FIX.4.4|35=0|34=").append(i + 1).append("|10=000|\n");
+        }
+        String text = builder.toString();
+        FixParsedMessages parsed = FixParsedMessages.parse(text);
+        FixTransposedTableModel model = new FixTransposedTableModel(parsed, (id, tag, occ, value) -> {}, null);
+        model.setPage(1);
+
+        // A value edit on the first page keeps the rows of the shown page
+        String edited = "8=FIX.4.4|35=0|34=9|10=000|\n" + text.substring(text.indexOf('\n') + 1);
+        parsed = parsed.applyEdit(edited, 0, text.indexOf('\n') + 1, edited.indexOf('\n') + 1);
+        assertFalse(model.applyChange(parsed, parsed.getChange()));
+        assertSameContent(pageOf(parsed, 1), model);
+
+        // Appending adds a row for the new tag on the shown page
+        String appended = edited + "8=FIX.4.4|35=0|58=new|10=000|\n";
+        parsed = parsed.applyEdit(appended, edited.length(), 0, appended.length() - edited.length());
+        assertTrue(model.applyChange(parsed, parsed.getChange()));
+        assertSameContent(pageOf(parsed, 1), model);
+
+        // Removing the messages of the shown page goes back to the last page left
+        int cut = appended.indexOf("8=FIX.4.4|35=0|34=" + FixTransposedTableModel.PAGE_SIZE + "|");
+        String trimmed = appended.substring(0, cut);
+        parsed = parsed.applyEdit(trimmed, cut, appended.length() - cut, 0);
+        assertTrue(model.applyChange(parsed, parsed.getChange()));
+        assertEquals(0, model.getPage());
+        assertSameContent(pageOf(parsed, 0), model);
+    }
+
+    private static FixTransposedTableModel pageOf(FixParsedMessages parsed, int page) {
+        FixTransposedTableModel model = new FixTransposedTableModel(parsed, null, null);
+        model.setPage(page);
+        return model;
+    }
+
+    private static void assertSameContent(FixTransposedTableModel expected, FixTransposedTableModel actual) {
+        assertEquals(expected.getRowCount(), actual.getRowCount());
+        assertEquals(expected.getColumnCount(), actual.getColumnCount());
+        for (int column = 0; column < expected.getColumnCount(); column++) {
+            assertEquals(expected.getColumnName(column), actual.getColumnName(column));
+            for (int row = 0; row < expected.getRowCount(); row++) {
+                if (column != 1) {
+                    assertEquals(expected.getValueAt(row, column), actual.getValueAt(row, column));
+                }
+            }
+        }
+    }
 }
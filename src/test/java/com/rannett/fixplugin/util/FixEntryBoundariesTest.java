@@ -0,0 +1,104 @@
+package com.rannett.fixplugin.util;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class FixEntryBoundariesTest {
+
+    private static final String[] PIECES = {
+            "8=FIX.4.4|9=12|35=0|10=000|",
+            "8=FIX.4.4\u00019=40\u000135=j\u0001351=<a>\n10=1\n8=x</a>\u000110=123\u0001",
+            "8=FIX.4.2|35=D|no checksum",
+            "# comment 8=FIX.4.4|10=000|",
+            "2024-01-01 INFO ",
+            "\n", "\r\n", "\n\n", " ", "|",
+    };
+
+    private static final String[] FRAGMENTS = {
+            "1", "0", "=", "|", "\n", "8", "#", "10=", "8=", "x", "\u0001", "10=5|",
+    };
+
+    @Test
+    public void testEditsMatchFullScan() {
+        Random random = new Random(11);
+        for (int round = 0; round < 300; round++) {
+            StringBuilder text = new StringBuilder(randomLog(random, 1 + random.nextInt(40)));
+            FixEntryBoundaries boundaries = FixParallelMessageSplitter.scan(text.toString(), 1 + random.nextInt(6));
+            for (int step = 0; step < 30; step++) {
+                int offset = random.nextInt(text.length() + 1);
+                int oldLength = Math.min(random.nextInt(12), text.length() - offset);
+                String inserted = random.nextBoolean()
+                        ? FRAGMENTS[random.nextInt(FRAGMENTS.length)]
+                        : PIECES[random.nextInt(PIECES.length)];
+                if (random.nextInt(4) == 0) {
+                    inserted = "";
+                }
+                text.replace(offset, offset + oldLength, inserted);
+                String current = text.toString();
+
+                FixEntryBoundaries.Edit edit = boundaries.applyEdit(current, offset, oldLength, inserted.length());
+                FixEntryBoundaries expected = FixEntryBoundaries.scan(current);
+                assertArrayEquals("round " + round + ", step " + step, expected.toArray(), edit.getBoundaries().toArray());
+                assertUnchangedOutsideEdit(boundaries, edit, inserted.length() - oldLength);
+                boundaries = edit.getBoundaries();
+            }
+        }
+    }
+
+    @Test
+    public void testValueEditRescansOnlyTheEditedMessage() {
+        String message = "8=FIX.4.4|9=12|35=0|34=1|10=000|\n";
+        String text = message.repeat(100);
+        FixEntryBoundaries boundaries = FixEntryBoundaries.scan(text);
+        int offset = message.length() * 50 + message.indexOf("34=1") + 3;
+        String edited = text.substring(0, offset) + "22" + text.substring(offset + 1);
+
+        FixEntryBoundaries.Edit edit = boundaries.applyEdit(edited, offset, 1, 2);
+
+        assertEquals(50, edit.getFirstEntry());
+        assertEquals(1, edit.getRemovedCount());
+        assertEquals(1, edit.getInsertedCount());
+        assertEquals(100, edit.getBoundaries().size());
+        assertEquals(message.length() * 51 + 1, edit.getBoundaries().getStart(51));
+    }
+
+    @Test
+    public void testMessageWithoutChecksumIsRescannedWhenChecksumAppears() {
+        String text = "8=FIX.4.4|35=0|\n# note\n";
+        FixEntryBoundaries boundaries = FixEntryBoundaries.scan(text);
+        assertEquals(2, boundaries.size());
+
+        // A checksum field anywhere later ends the first message there instead
+        String edited = text + "|10=5|";
+        FixEntryBoundaries.Edit edit = boundaries.applyEdit(edited, text.length(), 0, 6);
+
+        assertArrayEquals(FixEntryBoundaries.scan(edited).toArray(), edit.getBoundaries().toArray());
+        assertEquals(1, edit.getBoundaries().size());
+        assertEquals(0, edit.getFirstEntry());
+    }
+
+    private static void assertUnchangedOutsideEdit(FixEntryBoundaries before, FixEntryBoundaries.Edit edit, int delta) {
+        FixEntryBoundaries after = edit.getBoundaries();
+        for (int i = 0; i < edit.getFirstEntry(); i++) {
+            assertEquals(before.getStart(i), after.getStart(i));
+            assertEquals(before.getEnd(i), after.getEnd(i));
+        }
+        int shift = edit.getInsertedCount() - edit.getRemovedCount();
+        for (int i = edit.getFirstEntry() + edit.getRemovedCount(); i < before.size(); i++) {
+            assertEquals(before.getStart(i) + delta, after.getStart(i + shift));
+            assertEquals(before.getEnd(i) + delta, after.getEnd(i + shift));
+        }
+    }
+
+    private static String randomLog(Random random, int pieces) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < pieces; i++) {
+            text.append(PIECES[random.nextInt(PIECES.length)]);
+        }
+        return text.toString();
+    }
+}
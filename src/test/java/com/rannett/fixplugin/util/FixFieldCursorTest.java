@@ -0,0 +1,91 @@
+package com.rannett.fixplugin.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FixFieldCursorTest {
+
+    @Test
+    public void testWalksPipeAndSohDelimitedFields() {
+        String message = "8=FIX.4.4|35=D\u000155=IBM|10=000|";
+        FixFieldCursor cursor = new FixFieldCursor().reset(message);
+
+        assertTrue(cursor.next());
+        assertEquals(8, cursor.tag());
+        assertEquals("FIX.4.4", cursor.value());
+        assertTrue(cursor.next());
+        assertEquals(35, cursor.tag());
+        assertTrue(cursor.valueEquals("D"));
+        assertTrue(cursor.next());
+        assertEquals(55, cursor.tag());
+        assertEquals(message.indexOf("IBM"), cursor.valueStart());
+        assertEquals(3, cursor.valueLength());
+        assertTrue(cursor.next());
+        assertEquals(10, cursor.tag());
+        assertEquals(0, cursor.valueAsInt());
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    public void testLengthPrefixedDataKeepsEmbeddedDelimiters() {
+        String xml = "<a b=\"1|2\">\n</a>";
+        String message = "8=FIX.4.4|212=" + xml.length() + "|213=" + xml + "|10=000|";
+        FixFieldCursor cursor = new FixFieldCursor().reset(message);
+        String data = null;
+        int fields = 0;
+        while (cursor.next()) {
+            fields++;
+            if (cursor.tag() == 213) {
+                data = cursor.value();
+            }
+        }
+        assertEquals(xml, data);
+        assertEquals(4, fields);
+    }
+
+    @Test
+    public void testRangeResetAndReuse() {
+        String text = "xx8=FIX.4.2|35=0|yy";
+        FixFieldCursor cursor = new FixFieldCursor().reset(text, 2, text.length() - 2);
+        assertTrue(cursor.next());
+        assertEquals("FIX.4.2", cursor.value());
+        assertTrue(cursor.next());
+        assertEquals("0", cursor.value());
+        assertFalse(cursor.next());
+
+        cursor.reset("58=note|");
+        assertTrue(cursor.next());
+        assertEquals(58, cursor.tag());
+    }
+
+    @Test
+    public void testNonNumericTagsAreExposedAsText() {
+        FixFieldCursor cursor = new FixFieldCursor().reset("abc=1|035=2|");
+        assertTrue(cursor.next());
+        assertEquals(-1, cursor.tag());
+        assertEquals("abc", cursor.tagText());
+        assertTrue(cursor.next());
+        assertEquals(-1, cursor.tag());
+        assertEquals("035", cursor.tagText());
+    }
+
+    @Test
+    public void testTagTextIsShared() {
+        FixFieldCursor first = new FixFieldCursor().reset("35=A|");
+        FixFieldCursor second = new FixFieldCursor().reset("35=B|");
+        first.next();
+        second.next();
+        assertSame(first.tagText(), second.tagText());
+    }
+
+    @Test
+    public void testFindValue() {
+        assertEquals("FIX.4.4", FixFieldCursor.findValue("58=8=x|8=FIX.4.4|", FixFieldCursor.BEGIN_STRING));
+        assertNull(FixFieldCursor.findValue("35=0|", FixFieldCursor.BEGIN_STRING));
+    }
+}
@@ -0,0 +1,74 @@
+package com.rannett.fixplugin.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class FixMessageSplitterTest {
+
+    private static final String MSG = "8=FIX.4.4|9=12|35=0|10=000|";
+    private static final String DATA_MSG = "8=FIX.4.4\u00019=40\u000135=j\u0001351=<a>\nline</a>\u000110=123\u0001";
+
+    @Test
+    public void testStreamingMatchesInMemorySplitForSmallChunks() {
+        String text = "#first\nnote " + MSG + "\r\n\n" + DATA_MSG + "\n8=FIX.4.2|35=D|no checksum\n" + MSG;
+        List<String> expected = FixMessageParser.splitMessages(text);
+        for (int chunkSize = 1; chunkSize <= 16; chunkSize++) {
+            List<String> streamed = new ArrayList<>();
+            new FixMessageSplitter(new StringReader(text), chunkSize).forEachRemaining(streamed::add);
+            assertEquals("chunk size " + chunkSize, expected, streamed);
+        }
+    }
+
+    @Test
+    public void testEntryOffsetsPointIntoInput() {
+        String text = "#c\n" + MSG + "\n" + DATA_MSG;
+        FixMessageSplitter splitter = new FixMessageSplitter(new StringReader(text), 4);
+        while (splitter.hasNext()) {
+            String entry = splitter.next();
+            assertEquals(entry, text.substring((int) splitter.getEntryStart(), (int) splitter.getEntryEnd()));
+        }
+    }
+
+    @Test
+    public void testStreamMessagesFromChannel() {
+        String text = MSG + "\n" + DATA_MSG + "\n";
+        FixMessageSplitter splitter = FixMessageSplitter.fromChannel(
+                Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII))));
+        List<String> streamed = new ArrayList<>();
+        splitter.forEachRemaining(streamed::add);
+        assertEquals(List.of(MSG, DATA_MSG), streamed);
+    }
+
+    @Test
+    public void testStreamMessagesIsLazy() {
+        String text = MSG + "\n" + MSG + "\n" + MSG;
+        List<String> firstTwo = FixMessageParser.streamMessages(new StringReader(text))
+                .limit(2)
+                .collect(Collectors.toList());
+        assertEquals(List.of(MSG, MSG), firstTwo);
+    }
+
+    @Test
+    public void testExtractFixMessagesTextStreaming() throws Exception {
+        String text = "#comment\n" + MSG + "\nnoise\n\n" + MSG + "\n";
+        StringWriter writer = new StringWriter();
+        FixMessageParser.extractFixMessagesText(new StringReader(text), writer);
+        assertEquals(FixMessageParser.extractFixMessagesText(text), writer.toString());
+    }
+
+    @Test
+    public void testEmptyReaderHasNoEntries() {
+        assertFalse(new FixMessageSplitter(new StringReader("")).hasNext());
+    }
+}
@@ -0,0 +1,43 @@
+package com.rannett.fixplugin.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FixMessageStoreTest {
+
+    @Test
+    public void testEntriesAreReadBackThroughViews() {
+        String text = "xx8=FIX.4.4|35=0|10=000|yy";
+        FixMessageStore store = new FixMessageStore.Builder()
+                .add(text, 2, text.length() - 2)
+                .add("# comment")
+                .add("")
+                .build();
+        assertEquals(3, store.size());
+        CharSequence first = store.get(0);
+        assertEquals("8=FIX.4.4|35=0|10=000|", first.toString());
+        assertEquals('3', first.charAt(10));
+        assertEquals("35=0", first.subSequence(10, 14).toString());
+        assertEquals("# comment", store.getString(1));
+        assertEquals("", store.getString(2));
+    }
+
+    @Test
+    public void testLatin1IsStoredAsBytesAndWiderTextFallsBack() {
+        String latin1 = "58=café|";
+        String wide = "58=€100|";
+        FixMessageStore store = new FixMessageStore.Builder().add(latin1).add(wide).add("35=0|").build();
+        assertEquals(latin1, store.getString(0));
+        assertEquals(wide, store.getString(1));
+        assertEquals("35=0|", store.getString(2));
+        assertTrue(store.getRetainedSize() >= latin1.length() + 5);
+    }
+
+    @Test
+    public void testEmptyStore() {
+        assertEquals(0, FixMessageStore.empty().size());
+        assertEquals(0, new FixMessageStore.Builder().build().size());
+    }
+}
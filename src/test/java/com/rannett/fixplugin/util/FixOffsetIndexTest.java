@@ -0,0 +1,84 @@
+package com.rannett.fixplugin.util;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class FixOffsetIndexTest {
+
+    private static final String LOG = "8=FIX.4.4|9=12|35=0|10=000|\n"
+            + "# comment 8=FIX.4.4|35=D|\n"
+            + "8=FIX.4.4|35=D|55=IBM|10=001|\n";
+
+    @Test
+    public void testFindsFieldAtOffset() {
+        FixOffsetIndex index = FixOffsetIndex.build(LOG);
+        int symbol = LOG.indexOf("55=IBM");
+
+        for (int offset = symbol; offset <= symbol + "55=IBM".length(); offset++) {
+            FixOffsetIndex.Field field = index.findFieldAt(offset);
+            assertNotNull("offset " + offset, field);
+            assertEquals(55, field.tag());
+            assertEquals(2, field.messageNumber());
+            assertEquals(symbol, field.start());
+            assertEquals(symbol + "55=IBM".length(), field.end());
+        }
+    }
+
+    @Test
+    public void testCommentLinesAreNotMessages() {
+        FixOffsetIndex index = FixOffsetIndex.build(LOG);
+
+        assertNull(index.findFieldAt(LOG.indexOf("35=D")));
+        assertEquals(-1, index.getMessageNumber(index.findEntryAt(LOG.indexOf("# comment"))));
+        assertEquals(1, index.findFieldAt(0).messageNumber());
+        assertEquals(3, index.getEntryCount());
+        assertEquals(LOG.indexOf("# comment"), index.getStart(1));
+        assertEquals(LOG.lastIndexOf("8=FIX"), index.getStart(index.getEntryForMessage(2)));
+    }
+
+    @Test
+    public void testFindsFieldByWholeTagAndOccurrence() {
+        String text = "# header\n8=FIX.4.4|35=8|55=IBM|5=A|448=P1|448=P2|10=000|\n";
+        FixOffsetIndex index = FixOffsetIndex.build(text);
+
+        FixOffsetIndex.Field field = index.findField(1, 5, 1);
+        assertNotNull(field);
+        assertEquals("A", text.substring(field.valueStart(), field.end()));
+        assertEquals(text.indexOf("|5=A") + 1, field.start());
+
+        FixOffsetIndex.Field second = index.findField(1, 448, 2);
+        assertNotNull(second);
+        assertEquals("P2", text.substring(second.valueStart(), second.end()));
+
+        assertNull(index.findField(1, 448, 3));
+        assertNull(index.findField(1, 44, 1));
+        assertNull(index.findField(2, 35, 1));
+    }
+
+    @Test
+    public void testEditsMatchRebuild() {
+        String[] fragments = {"8=FIX.4.4|35=0|10=000|\n", "# note\n", "\n", "|", "1", "=", "55=X|", "#"};
+        Random random = new Random(23);
+        StringBuilder text = new StringBuilder(LOG.repeat(5));
+        FixOffsetIndex index = FixOffsetIndex.build(text.toString());
+        for (int step = 0; step < 500; step++) {
+            int offset = random.nextInt(text.length() + 1);
+            int oldLength = Math.min(random.nextInt(8), text.length() - offset);
+            String inserted = random.nextInt(4) == 0 ? "" : fragments[random.nextInt(fragments.length)];
+            text.replace(offset, offset + oldLength, inserted);
+            String current = text.toString();
+
+            index = index.applyEdit(current, offset, oldLength, inserted.length());
+            FixOffsetIndex expected = FixOffsetIndex.build(current);
+            for (int position = 0; position <= current.length(); position++) {
+                assertEquals("step " + step + ", offset " + position,
+                        expected.findFieldAt(position), index.findFieldAt(position));
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.rannett.fixplugin.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class FixParallelMessageSplitterTest {
+
+    private static final String[] PIECES = {
+            "8=FIX.4.4|9=12|35=0|10=000|",
+            "8=FIX.4.4\u00019=40\u000135=j\u0001351=<a>\n10=1\n8=x</a>\u000110=123\u0001",
+            "8=FIX.4.2|35=D|no checksum",
+            "# comment 8=FIX.4.4|10=000|",
+            "2024-01-01 INFO ",
+            "\n", "\r\n", "\n\n", " ", "|",
+    };
+
+    @Test
+    public void testMatchesSequentialSplitForAnySegmentCount() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            String text = randomLog(random, 1 + random.nextInt(60));
+            List<String> expected = sequential(text);
+            for (int segments = 1; segments <= 12; segments++) {
+                assertEquals("round " + round + ", segments " + segments,
+                        expected, FixParallelMessageSplitter.split(text, segments));
+            }
+        }
+    }
+
+    @Test
+    public void testBoundariesMatchSequentialOffsets() {
+        String text = randomLog(new Random(7), 200);
+        FixMessageSplitter splitter = new FixMessageSplitter(text);
+        List<Integer> expected = new ArrayList<>();
+        while (splitter.skip()) {
+            expected.add((int) splitter.getEntryStart());
+            expected.add((int) splitter.getEntryEnd());
+        }
+        int[] bounds = FixParallelMessageSplitter.findEntryBoundaries(text, 8);
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), bounds);
+    }
+
+    @Test
+    public void testEmptyAndWhitespaceOnlyInput() {
+        assertEquals(List.of(), FixParallelMessageSplitter.split("", 4));
+        assertEquals(List.of(), FixParallelMessageSplitter.split("\n\r\n\n", 4));
+    }
+
+    private static String randomLog(Random random, int pieces) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < pieces; i++) {
+            text.append(PIECES[random.nextInt(PIECES.length)]);
+        }
+        return text.toString();
+    }
+
+    private static List<String> sequential(String text) {
+        List<String> entries = new ArrayList<>();
+        new FixMessageSplitter(text).forEachRemaining(entries::add);
+        return entries;
+    }
+}
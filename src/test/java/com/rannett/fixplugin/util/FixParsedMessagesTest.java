@@ -0,0 +1,154 @@
+package com.rannett.fixplugin.util;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FixParsedMessagesTest {
+
+    private static final String TEXT = "# session start\n"
+            + "8=FIX.4.4|35=A|49=S|56=T|10=000|\n"
+            + "8=FIX.4.4|35=0|49=T|56=S|10=000|\n";
+
+    @Test
+    public void testEntriesAreNumberedOnceForAllViews() {
+        FixParsedMessages parsed = FixParsedMessages.parse(TEXT);
+        List<FixParsedMessages.Entry> entries = parsed.getEntries();
+        assertEquals(3, entries.size());
+        assertFalse(entries.get(0).isMessage());
+        assertNull(entries.get(0).getMessageId());
+        assertEquals(2, entries.get(1).getEntryNumber());
+        assertEquals("Message 1", entries.get(1).getMessageId());
+        assertEquals(2, parsed.getMessages().size());
+        assertSame(entries.get(2), parsed.getMessage(2));
+        assertNull(parsed.getMessage(3));
+    }
+
+    @Test
+    public void testPageIsNumberedByItsPositionInTheLog() {
+        FixParsedMessages page = FixParsedMessages.of(List.of("# reconnect", "8=FIX.4.4|35=0|10=000|"), 1000, 997);
+        FixParsedMessages.Entry message = page.getMessages().get(0);
+        assertEquals(1001, page.getEntries().get(0).getEntryNumber());
+        assertEquals("Message 998", message.getMessageId());
+        assertSame(message, page.getMessage(998));
+        assertNull(page.getMessage(1));
+    }
+
+    @Test
+    public void testFieldsAreSplitInOrder() {
+        FixParsedMessages.Entry message = FixParsedMessages.parse(TEXT).getMessage(1);
+        assertEquals(5, message.getFieldCount());
+        assertEquals("35", message.getTag(1));
+        assertEquals("A", message.getValue(1));
+        assertEquals("10", message.getTag(4));
+    }
+
+    @Test
+    public void testFixVersionFallsBackWhenFirstEntryHasNone() {
+        FixParsedMessages parsed = FixParsedMessages.of(List.of("# no version", "8=FIX.4.2|35=0|10=000|"));
+        assertNull(parsed.getFixVersion());
+        assertEquals("FIXT.1.1", parsed.getFixVersionOrDefault());
+        assertTrue(parsed.getRawEntries().contains("# no version"));
+    }
+
+    @Test
+    public void testEditReusesEntriesOutsideTheChange() {
+        FixParsedMessages parsed = FixParsedMessages.parse(TEXT);
+        int offset = TEXT.indexOf("35=0") + 3;
+        String edited = TEXT.substring(0, offset) + "5" + TEXT.substring(offset + 1);
+
+        FixParsedMessages updated = parsed.applyEdit(edited, offset, 1, 1);
+
+        FixParsedMessages.Change change = updated.getChange();
+        assertEquals(2, change.getFirstEntry());
+        assertEquals(1, change.getRemovedEntries());
+        assertEquals(1, change.getInsertedEntries());
+        assertEquals(1, change.getFirstMessage());
+        assertSame(parsed.getEntries().get(1), updated.getEntries().get(1));
+        assertEquals("5", updated.getMessage(2).getValue(1));
+        assertEquals(FixParsedMessages.parse(edited).getRawEntries(), updated.getRawEntries());
+    }
+
+    @Test
+    public void testEditRenumbersFollowingMessages() {
+        FixParsedMessages parsed = FixParsedMessages.parse(TEXT);
+        String message = "8=FIX.4.4|35=1|10=000|\n";
+        int offset = TEXT.indexOf("8=FIX.4.4|35=A");
+        String edited = TEXT.substring(0, offset) + message + TEXT.substring(offset);
+
+        FixParsedMessages updated = parsed.applyEdit(edited, offset, 0, message.length());
+
+        assertEquals(4, updated.getEntries().size());
+        assertEquals("Message 3", updated.getEntries().get(3).getMessageId());
+        assertEquals(4, updated.getEntries().get(3).getEntryNumber());
+        assertEquals(1, updated.getChange().getInsertedMessages() - updated.getChange().getRemovedMessages());
+    }
+
+    @Test
+    public void testCombinedChangesCoverBothEdits() {
+        String text = "8=FIX.4.4|35=0|10=000|\n".repeat(10);
+        FixParsedMessages parsed = FixParsedMessages.parse(text);
+        int second = text.length() / 10 * 2 + 13;
+        int eighth = text.length() / 10 * 8 + 13;
+
+        String first = text.substring(0, eighth) + "1" + text.substring(eighth + 1);
+        FixParsedMessages once = parsed.applyEdit(first, eighth, 1, 1);
+        String both = first.substring(0, second) + first.substring(second + 1);
+        FixParsedMessages twice = once.applyEdit(both, second, 1, 0);
+
+        FixParsedMessages.Change change = once.getChange().then(twice.getChange());
+        assertEquals(2, change.getFirstEntry());
+        assertEquals(7, change.getRemovedEntries());
+        assertEquals(7, change.getInsertedEntries());
+        for (int i = 0; i < 2; i++) {
+            assertSame(parsed.getEntries().get(i), twice.getEntries().get(i));
+        }
+        assertSame(parsed.getEntries().get(9), twice.getEntries().get(9));
+    }
+
+    @Test
+    public void testSuccessiveEditsMatchFullParse() {
+        String text = "8=FIX.4.4|35=0|10=000|\n".repeat(20);
+        FixParsedMessages model = FixParsedMessages.parse(text);
+        for (int i = 0; i < FixParsedMessages.MAX_EDIT_DEPTH * 2 + 1; i++) {
+            // Alternately insert a comment and a message, shifting every later entry
+            String inserted = i % 2 == 0 ? "# note " + i + "\n" : "8=FIX.4.4|35=1|10=000|\n";
+            int offset = text.indexOf('\n', text.length() / 3) + 1;
+            text = text.substring(0, offset) + inserted + text.substring(offset);
+            FixParsedMessages before = model;
+            model = model.applyEdit(text, offset, 0, inserted.length());
+
+            FixParsedMessages expected = FixParsedMessages.parse(text);
+            assertEquals(expected.getRawEntries(), model.getRawEntries());
+            assertEquals(expected.getMessages().size(), model.getMessages().size());
+            for (int entry = 0; entry < expected.getEntries().size(); entry++) {
+                FixParsedMessages.Entry actual = model.getEntries().get(entry);
+                assertEquals(entry + 1, actual.getEntryNumber());
+                assertEquals(expected.getEntries().get(entry).getMessageNumber(), actual.getMessageNumber());
+                if (actual.isMessage()) {
+                    assertSame(actual, model.getMessage(actual.getMessageNumber()));
+                }
+            }
+            for (int entry = 0; entry < model.getChange().getFirstEntry(); entry++) {
+                assertSame(before.getEntries().get(entry), model.getEntries().get(entry));
+            }
+        }
+    }
+
+    @Test
+    public void testEditOfUnsplitModelReparses() {
+        FixParsedMessages parsed = FixParsedMessages.of(List.of("8=FIX.4.4|35=0|10=000|"));
+        String text = "8=FIX.4.4|35=0|10=000|\n8=FIX.4.4|35=1|10=000|";
+        FixParsedMessages updated = parsed.applyEdit(text, 22, 0, text.length() - 22);
+        assertEquals(2, updated.getMessages().size());
+        assertEquals(0, updated.getChange().getFirstEntry());
+        assertEquals(1, updated.getChange().getRemovedEntries());
+        assertEquals(2, updated.getChange().getInsertedEntries());
+    }
+}
@@ -0,0 +1,36 @@
+package com.rannett.fixplugin.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class FixTextScannerTest {
+
+    @Test
+    public void testNextDelimiterAcceptsMixedDelimiters() {
+        String text = "35=D|55=IBM\u000110=000";
+        FixTextScanner scanner = new FixTextScanner().reset(text, text.length());
+        assertEquals(4, scanner.nextDelimiter(0));
+        assertEquals(11, scanner.nextDelimiter(5));
+        assertEquals(text.length(), scanner.nextDelimiter(12));
+        assertEquals(2, scanner.nextEquals(0));
+    }
+
+    @Test
+    public void testScannerMatchesForNonStringText() {
+        StringBuilder text = new StringBuilder("8=FIX.4.4|35=0|");
+        FixTextScanner scanner = new FixTextScanner().reset(text, text.length());
+        assertEquals(9, scanner.nextDelimiter(0));
+        assertEquals(12, scanner.nextEquals(10));
+        assertEquals(-1, new FixTextScanner().reset(text, 5).nextEquals(2));
+    }
+
+    @Test
+    public void testBoundedIndexOfIgnoresMatchesPastRange() {
+        String text = "abc|def|" + "x".repeat(100);
+        assertEquals(3, FixTextScanner.indexOf(text, '|', 0, 4));
+        assertEquals(-1, FixTextScanner.indexOf(text, '|', 4, 7));
+        assertEquals(7, FixTextScanner.indexOf(text, '|', 4, 8));
+        assertEquals(7, FixTextScanner.indexOf(new StringBuilder(text), "|x", 0));
+    }
+}
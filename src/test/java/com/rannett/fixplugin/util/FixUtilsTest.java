@@ -64,4 +64,11 @@ public class FixUtilsTest {
         assertTrue(version.isPresent());
         assertEquals("FIX.4.2", version.get());
     }
+
+    @Test
+    public void testCalculateChecksumIgnoresLineBreaks() {
+        String body = "8=FIX.4.2\u00019=5\u000135=0\u0001";
+        assertEquals(FixUtils.calculateChecksum(body), FixUtils.calculateChecksum(body + "\n"));
+        assertEquals(body.chars().sum() % 256, FixUtils.calculateChecksum(body));
+    }
 }